@@ -0,0 +1,207 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.fa.relay.GpgServerMessageType;
+import com.faforever.client.game.Faction;
+import com.faforever.client.remote.domain.ClientMessageType;
+import com.faforever.client.remote.domain.FafServerMessageType;
+import com.faforever.client.remote.domain.GameAccess;
+import com.faforever.client.remote.domain.GameStatus;
+import com.faforever.client.remote.domain.LobbyMode;
+import com.faforever.client.remote.domain.MessageTarget;
+import com.faforever.client.remote.domain.RatingRange;
+import com.faforever.client.remote.domain.ServerMessageType;
+import com.faforever.client.remote.domain.VictoryCondition;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+
+/**
+ * Measures how fast a burst of lobby messages, like the one received after logging in at peak hours, is decoded by
+ * {@link ServerMessageDecoder}, compared to parsing each message into a JSON tree first.
+ * <p>
+ * By default, the burst consists of synthetic {@code game_info} and {@code player_info} messages. To decode recorded
+ * traffic instead, pass a recording made by {@link com.faforever.client.remote.LobbyTrafficRecorder} as parameter,
+ * that is {@code ./gradlew jmhJar} followed by {@code java -jar build/libs/<jar>-jmh.jar ServerMessageDecoderBenchmark
+ * -p recording=<file>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerMessageDecoderBenchmark {
+
+  private static final int GAMES_PER_MESSAGE = 50;
+  private static final int PLAYERS_PER_MESSAGE = 100;
+
+  /** Path to a lobby traffic recording, or empty to decode a synthetic burst. */
+  @Param("")
+  public String recording;
+
+  /** Number of messages of the synthetic burst. */
+  @Param("1000")
+  public int burstSize;
+
+  private Gson gson;
+  private JsonParser jsonParser;
+  private ServerMessageDecoder decoder;
+  private List<String> messages;
+
+  @Setup
+  public void setUp() throws IOException {
+    // Configured like the Gson of FafServerAccessorImpl
+    gson = new GsonBuilder()
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .registerTypeAdapter(VictoryCondition.class, VictoryConditionTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GameStatus.class, GameStateTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GameAccess.class, GameAccessTypeAdapter.INSTANCE)
+        .registerTypeAdapter(ClientMessageType.class, ClientMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(FafServerMessageType.class, ServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GpgServerMessageType.class, GpgServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(MessageTarget.class, MessageTargetTypeAdapter.INSTANCE)
+        .registerTypeAdapter(RatingRange.class, RatingRangeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(Faction.class, FactionTypeAdapter.INSTANCE)
+        .registerTypeAdapter(LobbyMode.class, LobbyModeTypeAdapter.INSTANCE)
+        .create();
+    decoder = new ServerMessageDecoder(gson);
+    jsonParser = new JsonParser();
+    messages = recording.isEmpty() ? createSyntheticBurst() : readRecording();
+  }
+
+  @Benchmark
+  public void decode(Blackhole blackhole) {
+    for (String message : messages) {
+      blackhole.consume(decoder.decode(message));
+    }
+  }
+
+  /**
+   * How messages were decoded before {@link ServerMessageDecoder}: parsed into a tree, then bound from the tree.
+   */
+  @Benchmark
+  public void decodeViaJsonTree(Blackhole blackhole) {
+    for (String message : messages) {
+      JsonObject jsonObject = jsonParser.parse(message).getAsJsonObject();
+      JsonElement command = jsonObject.get("command");
+      JsonElement target = jsonObject.get("target");
+      if (command == null) {
+        continue;
+      }
+
+      MessageTarget messageTarget = MessageTarget.fromString(target == null || target.isJsonNull() ? null : target.getAsString());
+      if (messageTarget == null) {
+        continue;
+      }
+      ServerMessageType serverMessageType = messageTarget == MessageTarget.CLIENT
+          ? FafServerMessageType.fromString(command.getAsString())
+          : GpgServerMessageType.fromString(command.getAsString());
+      if (serverMessageType != null) {
+        blackhole.consume(gson.fromJson(jsonObject, serverMessageType.getType()));
+      }
+    }
+  }
+
+  private List<String> createSyntheticBurst() {
+    List<String> burst = new ArrayList<>(burstSize);
+    for (int i = 0; i < burstSize; i++) {
+      burst.add(i % 2 == 0 ? createGameInfoMessage(i) : createPlayerInfoMessage(i));
+    }
+    return burst;
+  }
+
+  private static String createGameInfoMessage(int seed) {
+    StringBuilder stringBuilder = new StringBuilder("{\"command\": \"game_info\", \"games\": [");
+    for (int i = 0; i < GAMES_PER_MESSAGE; i++) {
+      int uid = seed * GAMES_PER_MESSAGE + i;
+      if (i > 0) {
+        stringBuilder.append(", ");
+      }
+      stringBuilder.append("{\"command\": \"game_info\", \"visibility\": \"public\", \"password_protected\": false")
+          .append(", \"uid\": ").append(uid)
+          .append(", \"title\": \"Game ").append(uid).append(" 4v4 no noobs\"")
+          .append(", \"state\": \"open\", \"featured_mod\": \"faf\", \"featured_mod_versions\": {}")
+          .append(", \"sim_mods\": {\"9e8ea941-c306-4751-b367-f00000000005\": \"Supreme Economy v2\"}")
+          .append(", \"mapname\": \"scmp_0").append(10 + i % 40).append("\", \"map_file_path\": \"maps/scmp_0")
+          .append(10 + i % 40).append(".zip\", \"host\": \"Host").append(uid).append("\"")
+          .append(", \"num_players\": 4, \"max_players\": 8, \"launched_at\": null")
+          .append(", \"teams\": {\"1\": [\"Host").append(uid).append("\", \"Player").append(uid)
+          .append("\"], \"2\": [\"Opponent").append(uid).append("\", \"Rival").append(uid).append("\"]}}");
+    }
+    return stringBuilder.append("]}").toString();
+  }
+
+  private static String createPlayerInfoMessage(int seed) {
+    StringBuilder stringBuilder = new StringBuilder("{\"command\": \"player_info\", \"players\": [");
+    for (int i = 0; i < PLAYERS_PER_MESSAGE; i++) {
+      int id = seed * PLAYERS_PER_MESSAGE + i;
+      if (i > 0) {
+        stringBuilder.append(", ");
+      }
+      stringBuilder.append("{\"id\": ").append(id)
+          .append(", \"login\": \"Player").append(id).append("\"")
+          .append(", \"clan\": \"CLN\", \"country\": \"DE\", \"number_of_games\": ").append(id % 3000)
+          .append(", \"global_rating\": [").append(1000 + id % 1000).append(".5, 120.25]")
+          .append(", \"ladder_rating\": [").append(800 + id % 1200).append(".5, 80.75]")
+          .append(", \"avatar\": {\"url\": \"https://content.faforever.com/faf/avatars/avatar").append(id % 20)
+          .append(".png\", \"tooltip\": \"Avatar\"}}");
+    }
+    return stringBuilder.append("]}").toString();
+  }
+
+  /**
+   * Reads the messages of a recording, see {@link com.faforever.client.remote.LobbyTrafficRecorder} for its format.
+   */
+  private List<String> readRecording() throws IOException {
+    List<String> recordedMessages = new ArrayList<>();
+    try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(recording))))) {
+      // Magic and format version
+      inputStream.readLong();
+      inputStream.readInt();
+      while (true) {
+        try {
+          // Recorded time
+          inputStream.readLong();
+        } catch (EOFException e) {
+          break;
+        }
+        int frameSize = inputStream.readInt();
+        // Block size
+        inputStream.readInt();
+        int messageSize = inputStream.readInt();
+        byte[] message = new byte[messageSize];
+        inputStream.readFully(message);
+        inputStream.skipBytes(frameSize - Integer.BYTES * 2 - messageSize);
+        recordedMessages.add(new String(message, UTF_16BE));
+      }
+    }
+    return recordedMessages;
+  }
+}
@@ -0,0 +1,335 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.CacheNames;
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Second-level cache for API responses of the endpoints behind the in-memory {@link CacheNames} caches, stored in the
+ * cache directory.
+ * <p>
+ * The first request of a session to a cached endpoint is answered from disk right away (as long as the stored response
+ * isn't older than {@link ClientProperties.Api#getDiskCacheMaxStale()}) and revalidated in the background. If the
+ * response has changed, the stored response is replaced and the corresponding in-memory cache is cleared, so that the
+ * new data is picked up by the next request. The background revalidation is a new request sent through the {@link
+ * RestOperations} set by {@link #setRestOperations(RestOperations)}, which passes this interceptor again. All other
+ * requests are revalidated using {@code If-None-Match} and {@code
+ * If-Modified-Since}, so that unchanged responses don't need to be transferred again.
+ */
+@Component
+@Slf4j
+public class ApiResponseDiskCache implements ClientHttpRequestInterceptor {
+
+  private static final String CACHE_DIRECTORY_NAME = "api";
+
+  /**
+   * Cached endpoints and the in-memory cache their results are stored in. Keys ending with a slash match all paths
+   * below.
+   */
+  private static final Map<String, String> CACHED_ENDPOINTS = ImmutableMap.<String, String>builder()
+      .put("/data/achievement", CacheNames.ACHIEVEMENTS)
+      .put("/data/featuredMod", CacheNames.FEATURED_MODS)
+      .put("/featuredMods/", CacheNames.FEATURED_MOD_FILES)
+      .put("/data/mod", CacheNames.MODS)
+      .put("/data/mapStatistics", CacheNames.MAPS)
+      .put("/data/clan", CacheNames.CLAN)
+      .put("/data/coopMission", CacheNames.COOP_MAPS)
+      .put("/data/coopResult", CacheNames.COOP_LEADERBOARD)
+      .put("/leaderboards/global", CacheNames.GLOBAL_LEADERBOARD)
+      .put("/leaderboards/ladder1v1", CacheNames.LADDER_1V1_LEADERBOARD)
+      .build();
+
+  private final PreferencesService preferencesService;
+  private final ClientProperties clientProperties;
+  private final CacheManager cacheManager;
+  private final ExecutorService executorService;
+  private final Gson gson;
+  /** Keys of the responses that have been requested in this session. */
+  private final Set<String> requestedKeys;
+  private final Set<String> revalidatingKeys;
+  private volatile RestOperations restOperations;
+
+  public ApiResponseDiskCache(PreferencesService preferencesService, ClientProperties clientProperties,
+                              CacheManager cacheManager, ExecutorService executorService) {
+    this.preferencesService = preferencesService;
+    this.clientProperties = clientProperties;
+    this.cacheManager = cacheManager;
+    this.executorService = executorService;
+    gson = new Gson();
+    requestedKeys = ConcurrentHashMap.newKeySet();
+    revalidatingKeys = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Sets the rest operations used to revalidate responses in background, or {@code null} to not revalidate them.
+   */
+  public void setRestOperations(RestOperations restOperations) {
+    this.restOperations = restOperations;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (request.getMethod() != HttpMethod.GET) {
+      return execution.execute(request, body);
+    }
+    Optional<String> cacheName = getCacheName(request);
+    if (cacheName.isEmpty()) {
+      return execution.execute(request, body);
+    }
+
+    String key = request.getURI().toString();
+    Path responseFile = getResponseFile(key);
+    Optional<StoredResponse> storedResponse = read(responseFile);
+
+    boolean firstRequest = requestedKeys.add(key);
+    if (firstRequest && storedResponse.isPresent() && !isTooOld(storedResponse.get())) {
+      log.debug("Serving '{}' from disk cache, revalidating in background", key);
+      revalidateInBackground(key, responseFile, storedResponse.get(), cacheName.get(), request);
+      return storedResponse.get().toClientHttpResponse();
+    }
+
+    return revalidate(request, body, execution, responseFile, storedResponse.orElse(null));
+  }
+
+  /**
+   * Sends the request again, which isn't the first one of this session anymore and is therefore revalidated by {@link
+   * #intercept(HttpRequest, byte[], ClientHttpRequestExecution)}. If the stored response has changed, the in-memory
+   * cache is cleared. A value that is being computed from the stale response at the same time isn't stored by the
+   * cache, see {@link com.faforever.client.config.CacheConfig}.
+   */
+  private void revalidateInBackground(String key, Path responseFile, StoredResponse storedResponse, String cacheName,
+                                      HttpRequest request) {
+    RestOperations restOperations = this.restOperations;
+    if (restOperations == null || !revalidatingKeys.add(key)) {
+      return;
+    }
+    URI uri = request.getURI();
+    List<MediaType> acceptedMediaTypes = List.copyOf(request.getHeaders().getAccept());
+
+    executorService.execute(() -> {
+      try {
+        restOperations.execute(uri, HttpMethod.GET,
+            revalidationRequest -> revalidationRequest.getHeaders().setAccept(acceptedMediaTypes),
+            response -> null);
+        boolean changed = read(responseFile)
+            .map(currentResponse -> !Arrays.equals(currentResponse.getBody(), storedResponse.getBody()))
+            .orElse(false);
+        if (changed) {
+          log.debug("Response of '{}' has changed, clearing cache '{}'", key, cacheName);
+          Optional.ofNullable(cacheManager.getCache(cacheName)).ifPresent(Cache::clear);
+        }
+      } catch (RuntimeException e) {
+        log.debug("Could not revalidate '{}'", key, e);
+      } finally {
+        revalidatingKeys.remove(key);
+      }
+    });
+  }
+
+  private ClientHttpResponse revalidate(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+                                  Path responseFile, StoredResponse storedResponse) throws IOException {
+    if (storedResponse != null) {
+      HttpHeaders headers = request.getHeaders();
+      if (storedResponse.getETag() != null) {
+        headers.setIfNoneMatch(storedResponse.getETag());
+      }
+      if (storedResponse.getLastModified() != null) {
+        headers.set(HttpHeaders.IF_MODIFIED_SINCE, storedResponse.getLastModified());
+      }
+    }
+
+    ClientHttpResponse response = execution.execute(request, body);
+    HttpStatus statusCode = response.getStatusCode();
+    if (statusCode == HttpStatus.NOT_MODIFIED && storedResponse != null) {
+      response.close();
+      // The server has confirmed the stored response, so it counts as fresh again
+      storedResponse.setStoredAt(System.currentTimeMillis());
+      store(responseFile, storedResponse);
+      return storedResponse.toClientHttpResponse();
+    }
+    if (statusCode != HttpStatus.OK) {
+      return response;
+    }
+
+    StoredResponse newResponse;
+    try (response) {
+      HttpHeaders headers = response.getHeaders();
+      newResponse = new StoredResponse(
+          headers.getETag(),
+          headers.getFirst(HttpHeaders.LAST_MODIFIED),
+          Optional.ofNullable(headers.getContentType()).map(MediaType::toString).orElse(null),
+          System.currentTimeMillis(),
+          StreamUtils.copyToByteArray(response.getBody())
+      );
+    }
+    store(responseFile, newResponse);
+    return newResponse.toClientHttpResponse();
+  }
+
+  private Optional<String> getCacheName(HttpRequest request) {
+    String uri = request.getURI().toString();
+    String baseUrl = clientProperties.getApi().getBaseUrl();
+    if (baseUrl == null || !uri.startsWith(baseUrl)) {
+      return Optional.empty();
+    }
+    String path = uri.substring(baseUrl.length());
+    int queryStart = path.indexOf('?');
+    String endpoint = queryStart == -1 ? path : path.substring(0, queryStart);
+
+    return CACHED_ENDPOINTS.entrySet().stream()
+        .filter(entry -> entry.getKey().endsWith("/") ? endpoint.startsWith(entry.getKey()) : endpoint.equals(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .findFirst();
+  }
+
+  private boolean isTooOld(StoredResponse storedResponse) {
+    Duration age = Duration.ofMillis(System.currentTimeMillis() - storedResponse.getStoredAt());
+    return age.compareTo(clientProperties.getApi().getDiskCacheMaxStale()) > 0;
+  }
+
+  @VisibleForTesting
+  Path getResponseFile(String key) {
+    return preferencesService.getCacheDirectory()
+        .resolve(CACHE_DIRECTORY_NAME)
+        .resolve(Hashing.sha256().hashString(key, UTF_8).toString());
+  }
+
+  /**
+   * Reads a stored response, which consists of its metadata as a line of JSON followed by the response body.
+   */
+  private Optional<StoredResponse> read(Path responseFile) {
+    if (Files.notExists(responseFile)) {
+      return Optional.empty();
+    }
+    try {
+      byte[] bytes = Files.readAllBytes(responseFile);
+      int headerEnd = 0;
+      while (headerEnd < bytes.length && bytes[headerEnd] != '\n') {
+        headerEnd++;
+      }
+      if (headerEnd == bytes.length) {
+        log.warn("Discarding incomplete cached API response {}", responseFile);
+        return Optional.empty();
+      }
+      StoredResponse storedResponse = gson.fromJson(new String(bytes, 0, headerEnd, UTF_8), StoredResponse.class);
+      storedResponse.setBody(Arrays.copyOfRange(bytes, headerEnd + 1, bytes.length));
+      return Optional.of(storedResponse);
+    } catch (IOException | JsonParseException e) {
+      log.warn("Could not read cached API response {}", responseFile, e);
+      return Optional.empty();
+    }
+  }
+
+  private void store(Path responseFile, StoredResponse storedResponse) {
+    try {
+      Files.createDirectories(responseFile.getParent());
+      Path temporaryFile = Files.createTempFile(responseFile.getParent(), responseFile.getFileName().toString(), null);
+      try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+        outputStream.write(gson.toJson(storedResponse).getBytes(UTF_8));
+        outputStream.write('\n');
+        outputStream.write(storedResponse.getBody());
+      }
+      Files.move(temporaryFile, responseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not store API response to {}", responseFile, e);
+    }
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class StoredResponse {
+    private String eTag;
+    private String lastModified;
+    private String contentType;
+    private long storedAt;
+    /** Not part of the metadata, but stored after it. */
+    private transient byte[] body;
+
+    ClientHttpResponse toClientHttpResponse() {
+      HttpHeaders headers = new HttpHeaders();
+      if (contentType != null) {
+        headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+      }
+      headers.setContentLength(body.length);
+      return new StoredClientHttpResponse(headers, body);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class StoredClientHttpResponse implements ClientHttpResponse {
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    @Override
+    public HttpStatus getStatusCode() {
+      return HttpStatus.OK;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+      return HttpStatus.OK.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
@@ -96,6 +96,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   private final ClientProperties clientProperties;
   private final JsonApiMessageConverter jsonApiMessageConverter;
   private final JsonApiErrorHandler jsonApiErrorHandler;
+  private final ApiResponseDiskCache apiResponseDiskCache;
   private final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
 
   private RestTemplateBuilder templateBuilder;
@@ -116,6 +117,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     templateBuilder = unconfiguredTemplateBuilder
         .requestFactory(() -> requestFactory)
         .additionalMessageConverters(jsonApiMessageConverter)
+        .additionalInterceptors(apiResponseDiskCache)
         .errorHandler(jsonApiErrorHandler);
   }
 
@@ -123,6 +125,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   public void onLoggedOutEvent(LoggedOutEvent event) {
     authorizedLatch = new CountDownLatch(1);
     restOperations = null;
+    apiResponseDiskCache.setRestOperations(null);
   }
 
   @Subscribe
@@ -529,6 +532,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         // Base URL can be changed in login window
         .rootUri(apiProperties.getBaseUrl())
         .configure(new OAuth2RestTemplate(details));
+    apiResponseDiskCache.setRestOperations(restOperations);
 
     authorizedLatch.countDown();
   }
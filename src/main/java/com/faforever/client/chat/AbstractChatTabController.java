@@ -14,6 +14,7 @@ import com.faforever.client.player.Player;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.reporting.ReportingService;
+import com.faforever.client.theme.HtmlTemplate;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.ui.StageHolder;
 import com.faforever.client.uploader.ImageUploadService;
@@ -25,6 +26,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.eventbus.EventBus;
 import com.google.common.io.CharStreams;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import javafx.application.Platform;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -62,7 +65,9 @@ import java.net.URL;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -72,7 +77,6 @@ import static com.faforever.client.theme.UiService.CHAT_SECTION_COMPACT;
 import static com.faforever.client.theme.UiService.CHAT_SECTION_EXTENDED;
 import static com.faforever.client.theme.UiService.CHAT_TEXT_COMPACT;
 import static com.faforever.client.theme.UiService.CHAT_TEXT_EXTENDED;
-import static com.github.nocatch.NoCatch.noCatch;
 import static com.google.common.html.HtmlEscapers.htmlEscaper;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
@@ -86,8 +90,6 @@ import static javafx.scene.AccessibleAttribute.ITEM_AT_INDEX;
 public abstract class AbstractChatTabController implements Controller<Tab> {
 
   static final String CSS_CLASS_CHAT_ONLY = "chat_only";
-  private static final String MESSAGE_CONTAINER_ID = "chat-container";
-  private static final String MESSAGE_ITEM_CLASS = "chat-section";
   private static final PseudoClass UNREAD_PSEUDO_STATE = PseudoClass.getPseudoClass("unread");
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final org.springframework.core.io.Resource CHAT_JS_RESOURCE = new ClassPathResource("/js/chat_container.js");
@@ -126,7 +128,8 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
   private final CountryFlagService countryFlagService;
 
   /**
-   * Messages that arrived before the web view was ready. Those are appended as soon as it is ready.
+   * Messages that haven't been appended yet, either because the web view isn't ready yet or because the application
+   * thread hasn't gotten to it. All waiting messages are appended at once.
    */
   private final List<ChatMessage> waitingMessages;
   private final IntegerProperty unreadMessagesCount;
@@ -135,7 +138,10 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
   private final ChangeListener<Boolean> tabPaneFocusedListener;
   private final ChangeListener<Boolean> stageFocusedListener;
   private int lastEntryId;
+  /** The number of chat sections in the web view, so that it doesn't need to be asked for every batch of messages. */
+  private int chatSectionCount;
   private boolean isChatReady;
+  private boolean appendScheduled;
   /**
    * Either a channel like "#aeolus" or a user like "Visionik".
    */
@@ -373,11 +379,10 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
         return;
       }
       synchronized (waitingMessages) {
-        waitingMessages.forEach(AbstractChatTabController.this::addMessage);
-        waitingMessages.clear();
         isChatReady = true;
-        onWebViewLoaded();
       }
+      appendWaitingMessages();
+      onWebViewLoaded();
     });
   }
 
@@ -455,86 +460,75 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
 
   protected void onChatMessage(ChatMessage chatMessage) {
     synchronized (waitingMessages) {
-      if (!isChatReady) {
-        waitingMessages.add(chatMessage);
-      } else {
-        Platform.runLater(() -> {
-          addMessage(chatMessage);
-          removeTopmostMessages();
-          scrollToBottomIfDesired();
-        });
+      waitingMessages.add(chatMessage);
+      if (!isChatReady || appendScheduled) {
+        return;
       }
+      appendScheduled = true;
     }
+    Platform.runLater(this::appendWaitingMessages);
   }
 
-  private void scrollToBottomIfDesired() {
-    engine.executeScript("scrollToBottomIfDesired()");
-  }
-
-  private void removeTopmostMessages() {
-    int maxMessageItems = preferencesService.getPreferences().getChat().getMaxMessages();
+  private void appendWaitingMessages() {
+    List<ChatMessage> chatMessages;
+    synchronized (waitingMessages) {
+      chatMessages = new ArrayList<>(waitingMessages);
+      waitingMessages.clear();
+      appendScheduled = false;
+    }
 
-    int numberOfMessages = (int) engine.executeScript("document.getElementsByClassName('" + MESSAGE_ITEM_CLASS + "').length");
-    while (numberOfMessages > maxMessageItems) {
-      engine.executeScript("document.getElementsByClassName('" + MESSAGE_ITEM_CLASS + "')[0].remove()");
-      numberOfMessages--;
+    if (!chatMessages.isEmpty()) {
+      appendMessages(chatMessages);
     }
   }
 
   /**
-   * Either inserts a new chat entry or, if the same user as before sent another message, appends it do the previous
-   * entry.
+   * Appends the specified messages to the web view in a single call, which inserts them all at once and removes the
+   * topmost chat sections that exceed the maximum number of messages. Each message either starts a new chat section or,
+   * if the same user as before sent another message, is appended to the previous section.
    */
-  private void addMessage(ChatMessage chatMessage) {
-    noCatch(() -> {
-      if (requiresNewChatSection(chatMessage)) {
-        appendChatMessageSection(chatMessage);
-      } else {
-        appendMessage(chatMessage);
+  private void appendMessages(List<ChatMessage> chatMessages) {
+    JsonArray renderedMessages = new JsonArray();
+    for (ChatMessage chatMessage : chatMessages) {
+      try {
+        renderedMessages.add(renderMessage(chatMessage));
+        lastMessage = chatMessage;
+      } catch (RuntimeException e) {
+        logger.warn("Could not render message: {}", chatMessage, e);
       }
-      lastMessage = chatMessage;
-    });
-  }
-
-  private boolean requiresNewChatSection(ChatMessage chatMessage) {
-    return lastMessage == null
-        || !lastMessage.getUsername().equals(chatMessage.getUsername())
-        || lastMessage.getTime().isBefore(chatMessage.getTime().minus(1, MINUTES))
-        || lastMessage.isAction();
-  }
-
-  private void appendMessage(ChatMessage chatMessage) throws IOException {
-    URL themeFileUrl;
-    if (preferencesService.getPreferences().getChat().getChatFormat() == ChatFormat.COMPACT) {
-      themeFileUrl = uiService.getThemeFileUrl(CHAT_TEXT_COMPACT);
-    } else {
-      themeFileUrl = uiService.getThemeFileUrl(CHAT_TEXT_EXTENDED);
     }
 
-    String html = renderHtml(chatMessage, themeFileUrl, null);
+    int maxMessageItems = preferencesService.getPreferences().getChat().getMaxMessages();
+    int sectionsToRemove = Math.max(0, chatSectionCount - maxMessageItems);
+    chatSectionCount -= sectionsToRemove;
 
-    insertIntoContainer(html, "chat-section-" + lastEntryId);
+    getJsObject().call("appendMessages", renderedMessages.toString(), sectionsToRemove);
+    getMessagesWebView().requestLayout();
   }
 
-  private void appendChatMessageSection(ChatMessage chatMessage) throws IOException {
-    URL themeFileURL;
-    if (preferencesService.getPreferences().getChat().getChatFormat() == ChatFormat.COMPACT) {
-      themeFileURL = uiService.getThemeFileUrl(CHAT_SECTION_COMPACT);
-    } else {
-      themeFileURL = uiService.getThemeFileUrl(CHAT_SECTION_EXTENDED);
-    }
+  private JsonObject renderMessage(ChatMessage chatMessage) {
+    ChatFormat chatFormat = preferencesService.getPreferences().getChat().getChatFormat();
 
-    String html = renderHtml(chatMessage, themeFileURL, ++lastEntryId);
-    insertIntoContainer(html, MESSAGE_CONTAINER_ID);
-    appendMessage(chatMessage);
+    JsonObject renderedMessage = new JsonObject();
+    if (requiresNewChatSection(chatMessage)) {
+      HtmlTemplate sectionTemplate = uiService.getThemeTemplate(chatFormat == ChatFormat.COMPACT ? CHAT_SECTION_COMPACT : CHAT_SECTION_EXTENDED);
+      renderedMessage.addProperty("section", renderHtml(chatMessage, sectionTemplate, ++lastEntryId));
+      chatSectionCount++;
+    }
+    HtmlTemplate textTemplate = uiService.getThemeTemplate(chatFormat == ChatFormat.COMPACT ? CHAT_TEXT_COMPACT : CHAT_TEXT_EXTENDED);
+    renderedMessage.addProperty("sectionId", "chat-section-" + lastEntryId);
+    renderedMessage.addProperty("text", renderHtml(chatMessage, textTemplate, null));
+    return renderedMessage;
   }
 
-  private String renderHtml(ChatMessage chatMessage, URL themeFileUrl, @Nullable Integer sectionId) throws IOException {
-    String html;
-    try (Reader reader = new InputStreamReader(themeFileUrl.openStream())) {
-      html = CharStreams.toString(reader);
-    }
+  private boolean requiresNewChatSection(ChatMessage chatMessage) {
+    return lastMessage == null
+        || !lastMessage.getUsername().equals(chatMessage.getUsername())
+        || lastMessage.getTime().isBefore(chatMessage.getTime().minus(1, MINUTES))
+        || lastMessage.isAction();
+  }
 
+  private String renderHtml(ChatMessage chatMessage, HtmlTemplate template, @Nullable Integer sectionId) {
     String login = chatMessage.getUsername();
     String avatarUrl = "";
     String clanTag = "";
@@ -555,14 +549,14 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
       }
     }
 
-    String timeString = timeService.asShortTime(chatMessage.getTime());
-    html = html.replace("{time}", timeString)
-        .replace("{avatar}", StringUtils.defaultString(avatarUrl))
-        .replace("{username}", login)
-        .replace("{clan-tag}", clanTag)
-        .replace("{decorated-clan-tag}", decoratedClanTag)
-        .replace("{country-flag}", StringUtils.defaultString(countryFlagUrl))
-        .replace("{section-id}", String.valueOf(sectionId));
+    Map<String, String> values = new HashMap<>();
+    values.put("time", timeService.asShortTime(chatMessage.getTime()));
+    values.put("avatar", StringUtils.defaultString(avatarUrl));
+    values.put("username", login);
+    values.put("clan-tag", clanTag);
+    values.put("decorated-clan-tag", decoratedClanTag);
+    values.put("country-flag", StringUtils.defaultString(countryFlagUrl));
+    values.put("section-id", String.valueOf(sectionId));
 
     Collection<String> cssClasses = new ArrayList<>();
     cssClasses.add(String.format("user-%s", chatMessage.getUsername()));
@@ -571,12 +565,9 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     } else {
       cssClasses.add(MESSAGE_CSS_CLASS);
     }
+    values.put("css-classes", Joiner.on(' ').join(cssClasses));
 
-    html = html.replace("{css-classes}", Joiner.on(' ').join(cssClasses));
-
-    Optional.ofNullable(getMessageCssClass(login)).ifPresent(cssClasses::add);
-
-    String text = htmlEscaper().escape(chatMessage.getMessage()).replace("\\", "\\\\");
+    String text = htmlEscaper().escape(chatMessage.getMessage());
     text = convertUrlsToHyperlinks(text);
     text = replaceChannelNamesWithHyperlinks(text);
 
@@ -586,11 +577,10 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
       onMention(chatMessage);
     }
 
-    return html
-        .replace("{css-classes}", Joiner.on(' ').join(cssClasses))
-        .replace("{inline-style}", getInlineStyle(login))
-        // Always replace text last in case the message contains one of the placeholders.
-        .replace("{text}", text);
+    values.put("inline-style", getInlineStyle(login));
+    values.put("text", text);
+
+    return template.render(values);
   }
 
   @VisibleForTesting
@@ -649,14 +639,9 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     return String.format("color: %s;", JavaFxUtil.toRgbCode(messageColor));
   }
 
+  @VisibleForTesting
   protected String convertUrlsToHyperlinks(String text) {
-    return (String) engine.executeScript("link('" + text.replace("'", "\\'") + "')");
-  }
-
-  private void insertIntoContainer(String html, String containerId) {
-    ((JSObject) engine.executeScript("document.getElementById('" + containerId + "')"))
-        .call("insertAdjacentHTML", "beforeend", html);
-    getMessagesWebView().requestLayout();
+    return UrlLinkifier.linkify(text);
   }
 
   /**
@@ -7,7 +7,7 @@ import com.faforever.client.fx.WebViewConfigurer;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.player.Player;
-import com.faforever.client.player.PlayerOnlineEvent;
+import com.faforever.client.player.PlayersOnlineEvent;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.player.SocialStatus;
 import com.faforever.client.preferences.ChatPrefs;
@@ -655,10 +655,14 @@ public class ChannelTabController extends AbstractChatTabController {
   }
 
   @Subscribe
-  public void onPlayerOnline(PlayerOnlineEvent event) {
+  public void onPlayersOnline(PlayersOnlineEvent event) {
     // We could add a listener on chatChannelUser.playerProperty() but this would result in thousands of mostly idle
     // listeners which we're trying to avoid.
-    ChatChannelUser chatUser = chatService.getChatUser(event.getPlayer().getUsername(), channel.getName());
-    associateChatUserWithPlayer(event.getPlayer(), chatUser);
+    for (Player player : event.getPlayers()) {
+      ChatChannelUser chatUser = channel.getUser(player.getUsername());
+      if (chatUser != null) {
+        associateChatUserWithPlayer(player, chatUser);
+      }
+    }
   }
 }
@@ -8,7 +8,7 @@ import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.net.ConnectionState;
 import com.faforever.client.player.Player;
-import com.faforever.client.player.PlayerOnlineEvent;
+import com.faforever.client.player.PlayersOnlineEvent;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.player.SocialStatus;
 import com.faforever.client.player.UserOfflineEvent;
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.hash.Hashing;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
@@ -333,9 +334,12 @@ public class PircBotXChatService implements ChatService, InitializingBean, Dispo
   }
 
   private void onChatUserLeftChannel(String channelName, String username) {
-    if (getOrCreateChannel(channelName).removeUser(username) == null) {
+    ChatChannelUser chatUser = getOrCreateChannel(channelName).removeUser(username);
+    if (chatUser == null) {
       return;
     }
+    // Players are only evicted once they are in no channel anymore
+    chatUser.getPlayer().ifPresent(player -> Platform.runLater(() -> player.getChatChannelUsers().remove(chatUser)));
     log.debug("User '{}' left channel: {}", username, channelName);
     if (userService.getUsername().equalsIgnoreCase(username)) {
       synchronized (channels) {
@@ -654,17 +658,17 @@ public class PircBotXChatService implements ChatService, InitializingBean, Dispo
   }
 
   @Subscribe
-  public void onPlayerOnline(PlayerOnlineEvent event) {
-    Player player = event.getPlayer();
-
+  public void onPlayersOnline(PlayersOnlineEvent event) {
     synchronized (channels) {
-      List<ChatChannelUser> channelUsers = channels.values().stream()
-          .map(channel -> chatChannelUsersByChannelAndName.get(mapKey(player.getUsername(), channel.getName())))
-          .filter(Objects::nonNull)
-          .peek(chatChannelUser -> chatChannelUser.setPlayer(player))
-          .collect(Collectors.toList());
-
-      player.getChatChannelUsers().addAll(channelUsers);
+      for (Player player : event.getPlayers()) {
+        List<ChatChannelUser> channelUsers = channels.values().stream()
+            .map(channel -> chatChannelUsersByChannelAndName.get(mapKey(player.getUsername(), channel.getName())))
+            .filter(Objects::nonNull)
+            .peek(chatChannelUser -> chatChannelUser.setPlayer(player))
+            .collect(Collectors.toList());
+
+        player.getChatChannelUsers().addAll(channelUsers);
+      }
     }
   }
 
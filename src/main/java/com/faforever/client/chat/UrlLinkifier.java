@@ -0,0 +1,100 @@
+package com.faforever.client.chat;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Turns URLs in HTML-escaped chat messages into hyperlinks that are opened by the application. Like Autolinker, which
+ * this replaces in order to not call into the web view's JavaScript engine for every message, it recognizes URLs with
+ * a scheme, URLs starting with {@code www.} and domains with a common top-level domain, and shortens the displayed
+ * URLs.
+ */
+final class UrlLinkifier {
+
+  /** A character of an HTML-escaped URL. Quotes, brackets and backslashes end a URL, ampersands are escaped. */
+  private static final String URL_CHARACTER = "(?:&amp;|[^\\s&<>\"'\\\\])";
+  private static final String DOMAIN = "(?:[a-z0-9](?:[a-z0-9-]*[a-z0-9])?\\.)+";
+  private static final String TOP_LEVEL_DOMAIN = "(?:com|org|net|info|io|gg|tv|eu|de|ru|uk|fr|pl|nl|cz|ua|us|ca|au|me|be|ch|at|se|fi|no|dk|it|es|cn|jp|kr)";
+
+  private static final Pattern URL_PATTERN = Pattern.compile(
+      "(?<![\\w/.@-])(?:"
+          + "(?:https?|ftp)://" + URL_CHARACTER + "+"
+          + "|www\\." + URL_CHARACTER + "+"
+          + "|" + DOMAIN + TOP_LEVEL_DOMAIN + "(?![\\w-])(?:[/?#:]" + URL_CHARACTER + "*)?"
+          + ")",
+      CASE_INSENSITIVE);
+  private static final Pattern SCHEME_PATTERN = Pattern.compile("^[a-z]+://", CASE_INSENSITIVE);
+  private static final Pattern DISPLAYED_PREFIX_PATTERN = Pattern.compile("^(?:https?://)?(?:www\\.)?", CASE_INSENSITIVE);
+  private static final String TRAILING_PUNCTUATION = ".,;:!?";
+
+  private UrlLinkifier() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  static String linkify(String escapedText) {
+    Matcher matcher = URL_PATTERN.matcher(escapedText);
+    if (!matcher.find()) {
+      return escapedText;
+    }
+
+    StringBuilder stringBuilder = new StringBuilder(escapedText.length() + 128);
+    int textStart = 0;
+    do {
+      String url = trimTrailingPunctuation(matcher.group());
+      boolean hasScheme = SCHEME_PATTERN.matcher(url).find();
+      if (!hasScheme && url.indexOf('.') == -1) {
+        continue;
+      }
+      String href = hasScheme ? url : "http://" + url;
+
+      stringBuilder.append(escapedText, textStart, matcher.start())
+          .append("<a href=\"javascript:void(0);\" onClick=\"java.openUrl('").append(href)
+          .append("')\" onMouseOver=\"java.previewUrl('").append(href)
+          .append("')\" onMouseOut=\"java.hideUrlPreview()\">")
+          .append(getDisplayedUrl(url))
+          .append("</a>");
+      textStart = matcher.start() + url.length();
+    } while (matcher.find());
+
+    return stringBuilder.append(escapedText, textStart, escapedText.length()).toString();
+  }
+
+  /**
+   * Removes punctuation that ends the sentence rather than the URL, as well as closing parentheses that aren't part of
+   * the URL, like in "(see example.com)".
+   */
+  private static String trimTrailingPunctuation(String url) {
+    int end = url.length();
+    while (end > 0) {
+      char lastCharacter = url.charAt(end - 1);
+      if (TRAILING_PUNCTUATION.indexOf(lastCharacter) != -1) {
+        end--;
+      } else if (lastCharacter == ')' && count(url, '(', end) < count(url, ')', end)) {
+        end--;
+      } else {
+        break;
+      }
+    }
+    return url.substring(0, end);
+  }
+
+  private static int count(String string, char character, int end) {
+    int count = 0;
+    for (int i = 0; i < end; i++) {
+      if (string.charAt(i) == character) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static String getDisplayedUrl(String url) {
+    String displayedUrl = DISPLAYED_PREFIX_PATTERN.matcher(url).replaceFirst("");
+    if (displayedUrl.endsWith("/")) {
+      displayedUrl = displayedUrl.substring(0, displayedUrl.length() - 1);
+    }
+    return displayedUrl;
+  }
+}
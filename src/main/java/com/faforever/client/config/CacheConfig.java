@@ -1,5 +1,12 @@
 package com.faforever.client.config;
 
+import com.faforever.client.config.ClientProperties.CacheSpec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
@@ -13,11 +20,20 @@ import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.faforever.client.config.CacheNames.ACHIEVEMENTS;
 import static com.faforever.client.config.CacheNames.ACHIEVEMENT_IMAGES;
-import static com.faforever.client.config.CacheNames.AVAILABLE_AVATARS;
 import static com.faforever.client.config.CacheNames.AVATARS;
 import static com.faforever.client.config.CacheNames.CLAN;
 import static com.faforever.client.config.CacheNames.COOP_LEADERBOARD;
@@ -40,45 +56,134 @@ import static com.faforever.client.config.CacheNames.URL_PREVIEW;
 import static com.github.benmanes.caffeine.cache.Caffeine.newBuilder;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Configures the application's caches. Every cache belongs to a {@link CacheTier} whose defaults are defined in {@link
+ * ClientProperties.Cache}; a cache's built-in settings override its tier's defaults and are in turn overridden by
+ * {@link ClientProperties.Cache#getCaches()}. All caches record statistics, see {@link CacheDiagnostics}.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig extends CachingConfigurerSupport {
 
+  private final ClientProperties clientProperties;
+
+  public CacheConfig(ClientProperties clientProperties) {
+    this.clientProperties = clientProperties;
+  }
+
   @Bean
   @Override
   public CacheManager cacheManager() {
     SimpleCacheManager simpleCacheManager = new SimpleCacheManager();
     simpleCacheManager.setCaches(Arrays.asList(
-        new CaffeineCache(STATISTICS, newBuilder().maximumSize(10).expireAfterWrite(20, MINUTES).build()),
-        new CaffeineCache(ACHIEVEMENTS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(MODS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(MAPS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(MAP_GENERATOR, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(GLOBAL_LEADERBOARD, newBuilder().maximumSize(1).expireAfterAccess(5, MINUTES).build()),
-        new CaffeineCache(LADDER_1V1_LEADERBOARD, newBuilder().maximumSize(1).expireAfterAccess(5, MINUTES).build()),
-        new CaffeineCache(AVAILABLE_AVATARS, newBuilder().expireAfterAccess(10, MINUTES).build()),
-        new CaffeineCache(COOP_MAPS, newBuilder().expireAfterAccess(10, MINUTES).build()),
-        new CaffeineCache(NEWS, newBuilder().expireAfterWrite(5, MINUTES).build()),
-        new CaffeineCache(RATING_HISTORY, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(COOP_LEADERBOARD, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(CLAN, newBuilder().expireAfterWrite(1, HOURS).build()),
-        new CaffeineCache(FEATURED_MODS, newBuilder().build()),
-        new CaffeineCache(FEATURED_MOD_FILES, newBuilder().expireAfterWrite(10, MINUTES).build()),
+        createCache(STATISTICS, CacheTier.DATA, spec(10L, expireAfterWrite(20, MINUTES))),
+        createCache(ACHIEVEMENTS, CacheTier.DATA, spec(100L, expireAfterWrite(10, MINUTES))),
+        createCache(MODS, CacheTier.DATA, spec(100L, expireAfterWrite(10, MINUTES))),
+        createCache(MAPS, CacheTier.DATA, spec(100L, expireAfterWrite(10, MINUTES))),
+        createCache(MAP_GENERATOR, CacheTier.DATA, spec(10L, expireAfterWrite(10, MINUTES))),
+        createCache(GLOBAL_LEADERBOARD, CacheTier.DATA, spec(1L, expireAfterAccess(5, MINUTES))),
+        createCache(LADDER_1V1_LEADERBOARD, CacheTier.DATA, spec(1L, expireAfterAccess(5, MINUTES))),
+        createCache(COOP_MAPS, CacheTier.DATA, spec(1L, expireAfterAccess(10, MINUTES))),
+        createCache(NEWS, CacheTier.DATA, spec(1L, expireAfterWrite(5, MINUTES))),
+        createCache(RATING_HISTORY, CacheTier.DATA, spec(100L, expireAfterWrite(1, MINUTES))),
+        createCache(COOP_LEADERBOARD, CacheTier.DATA, spec(100L, expireAfterWrite(1, MINUTES))),
+        createCache(CLAN, CacheTier.DATA, spec(500L, expireAfterWrite(1, HOURS))),
+        createCache(FEATURED_MODS, CacheTier.DATA, spec(null, null)),
+        createCache(FEATURED_MOD_FILES, CacheTier.DATA, spec(50L, expireAfterWrite(10, MINUTES))),
 
         // Images should only be cached as long as they are in use. This avoids loading an image multiple times, while
-        // at the same time it doesn't prevent unused images from being garbage collected.
-        new CaffeineCache(ACHIEVEMENT_IMAGES, newBuilder().weakValues().build()),
-        new CaffeineCache(AVATARS, newBuilder().weakValues().build()),
-        new CaffeineCache(URL_PREVIEW, newBuilder().weakValues().expireAfterAccess(30, MINUTES).build()),
-        new CaffeineCache(MAP_PREVIEW, newBuilder().weakValues().build()),
-        new CaffeineCache(COUNTRY_FLAGS, newBuilder().weakValues().build()),
-        new CaffeineCache(THEME_IMAGES, newBuilder().weakValues().build()),
-        new CaffeineCache(MOD_THUMBNAIL, newBuilder().weakValues().build()
-        )));
+        // at the same time it doesn't prevent unused images from being garbage collected. In addition, the image tier
+        // limits the total size of cached images in case they are still referenced somewhere.
+        createCache(ACHIEVEMENT_IMAGES, CacheTier.IMAGES, spec(null, null)),
+        createCache(AVATARS, CacheTier.IMAGES, spec(null, null)),
+        createCache(URL_PREVIEW, CacheTier.IMAGES, spec(null, expireAfterAccess(30, MINUTES))),
+        createCache(MAP_PREVIEW, CacheTier.IMAGES, spec(null, null)),
+        createCache(COUNTRY_FLAGS, CacheTier.IMAGES, spec(null, null)),
+        createCache(THEME_IMAGES, CacheTier.IMAGES, spec(null, null)),
+        createCache(MOD_THUMBNAIL, CacheTier.IMAGES, spec(null, null))
+    ));
     return simpleCacheManager;
   }
 
+  @VisibleForTesting
+  CaffeineCache createCache(String name, CacheTier tier, CacheSpec builtInSpec) {
+    ClientProperties.Cache cacheProperties = clientProperties.getCache();
+    CacheSpec tierSpec = tier == CacheTier.IMAGES ? cacheProperties.getImages() : cacheProperties.getData();
+    List<CacheSpec> specs = Stream.of(cacheProperties.getCaches().get(name), builtInSpec, tierSpec)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+
+    Caffeine<Object, Object> builder = newBuilder().recordStats();
+
+    // Maximum size and maximum weight are mutually exclusive, so the bound of the most specific spec wins
+    Optional<CacheSpec> boundingSpec = specs.stream()
+        .filter(spec -> spec.getMaximumSize() != null || spec.getMaximumWeight() != null)
+        .findFirst();
+    boolean weighed = boundingSpec.map(spec -> spec.getMaximumSize() == null).orElse(false);
+    boundingSpec.ifPresent(spec -> {
+      if (spec.getMaximumSize() != null) {
+        builder.maximumSize(spec.getMaximumSize());
+      } else {
+        builder.maximumWeight(spec.getMaximumWeight()).weigher(CacheConfig::estimateWeight);
+      }
+    });
+    resolve(specs, CacheSpec::getExpireAfterWrite)
+        .ifPresent(duration -> builder.expireAfterWrite(duration.toNanos(), NANOSECONDS));
+    resolve(specs, CacheSpec::getExpireAfterAccess)
+        .ifPresent(duration -> builder.expireAfterAccess(duration.toNanos(), NANOSECONDS));
+    if (resolve(specs, CacheSpec::getWeakValues).orElse(false)) {
+      builder.weakValues();
+    }
+
+    if (weighed) {
+      return new WeighedCaffeineCache(name, builder.build());
+    }
+    return new ClearAwareCaffeineCache(name, builder.build());
+  }
+
+  /**
+   * Returns the estimated number of bytes occupied by an image (also if wrapped in an {@link Optional}), or {@code 1}
+   * for any other value.
+   */
+  private static int estimateWeight(Object key, Object value) {
+    return toImage(value)
+        .map(image -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, (long) image.getWidth() * (long) image.getHeight() * 4)))
+        .orElse(1);
+  }
+
+  private static Optional<Image> toImage(Object value) {
+    if (value instanceof Optional) {
+      value = ((Optional<?>) value).orElse(null);
+    }
+    return value instanceof Image ? Optional.of((Image) value) : Optional.empty();
+  }
+
+  private static <T> Optional<T> resolve(List<CacheSpec> specs, Function<CacheSpec, T> getter) {
+    return specs.stream()
+        .map(getter)
+        .filter(Objects::nonNull)
+        .findFirst();
+  }
+
+  private static CacheSpec spec(Long maximumSize, Consumer<CacheSpec> expiry) {
+    CacheSpec spec = new CacheSpec();
+    spec.setMaximumSize(maximumSize);
+    if (expiry != null) {
+      expiry.accept(spec);
+    }
+    return spec;
+  }
+
+  private static Consumer<CacheSpec> expireAfterWrite(long duration, TimeUnit unit) {
+    return spec -> spec.setExpireAfterWrite(Duration.ofNanos(unit.toNanos(duration)));
+  }
+
+  private static Consumer<CacheSpec> expireAfterAccess(long duration, TimeUnit unit) {
+    return spec -> spec.setExpireAfterAccess(Duration.ofNanos(unit.toNanos(duration)));
+  }
+
   @Override
   public CacheResolver cacheResolver() {
     return null;
@@ -94,4 +199,141 @@ public class CacheConfig extends CachingConfigurerSupport {
   public CacheErrorHandler errorHandler() {
     return new SimpleCacheErrorHandler();
   }
+
+  /**
+   * A cache that doesn't store a value if the cache has been cleared between the cache miss the value has been computed
+   * for and the value being put, since the value may have been computed from outdated data. This is the case if, for
+   * instance, {@link com.faforever.client.api.ApiResponseDiskCache} clears a cache while a value is being computed from
+   * a stale API response.
+   * <p>
+   * Spring looks up a value, computes it on a miss and puts it on the same thread, so the generation of the cache at
+   * the time of the miss is remembered per thread. Only the latest miss of a thread is remembered, which is enough for
+   * values whose computation doesn't look up the same cache.
+   */
+  @VisibleForTesting
+  static class ClearAwareCaffeineCache extends CaffeineCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    /** The key and the generation of the latest miss of the current thread. */
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    ClearAwareCaffeineCache(String name, Cache<Object, Object> cache) {
+      super(name, cache);
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+      ValueWrapper valueWrapper = super.get(key);
+      if (valueWrapper == null) {
+        lastMiss.set(new Miss(key, generation.get()));
+      }
+      return valueWrapper;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+      if (isOutdated(key)) {
+        return;
+      }
+      super.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+      if (isOutdated(key)) {
+        return null;
+      }
+      return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void clear() {
+      generation.incrementAndGet();
+      super.clear();
+    }
+
+    private boolean isOutdated(Object key) {
+      Miss miss = lastMiss.get();
+      if (miss == null || !Objects.equals(miss.key, key)) {
+        return false;
+      }
+      lastMiss.remove();
+      return miss.generation != generation.get();
+    }
+
+    private static final class Miss {
+      private final Object key;
+      private final long generation;
+
+      private Miss(Object key, long generation) {
+        this.key = key;
+        this.generation = generation;
+      }
+    }
+  }
+
+  /**
+   * A cache whose entries are weighed by {@link #estimateWeight(Object, Object)}. Images that are loaded in background
+   * don't know their size yet when they are put into the cache, so such entries are put again once the image has been
+   * loaded, which makes Caffeine weigh them again.
+   */
+  @VisibleForTesting
+  static class WeighedCaffeineCache extends ClearAwareCaffeineCache {
+
+    WeighedCaffeineCache(String name, Cache<Object, Object> cache) {
+      super(name, cache);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+      super.put(key, value);
+      reweighWhenLoaded(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+      ValueWrapper existingValue = super.putIfAbsent(key, value);
+      if (existingValue == null) {
+        reweighWhenLoaded(key, value);
+      }
+      return existingValue;
+    }
+
+    private void reweighWhenLoaded(Object key, Object value) {
+      toImage(value)
+          .filter(image -> image.getProgress() < 1)
+          .ifPresent(image -> {
+            ChangeListener<Number> progressListener = new ChangeListener<>() {
+              @Override
+              public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+                if (newValue.doubleValue() >= 1) {
+                  observable.removeListener(this);
+                  reweigh(key, value);
+                }
+              }
+            };
+            image.progressProperty().addListener(progressListener);
+            // The image may have been loaded before the listener was added
+            if (image.getProgress() >= 1) {
+              image.progressProperty().removeListener(progressListener);
+              reweigh(key, value);
+            }
+          });
+    }
+
+    /**
+     * Replaces the entry by itself, unless it has been evicted or replaced in the meantime.
+     */
+    private void reweigh(Object key, Object value) {
+      getNativeCache().asMap().replace(key, value, value);
+    }
+  }
+
+  /**
+   * Determines which defaults of {@link ClientProperties.Cache} apply to a cache.
+   */
+  enum CacheTier {
+    DATA,
+    IMAGES
+  }
 }
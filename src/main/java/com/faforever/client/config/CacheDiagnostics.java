@@ -0,0 +1,77 @@
+package com.faforever.client.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+/**
+ * Provides the statistics of all caches, so that cache sizes can be tuned (see {@link ClientProperties.Cache}).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CacheDiagnostics {
+
+  private final CacheManager cacheManager;
+
+  /**
+   * Returns the current statistics of all caches, ordered by cache name.
+   */
+  public List<CacheStatistics> getCacheStatistics() {
+    return cacheManager.getCacheNames().stream()
+        .sorted()
+        .map(cacheManager::getCache)
+        .filter(cache -> cache instanceof CaffeineCache)
+        .map(cache -> toCacheStatistics((CaffeineCache) cache))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @PreDestroy
+  public void logCacheStatistics() {
+    getCacheStatistics().forEach(cacheStatistics -> log.info("{}", cacheStatistics));
+  }
+
+  private static CacheStatistics toCacheStatistics(CaffeineCache caffeineCache) {
+    Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+    CacheStats stats = nativeCache.stats();
+    OptionalLong weightedSize = nativeCache.policy().eviction()
+        .map(eviction -> eviction.weightedSize())
+        .orElse(OptionalLong.empty());
+
+    return new CacheStatistics(
+        caffeineCache.getName(),
+        nativeCache.estimatedSize(),
+        weightedSize.isPresent() ? weightedSize.getAsLong() : null,
+        stats.hitCount(),
+        stats.missCount(),
+        stats.hitRate(),
+        stats.evictionCount()
+    );
+  }
+
+  @Value
+  public static class CacheStatistics {
+    String cacheName;
+    long estimatedSize;
+    /**
+     * The estimated weight of all entries, or {@code null} if the cache is not weighed.
+     */
+    Long estimatedWeight;
+    long hitCount;
+    long missCount;
+    double hitRate;
+    long evictionCount;
+  }
+}
@@ -27,6 +27,8 @@ public class ClientProperties {
   private MapGenerator mapGenerator = new MapGenerator();
   private Website website = new Website();
   private Discord discord = new Discord();
+  private Cache cache = new Cache();
+  private Task task = new Task();
   private String translationProjectUrl;
   private String clientConfigUrl;
   private boolean useRemotePreferences;
@@ -75,6 +77,18 @@ public class ClientProperties {
   public static class Server {
     private String host;
     private int port = 8001;
+    /**
+     * How many messages from the server may wait to be handled before reading from the server pauses. Must be large
+     * enough to hold the bursts of game and player information the server sends after login.
+     */
+    private int maxQueuedMessages = 10_000;
+    /**
+     * If set, all messages received from the server are recorded into a new file in this directory, so that they can be
+     * replayed by {@code LobbyReplayServer}, a development tool found in the tests.
+     */
+    private String trafficRecordingDirectory;
+    /** How long to wait for the server to respond to a request, like the request to join a game. */
+    private Duration responseTimeout = Duration.ofSeconds(30);
   }
 
   @Data
@@ -96,6 +110,45 @@ public class ClientProperties {
     private String replayFileGlob = "*.fafreplay";
     // TODO this should acutally be reported by the server
     private int watchDelaySeconds = 300;
+    /**
+     * Time a changed file in the local replay directory has to remain unchanged before it's (re)loaded. Changes that
+     * occur within this time are processed together.
+     */
+    private Duration localReplaysSettleDelay = Duration.ofSeconds(2);
+    /**
+     * Number of pending bytes after which the live replay stream is sent to the replay server.
+     */
+    private int relayFlushSize = 4096;
+    /**
+     * Maximum time received live replay data is held back before it's sent to the replay server.
+     */
+    private Duration relayFlushInterval = Duration.ofSeconds(1);
+    private Duration relayReconnectDelay = Duration.ofSeconds(5);
+    private int relayMaxConnectAttempts = 10;
+  }
+
+  @Data
+  public static class Task {
+    /**
+     * Maximum number of network tasks (downloads and uploads) that run concurrently.
+     */
+    private int maxNetworkTasks = 2;
+    /**
+     * Maximum number of disk intensive tasks that run concurrently.
+     */
+    private int maxDiskTasks = 2;
+    /**
+     * Maximum number of CPU intensive tasks that run concurrently.
+     */
+    private int maxCpuTasks = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /**
+     * Maximum number of other tasks that run concurrently.
+     */
+    private int maxDefaultTasks = 4;
+    /**
+     * Maximum number of tasks of a category that may wait for execution. Further tasks are rejected.
+     */
+    private int maxQueuedTasks = 256;
   }
 
   @Data
@@ -137,6 +190,10 @@ public class ClientProperties {
     private String clientId;
     private String clientSecret;
     private int maxPageSize = 10_000;
+    /**
+     * Maximum age of a response in the API disk cache for it to be shown before it has been revalidated.
+     */
+    private Duration diskCacheMaxStale = Duration.ofDays(7);
   }
 
   @Data
@@ -162,4 +219,46 @@ public class ClientProperties {
     private String bigImageKey;
     private String discordPrereleaseFeedbackChannelUrl;
   }
+
+  @Data
+  public static class Cache {
+    /**
+     * Defaults of the caches holding data loaded from the API or the server. Values that are set here apply to every
+     * cache of this tier that doesn't set them itself.
+     */
+    private CacheSpec data = new CacheSpec();
+    /**
+     * Defaults of the caches holding images. Images are weighed by their estimated size in bytes.
+     */
+    private CacheSpec images = new CacheSpec();
+    /**
+     * Settings of individual caches by cache name (see {@link CacheNames}), which take precedence over the built-in
+     * settings and the tier defaults.
+     */
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    public Cache() {
+      data.setMaximumSize(1_000L);
+      images.setMaximumWeight(128L * 1024 * 1024);
+      images.setWeakValues(true);
+    }
+  }
+
+  /**
+   * Settings of a cache. Settings that are {@code null} are not applied.
+   */
+  @Data
+  public static class CacheSpec {
+    private Long maximumSize;
+    /**
+     * Maximum weight of a weighed cache. For image caches, this is the estimated number of bytes of all cached images.
+     */
+    private Long maximumWeight;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
+    /**
+     * Whether values may be garbage collected as soon as they are no longer used outside of the cache.
+     */
+    private Boolean weakValues;
+  }
 }
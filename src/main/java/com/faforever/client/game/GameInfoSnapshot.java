@@ -0,0 +1,25 @@
+package com.faforever.client.game;
+
+import com.faforever.client.remote.domain.GameInfoMessage;
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * A game update received from the server, along with everything derived from it that is expensive to compute, so that
+ * it can be computed in background and applied to a {@link Game} on the application thread.
+ */
+@Value
+class GameInfoSnapshot {
+  GameInfoMessage gameInfoMessage;
+  String title;
+  @Nullable
+  Instant startTime;
+  /** The minimum rating stated in the title, if any. */
+  @Nullable
+  Integer minRating;
+  /** The maximum rating stated in the title, if any. */
+  @Nullable
+  Integer maxRating;
+}
@@ -25,6 +25,7 @@ import com.faforever.client.notification.Severity;
 import com.faforever.client.patch.GameUpdater;
 import com.faforever.client.player.Player;
 import com.faforever.client.player.PlayerService;
+import com.faforever.client.player.PlayersOnlineEvent;
 import com.faforever.client.preferences.NotificationsPrefs;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.rankedmatch.MatchmakerInfoMessage;
@@ -37,8 +38,10 @@ import com.faforever.client.remote.domain.LoginMessage;
 import com.faforever.client.replay.ReplayServer;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.ui.preferences.event.GameDirectoryChooseEvent;
+import com.faforever.client.util.ConcurrentUtil;
 import com.faforever.client.util.RatingUtil;
 import com.faforever.client.util.TimeUtil;
+import com.faforever.client.util.Tuple;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
@@ -68,11 +71,13 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -87,6 +92,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.faforever.client.fa.RatingMode.NONE;
 import static com.faforever.client.game.KnownFeaturedMod.LADDER_1V1;
@@ -149,6 +155,13 @@ public class GameService implements InitializingBean {
   private final String faWindowTitle;
   private final BooleanProperty searching1v1;
 
+  /**
+   * Game updates that have not yet been applied on the application thread, by game ID. Of every game, only the latest
+   * update is kept.
+   */
+  private final Map<Integer, GameInfoSnapshot> pendingGameUpdates = new LinkedHashMap<>();
+  private boolean gameUpdatesScheduled;
+
   private Process process;
   private boolean rehostRequested;
   private int localReplayPort;
@@ -225,13 +238,16 @@ public class GameService implements InitializingBean {
 
     eventBus.register(this);
 
-    fafService.addOnMessageListener(GameInfoMessage.class, message -> Platform.runLater(() -> onGameInfo(message)));
+    fafService.addOnMessageListener(GameInfoMessage.class, this::onGameInfo);
     fafService.addOnMessageListener(LoginMessage.class, message -> onLoggedIn());
 
     JavaFxUtil.addListener(
         fafService.connectionStateProperty(),
         (observable, oldValue, newValue) -> {
           if (newValue == ConnectionState.DISCONNECTED) {
+            synchronized (pendingGameUpdates) {
+              pendingGameUpdates.clear();
+            }
             synchronized (uidToGameInfoBean) {
               uidToGameInfoBean.clear();
             }
@@ -511,8 +527,11 @@ public class GameService implements InitializingBean {
               startGame(gameLaunchMessage, faction, RatingMode.LADDER_1V1);
             }))
         .exceptionally(throwable -> {
+          throwable = ConcurrentUtil.unwrapIfCompletionException(throwable);
           if (throwable instanceof CancellationException) {
+            // Cancelled by stopping the search, by hosting or joining a game, or by losing the connection
             log.info("Ranked1v1 search has been cancelled");
+            searching1v1.set(false);
           } else {
             log.warn("Ranked1v1 could not be started", throwable);
           }
@@ -687,19 +706,49 @@ public class GameService implements InitializingBean {
     }
   }
 
+  /**
+   * Prepares the game updates of a message in background, so that applying them on the application thread is cheap.
+   * All updates that arrive until the application thread gets to apply them are applied at once.
+   */
   private void onGameInfo(GameInfoMessage gameInfoMessage) {
+    List<GameInfoMessage> gameInfoMessages = gameInfoMessage.getGames() != null ? gameInfoMessage.getGames() : singletonList(gameInfoMessage);
+
+    List<GameInfoSnapshot> snapshots = gameInfoMessages.stream()
+        .map(this::createSnapshot)
+        .collect(Collectors.toList());
+
+    boolean scheduleUpdate;
+    synchronized (pendingGameUpdates) {
+      snapshots.forEach(snapshot -> pendingGameUpdates.put(snapshot.getGameInfoMessage().getUid(), snapshot));
+      scheduleUpdate = !gameUpdatesScheduled;
+      gameUpdatesScheduled = true;
+    }
+
+    if (scheduleUpdate) {
+      Platform.runLater(this::applyPendingGameUpdates);
+    }
+  }
+
+  private void applyPendingGameUpdates() {
     // Since all game updates are usually reflected on the UI and to prevent deadlocks
     JavaFxUtil.assertApplicationThread();
 
-    if (gameInfoMessage.getGames() != null) {
-      gameInfoMessage.getGames().forEach(this::onGameInfo);
-      return;
+    List<GameInfoSnapshot> snapshots;
+    synchronized (pendingGameUpdates) {
+      snapshots = new ArrayList<>(pendingGameUpdates.values());
+      pendingGameUpdates.clear();
+      gameUpdatesScheduled = false;
     }
 
     // We may receive game info before we receive our player info
     Optional<Player> currentPlayerOptional = playerService.getCurrentPlayer();
+    snapshots.forEach(snapshot -> applyGameUpdate(snapshot, currentPlayerOptional));
+  }
 
-    Game game = createOrUpdateGame(gameInfoMessage);
+  private void applyGameUpdate(GameInfoSnapshot snapshot, Optional<Player> currentPlayerOptional) {
+    GameInfoMessage gameInfoMessage = snapshot.getGameInfoMessage();
+
+    Game game = createOrUpdateGame(snapshot);
     if (GameStatus.CLOSED == game.getStatus()) {
       removeGame(gameInfoMessage);
       if (!currentPlayerOptional.isPresent() || !Objects.equals(currentGame.get(), game)) {
@@ -726,8 +775,12 @@ public class GameService implements InitializingBean {
         }
       }
     }
+  }
 
-
+  /**
+   * Focuses the game window when a game the current player is in has been started.
+   */
+  private void addGameStartedListener(Game game) {
     JavaFxUtil.addListener(game.statusProperty(), (observable, oldValue, newValue) -> {
       if (oldValue == GameStatus.OPEN
           && newValue == GameStatus.PLAYING
@@ -738,14 +791,15 @@ public class GameService implements InitializingBean {
     });
   }
 
-  private Game createOrUpdateGame(GameInfoMessage gameInfoMessage) {
-    Integer gameId = gameInfoMessage.getUid();
+  private Game createOrUpdateGame(GameInfoSnapshot snapshot) {
+    Integer gameId = snapshot.getGameInfoMessage().getUid();
     final Game game;
     synchronized (uidToGameInfoBean) {
       if (!uidToGameInfoBean.containsKey(gameId)) {
         game = new Game();
         uidToGameInfoBean.put(gameId, game);
-        updateFromGameInfo(gameInfoMessage, game);
+        updateFromGameInfo(snapshot, game);
+        addGameStartedListener(game);
         eventBus.post(new GameAddedEvent(game));
       } else {
         game = uidToGameInfoBean.get(gameId);
@@ -756,7 +810,7 @@ public class GameService implements InitializingBean {
          game however, since members are not yet accessible from outside. */
         JavaFxUtil.assertApplicationThread();
 
-        updateFromGameInfo(gameInfoMessage, game);
+        updateFromGameInfo(snapshot, game);
         eventBus.post(new GameUpdatedEvent(game));
       }
     }
@@ -781,8 +835,12 @@ public class GameService implements InitializingBean {
     }
   }
 
-  private double calcAverageRating(GameInfoMessage gameInfoMessage) {
-    return gameInfoMessage.getTeams().values().stream()
+  /**
+   * Must be called on the application thread, where player info is applied, so that players announced before the game
+   * are known.
+   */
+  private double calcAverageRating(Map<String, List<String>> teams) {
+    return teams.values().stream()
         .flatMap(Collection::stream)
         .map(playerService::getPlayerForUsername)
         .filter(Optional::isPresent)
@@ -792,23 +850,77 @@ public class GameService implements InitializingBean {
         .orElse(0.0);
   }
 
-  private void updateFromGameInfo(GameInfoMessage gameInfoMessage, Game game) {
+  /**
+   * Computes everything of a game update that doesn't need to be computed on the application thread.
+   */
+  private GameInfoSnapshot createSnapshot(GameInfoMessage gameInfoMessage) {
+    String title = StringEscapeUtils.unescapeHtml4(gameInfoMessage.getTitle());
+    Instant startTime = Optional.ofNullable(gameInfoMessage.getLaunchedAt())
+        .map(launchedAt -> TimeUtil.fromPythonTime(launchedAt.longValue()).toInstant())
+        .orElse(null);
+
+    Tuple<Integer, Integer> ratingRange = parseRatingRange(title);
+
+    return new GameInfoSnapshot(gameInfoMessage, title, startTime, ratingRange.getFirst(), ratingRange.getSecond());
+  }
+
+  /**
+   * Returns the minimum and maximum rating stated in a game's title, each {@code null} if not stated.
+   */
+  // TODO this can be removed as soon as we valueOf server side support. Until then, let's be hacky
+  private Tuple<Integer, Integer> parseRatingRange(String titleString) {
+    if (titleString == null) {
+      return new Tuple<>(null, null);
+    }
+
+    Matcher matcher = BETWEEN_RATING_PATTERN.matcher(titleString);
+    if (matcher.find()) {
+      return new Tuple<>(parseRating(matcher.group(1)), parseRating(matcher.group(2)));
+    }
+
+    matcher = MIN_RATING_PATTERN.matcher(titleString);
+    if (matcher.find()) {
+      Integer minRating = null;
+      if (matcher.group(1) != null) {
+        minRating = parseRating(matcher.group(1));
+      }
+      if (matcher.group(2) != null) {
+        minRating = parseRating(matcher.group(2));
+      }
+      return new Tuple<>(minRating, 3000);
+    }
+
+    matcher = MAX_RATING_PATTERN.matcher(titleString);
+    if (matcher.find()) {
+      return new Tuple<>(0, parseRating(matcher.group(1)));
+    }
+
+    matcher = ABOUT_RATING_PATTERN.matcher(titleString);
+    if (matcher.find()) {
+      int rating = parseRating(matcher.group(1));
+      return new Tuple<>(rating - 300, rating + 300);
+    }
+
+    return new Tuple<>(null, null);
+  }
+
+  private void updateFromGameInfo(GameInfoSnapshot snapshot, Game game) {
+    GameInfoMessage gameInfoMessage = snapshot.getGameInfoMessage();
+
     game.setId(gameInfoMessage.getUid());
     game.setHost(gameInfoMessage.getHost());
-    game.setTitle(StringEscapeUtils.unescapeHtml4(gameInfoMessage.getTitle()));
+    game.setTitle(snapshot.getTitle());
     game.setMapFolderName(gameInfoMessage.getMapname());
     game.setFeaturedMod(gameInfoMessage.getFeaturedMod());
     game.setNumPlayers(gameInfoMessage.getNumPlayers());
     game.setMaxPlayers(gameInfoMessage.getMaxPlayers());
     game.setVictoryCondition(gameInfoMessage.getGameType());
-    Optional.ofNullable(gameInfoMessage.getLaunchedAt()).ifPresent(aDouble -> game.setStartTime(
-        TimeUtil.fromPythonTime(aDouble.longValue()).toInstant()
-    ));
+    if (snapshot.getStartTime() != null) {
+      game.setStartTime(snapshot.getStartTime());
+    }
     game.setStatus(gameInfoMessage.getState());
     game.setPasswordProtected(gameInfoMessage.getPasswordProtected());
 
-    game.setAverageRating(calcAverageRating(gameInfoMessage));
-
     synchronized (game.getSimMods()) {
       game.getSimMods().clear();
       if (gameInfoMessage.getSimMods() != null) {
@@ -821,6 +933,7 @@ public class GameService implements InitializingBean {
       if (gameInfoMessage.getTeams() != null) {
         game.getTeams().putAll(gameInfoMessage.getTeams());
       }
+      game.setAverageRating(calcAverageRating(game.getTeams()));
     }
 
     synchronized (game.getFeaturedModVersions()) {
@@ -830,36 +943,11 @@ public class GameService implements InitializingBean {
       }
     }
 
-    // TODO this can be removed as soon as we valueOf server side support. Until then, let's be hacky
-    String titleString = game.getTitle();
-    Matcher matcher = BETWEEN_RATING_PATTERN.matcher(titleString);
-    if (matcher.find()) {
-      game.setMinRating(parseRating(matcher.group(1)));
-      game.setMaxRating(parseRating(matcher.group(2)));
-    } else {
-      matcher = MIN_RATING_PATTERN.matcher(titleString);
-      if (matcher.find()) {
-        if (matcher.group(1) != null) {
-          game.setMinRating(parseRating(matcher.group(1)));
-        }
-        if (matcher.group(2) != null) {
-          game.setMinRating(parseRating(matcher.group(2)));
-        }
-        game.setMaxRating(3000);
-      } else {
-        matcher = MAX_RATING_PATTERN.matcher(titleString);
-        if (matcher.find()) {
-          game.setMinRating(0);
-          game.setMaxRating(parseRating(matcher.group(1)));
-        } else {
-          matcher = ABOUT_RATING_PATTERN.matcher(titleString);
-          if (matcher.find()) {
-            int rating = parseRating(matcher.group(1));
-            game.setMinRating(rating - 300);
-            game.setMaxRating(rating + 300);
-          }
-        }
-      }
+    if (snapshot.getMinRating() != null) {
+      game.setMinRating(snapshot.getMinRating());
+    }
+    if (snapshot.getMaxRating() != null) {
+      game.setMaxRating(snapshot.getMaxRating());
     }
   }
 
@@ -879,6 +967,34 @@ public class GameService implements InitializingBean {
     }
   }
 
+  /**
+   * Updates the average rating of the games the players are in, as player info may be applied after the game info
+   * that refers to them, and ratings change after every game.
+   */
+  @Subscribe
+  public void onPlayersOnline(PlayersOnlineEvent event) {
+    JavaFxUtil.assertApplicationThread();
+
+    Set<String> usernames = event.getPlayers().stream()
+        .map(Player::getUsername)
+        .collect(Collectors.toSet());
+
+    List<Game> games;
+    synchronized (uidToGameInfoBean) {
+      games = new ArrayList<>(uidToGameInfoBean.values());
+    }
+    for (Game game : games) {
+      synchronized (game.getTeams()) {
+        boolean containsPlayer = game.getTeams().values().stream()
+            .flatMap(Collection::stream)
+            .anyMatch(usernames::contains);
+        if (containsPlayer) {
+          game.setAverageRating(calcAverageRating(game.getTeams()));
+        }
+      }
+    }
+  }
+
   @Subscribe
   public void onGameCloseRequested(CloseGameEvent event) {
     killGame();
@@ -0,0 +1,21 @@
+package com.faforever.client.io;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Settled changes of the entries of a watched directory, as reported by {@link DirectoryWatcherService}. A path is
+ * only contained in one of the sets.
+ */
+@Value
+public class DirectoryChanges {
+  Path directory;
+  /** Entries that didn't exist in the directory before. */
+  Set<Path> addedPaths;
+  /** Entries that existed before and have been modified or replaced. */
+  Set<Path> changedPaths;
+  /** Entries that existed before and have been removed. */
+  Set<Path> removedPaths;
+}
@@ -0,0 +1,257 @@
+package com.faforever.client.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches directories for entries that are added, changed or removed. Raw watch events are only recorded; an entry is
+ * reported once no further events have been received for the settle delay of its directory and it hasn't been modified
+ * within that delay, so that files and folders that are still being written aren't reported too early and bulk changes
+ * result in a single {@link DirectoryChanges}. All directories share one watch service and one daemon thread.
+ */
+@Lazy
+@Service
+@Slf4j
+public class DirectoryWatcherService implements DisposableBean {
+
+  public static final Duration DEFAULT_SETTLE_DELAY = Duration.ofSeconds(2);
+
+  private final Timer settleTimer = new Timer("DirectoryWatcherSettleTimer", true);
+  private final Map<WatchKey, DirectoryWatch> watchesByKey = new HashMap<>();
+  private WatchService watchService;
+  private Thread watcherThread;
+
+  public DirectoryWatch watch(Path directory, Consumer<DirectoryChanges> listener) throws IOException {
+    return watch(directory, DEFAULT_SETTLE_DELAY, listener);
+  }
+
+  /**
+   * Starts watching the entries of the specified directory. The listener is called on a background thread, never
+   * concurrently for the same directory.
+   */
+  public synchronized DirectoryWatch watch(Path directory, Duration settleDelay, Consumer<DirectoryChanges> listener) throws IOException {
+    if (watchService == null) {
+      watchService = directory.getFileSystem().newWatchService();
+      watcherThread = new Thread(this::pollWatchService, "DirectoryWatcher");
+      watcherThread.setDaemon(true);
+      watcherThread.start();
+    }
+
+    // Registered before the entries are listed, so that no change in between is missed
+    WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    DirectoryWatch directoryWatch = new DirectoryWatch(directory, settleDelay, listener, key);
+    directoryWatch.readEntries();
+    watchesByKey.put(key, directoryWatch);
+    return directoryWatch;
+  }
+
+  private void pollWatchService() {
+    try {
+      while (!Thread.interrupted()) {
+        WatchKey key = watchService.take();
+        List<WatchEvent<?>> watchEvents = key.pollEvents();
+        DirectoryWatch directoryWatch = getDirectoryWatch(key);
+        if (directoryWatch != null) {
+          directoryWatch.onWatchEvents(watchEvents);
+        }
+        if (!key.reset()) {
+          removeDirectoryWatch(key);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      log.debug("Directory watcher terminated ({})", e.getMessage());
+    }
+  }
+
+  private synchronized DirectoryWatch getDirectoryWatch(WatchKey key) {
+    return watchesByKey.get(key);
+  }
+
+  private synchronized void removeDirectoryWatch(WatchKey key) {
+    watchesByKey.remove(key);
+  }
+
+  @Override
+  public synchronized void destroy() throws IOException {
+    settleTimer.cancel();
+    watchesByKey.clear();
+    if (watcherThread != null) {
+      watcherThread.interrupt();
+    }
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  public final class DirectoryWatch implements AutoCloseable {
+
+    private final Path directory;
+    private final Duration settleDelay;
+    private final Consumer<DirectoryChanges> listener;
+    private final WatchKey key;
+    /** The entries of the directory as of the last reported changes. */
+    private final Set<Path> entries = new HashSet<>();
+    /** Entries that have been reported by the watch service but not yet settled. */
+    private final Set<Path> pendingPaths = new HashSet<>();
+    private boolean overflowed;
+    private boolean closed;
+    private TimerTask settleTask;
+
+    private DirectoryWatch(Path directory, Duration settleDelay, Consumer<DirectoryChanges> listener, WatchKey key) {
+      this.directory = directory;
+      this.settleDelay = settleDelay;
+      this.listener = listener;
+      this.key = key;
+    }
+
+    public Path getDirectory() {
+      return directory;
+    }
+
+    @Override
+    public void close() {
+      synchronized (this) {
+        closed = true;
+        if (settleTask != null) {
+          settleTask.cancel();
+        }
+      }
+      key.cancel();
+      removeDirectoryWatch(key);
+    }
+
+    private synchronized void readEntries() throws IOException {
+      try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+        directoryStream.forEach(entries::add);
+      }
+    }
+
+    @VisibleForTesting
+    synchronized void onWatchEvents(List<WatchEvent<?>> watchEvents) {
+      for (WatchEvent<?> watchEvent : watchEvents) {
+        if (watchEvent.kind() == OVERFLOW) {
+          overflowed = true;
+          continue;
+        }
+        pendingPaths.add(directory.resolve((Path) watchEvent.context()));
+      }
+      scheduleSettle();
+    }
+
+    private synchronized void scheduleSettle() {
+      if (closed) {
+        return;
+      }
+      if (settleTask != null) {
+        settleTask.cancel();
+      }
+
+      settleTask = new TimerTask() {
+        @Override
+        public void run() {
+          try {
+            settle();
+          } catch (Exception e) {
+            log.warn("Failed to process changes of directory {}", directory, e);
+          }
+        }
+      };
+      settleTimer.schedule(settleTask, settleDelay.toMillis());
+    }
+
+    /**
+     * Compares each pending path with the current state of the file system and the known entries. Entries that have
+     * been modified too recently to be considered completely written are postponed.
+     */
+    private void settle() {
+      DirectoryChanges directoryChanges;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (overflowed) {
+          log.debug("Watcher of directory {} overflowed, comparing all entries", directory);
+          overflowed = false;
+          pendingPaths.addAll(entries);
+          try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            directoryStream.forEach(pendingPaths::add);
+          } catch (IOException e) {
+            log.warn("Entries of directory {} could not be read", directory, e);
+          }
+        }
+
+        long settleDelayMillis = settleDelay.toMillis();
+        long now = System.currentTimeMillis();
+        Set<Path> addedPaths = new HashSet<>();
+        Set<Path> changedPaths = new HashSet<>();
+        Set<Path> removedPaths = new HashSet<>();
+        boolean unsettledPaths = false;
+
+        Iterator<Path> iterator = pendingPaths.iterator();
+        while (iterator.hasNext()) {
+          Path path = iterator.next();
+          long lastModified;
+          try {
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+          } catch (IOException e) {
+            // Entry doesn't exist (anymore)
+            iterator.remove();
+            if (entries.remove(path)) {
+              removedPaths.add(path);
+            }
+            continue;
+          }
+
+          long age = now - lastModified;
+          if (age >= 0 && age < settleDelayMillis) {
+            unsettledPaths = true;
+            continue;
+          }
+
+          iterator.remove();
+          if (entries.add(path)) {
+            addedPaths.add(path);
+          } else {
+            changedPaths.add(path);
+          }
+        }
+
+        if (unsettledPaths) {
+          scheduleSettle();
+        }
+        if (addedPaths.isEmpty() && changedPaths.isEmpty() && removedPaths.isEmpty()) {
+          return;
+        }
+        directoryChanges = new DirectoryChanges(directory, addedPaths, changedPaths, removedPaths);
+      }
+      listener.accept(directoryChanges);
+    }
+  }
+}
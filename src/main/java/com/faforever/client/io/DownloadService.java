@@ -36,7 +36,12 @@ public class DownloadService {
           .listener(progressListener)
           .copy();
 
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+      ResourceLocks.acquireDiskLock(targetFile);
+      try {
+        Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        ResourceLocks.freeDiskLock(targetFile);
+      }
     } finally {
       ResourceLocks.freeDownloadLock();
       try {
@@ -0,0 +1,168 @@
+package com.faforever.client.io;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Entries about files or folders, keyed by their absolute path and persisted as a JSON array. The file is read on first
+ * access and only written by {@link #store()} if an entry has changed since. It is replaced atomically, so that it is
+ * never left half-written; if it can't be read, the index starts empty and is rebuilt by its users.
+ * <p>
+ * All methods may be called by multiple threads in parallel.
+ *
+ * @param <E> the type of the entries, which must be serializable by the specified {@link Gson}
+ */
+@Slf4j
+public class PersistentPathIndex<E extends PersistentPathIndex.Entry> {
+
+  private final Supplier<Path> indexFileSupplier;
+  private final String description;
+  private final Gson gson;
+  private final Class<E[]> entryArrayType;
+  private final Predicate<E> entryValidator;
+  private final Map<Path, E> entries;
+  private volatile boolean loaded;
+  private volatile boolean dirty;
+
+  /**
+   * @param indexFileSupplier supplies the file the index is stored in, called on every read and write
+   * @param description what the index is called in log messages, e.g. "local replay index"
+   * @param entryValidator entries read from the file that don't match are discarded
+   */
+  public PersistentPathIndex(Supplier<Path> indexFileSupplier, String description, Gson gson, Class<E[]> entryArrayType,
+                             Predicate<E> entryValidator) {
+    this.indexFileSupplier = indexFileSupplier;
+    this.description = description;
+    this.gson = gson;
+    this.entryArrayType = entryArrayType;
+    this.entryValidator = entryValidator;
+    entries = new ConcurrentHashMap<>();
+  }
+
+  public Optional<E> get(Path path) {
+    ensureLoaded();
+    return Optional.ofNullable(entries.get(path.toAbsolutePath()));
+  }
+
+  /**
+   * Adds or replaces the entry of the path returned by {@link Entry#getPath()}, which is expected to be absolute.
+   */
+  public void put(E entry) {
+    ensureLoaded();
+    entries.put(Path.of(entry.getPath()), entry);
+    dirty = true;
+  }
+
+  public void remove(Path path) {
+    ensureLoaded();
+    if (entries.remove(path.toAbsolutePath()) != null) {
+      dirty = true;
+    }
+  }
+
+  /**
+   * Removes all entries whose path is not contained in the specified collection.
+   */
+  public void retainAll(Collection<Path> paths) {
+    ensureLoaded();
+    Set<Path> absolutePaths = paths.stream()
+        .map(Path::toAbsolutePath)
+        .collect(Collectors.toSet());
+    if (entries.keySet().retainAll(absolutePaths)) {
+      dirty = true;
+    }
+  }
+
+  public int size() {
+    ensureLoaded();
+    return entries.size();
+  }
+
+  /**
+   * Writes the index to disk, if it has been modified since it was last read or written.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void store() {
+    if (!dirty) {
+      return;
+    }
+    Path indexFile = indexFileSupplier.get();
+    try {
+      Files.createDirectories(indexFile.getParent());
+      Path temporaryIndexFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), null);
+      dirty = false;
+      try (Writer writer = Files.newBufferedWriter(temporaryIndexFile, UTF_8)) {
+        gson.toJson(entries.values().toArray((E[]) Array.newInstance(entryArrayType.getComponentType(), 0)), entryArrayType, writer);
+      }
+      Files.move(temporaryIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.debug("Stored {} entries to {} {}", entries.size(), description, indexFile);
+    } catch (IOException e) {
+      dirty = true;
+      log.warn("Could not write {} to {}", description, indexFile, e);
+    }
+  }
+
+  /**
+   * Reads the index on first access. The lock is only taken until the index has been loaded, so that lookups neither
+   * contend with each other nor wait for {@link #store()}.
+   */
+  private void ensureLoaded() {
+    if (!loaded) {
+      load();
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded) {
+      return;
+    }
+
+    Path indexFile = indexFileSupplier.get();
+    if (Files.exists(indexFile)) {
+      read(indexFile);
+    }
+    loaded = true;
+  }
+
+  private void read(Path indexFile) {
+    try (Reader reader = Files.newBufferedReader(indexFile, UTF_8)) {
+      E[] storedEntries = gson.fromJson(reader, entryArrayType);
+      if (storedEntries == null) {
+        return;
+      }
+      Arrays.stream(storedEntries)
+          .filter(entry -> entry.getPath() != null && entryValidator.test(entry))
+          .forEach(entry -> entries.put(Path.of(entry.getPath()), entry));
+      log.debug("Loaded {} entries from {} {}", entries.size(), description, indexFile);
+    } catch (IOException | JsonParseException e) {
+      log.warn("Could not read {} from {}, it will be rebuilt", description, indexFile, e);
+      entries.clear();
+      dirty = true;
+    }
+  }
+
+  public interface Entry {
+    /** The absolute path the entry is about. */
+    String getPath();
+  }
+}
@@ -3,6 +3,7 @@ package com.faforever.client.map;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
+import com.faforever.client.task.ResourceLocks;
 import com.faforever.commons.io.Unzipper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +33,7 @@ public class DownloadMapTask extends CompletableTask<Void> {
 
   @Inject
   public DownloadMapTask(PreferencesService preferencesService, I18n i18n) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, Category.NETWORK);
 
     this.preferencesService = preferencesService;
     this.i18n = i18n;
@@ -50,7 +51,10 @@ public class DownloadMapTask extends CompletableTask<Void> {
     int bytesToRead = urlConnection.getContentLength();
 
     Path targetDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+    Path mapDirectory = targetDirectory.resolve(folderName);
 
+    ResourceLocks.acquireDownloadLock();
+    ResourceLocks.acquireDiskLock(mapDirectory);
     try (InputStream inputStream = urlConnection.getInputStream()) {
       Unzipper.from(inputStream)
           .zipBombByteCountThreshold(100_000_000)
@@ -58,6 +62,9 @@ public class DownloadMapTask extends CompletableTask<Void> {
           .totalBytes(bytesToRead)
           .listener(this::updateProgress)
           .unzip();
+    } finally {
+      ResourceLocks.freeDiskLock(mapDirectory);
+      ResourceLocks.freeDownloadLock();
     }
 
     return null;
@@ -0,0 +1,116 @@
+package com.faforever.client.map;
+
+import com.faforever.client.io.PersistentPathIndex;
+import com.faforever.client.map.MapBean.Type;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.gson.Gson;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Persistent catalog of the installed maps, stored in the cache directory. An entry is only valid as long as the last
+ * modification time of the map folder is unchanged, so that only new or changed maps need to be read on startup.
+ */
+@Lazy
+@Component
+public class InstalledMapCatalog {
+
+  private static final String CATALOG_FILE_NAME = "installedMapCatalog.json";
+
+  private final PersistentPathIndex<Entry> index;
+
+  public InstalledMapCatalog(PreferencesService preferencesService) {
+    index = new PersistentPathIndex<>(() -> preferencesService.getCacheDirectory().resolve(CATALOG_FILE_NAME),
+        "installed map catalog", new Gson(), Entry[].class, entry -> entry.getFolderName() != null);
+  }
+
+  /**
+   * Returns a new map bean of the specified map folder if the folder hasn't changed since it was cataloged.
+   */
+  public Optional<MapBean> get(Path mapFolder, long lastModified) {
+    return index.get(mapFolder)
+        .filter(entry -> entry.getLastModified() == lastModified)
+        .map(Entry::toMapBean);
+  }
+
+  public void put(Path mapFolder, long lastModified, MapBean mapBean) {
+    index.put(Entry.of(mapFolder.toAbsolutePath().toString(), lastModified, mapBean));
+  }
+
+  public void remove(Path mapFolder) {
+    index.remove(mapFolder);
+  }
+
+  /**
+   * Removes all entries whose map folder is not contained in the specified collection.
+   */
+  public void retainAll(Collection<Path> mapFolders) {
+    index.retainAll(mapFolders);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Writes the catalog to disk, if it has been modified since it was last read or written.
+   */
+  public void store() {
+    index.store();
+  }
+
+  /**
+   * The properties of a map that are read from its scenario file. Map beans are mutable and observed by the UI, so the
+   * catalog stores these instead and creates a new bean for every lookup.
+   */
+  @Data
+  @NoArgsConstructor
+  static class Entry implements PersistentPathIndex.Entry {
+    private String path;
+    private long lastModified;
+    private String folderName;
+    private String displayName;
+    private String description;
+    private Type type;
+    private int widthInPixels;
+    private int heightInPixels;
+    private int players;
+    private String version;
+
+    static Entry of(String path, long lastModified, MapBean mapBean) {
+      Entry entry = new Entry();
+      entry.setPath(path);
+      entry.setLastModified(lastModified);
+      entry.setFolderName(mapBean.getFolderName());
+      entry.setDisplayName(mapBean.getDisplayName());
+      entry.setDescription(mapBean.getDescription());
+      entry.setType(mapBean.getType());
+      entry.setWidthInPixels(mapBean.getSize().getWidthInPixels());
+      entry.setHeightInPixels(mapBean.getSize().getHeightInPixels());
+      entry.setPlayers(mapBean.getPlayers());
+      entry.setVersion(Optional.ofNullable(mapBean.getVersion()).map(ComparableVersion::toString).orElse(null));
+      return entry;
+    }
+
+    MapBean toMapBean() {
+      MapBean mapBean = new MapBean();
+      mapBean.setFolderName(folderName);
+      mapBean.setDisplayName(displayName);
+      mapBean.setDescription(description);
+      mapBean.setType(type);
+      mapBean.setSize(MapSize.valueOf(widthInPixels, heightInPixels));
+      mapBean.setPlayers(players);
+      if (version != null) {
+        mapBean.setVersion(new ComparableVersion(version));
+      }
+      return mapBean;
+    }
+  }
+}
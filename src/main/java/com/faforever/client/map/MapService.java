@@ -6,6 +6,9 @@ import com.faforever.client.config.ClientProperties.Vault;
 import com.faforever.client.fa.FaStrings;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.DirectoryWatcherService.DirectoryWatch;
 import com.faforever.client.map.MapBean.Type;
 import com.faforever.client.map.generator.MapGeneratedEvent;
 import com.faforever.client.map.generator.MapGeneratorService;
@@ -14,6 +17,7 @@ import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.AssetService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
+import com.faforever.client.task.CompletableTask.Category;
 import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.theme.UiService;
@@ -21,6 +25,7 @@ import com.faforever.client.util.ProgrammingError;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import javafx.beans.property.DoubleProperty;
@@ -52,16 +57,16 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static com.faforever.client.util.LuaUtil.loadFile;
@@ -69,8 +74,8 @@ import static com.github.nocatch.NoCatch.noCatch;
 import static com.google.common.net.UrlEscapers.urlFragmentEscaper;
 import static java.lang.String.format;
 import static java.nio.file.Files.list;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
 
 
 @Lazy
@@ -79,6 +84,8 @@ public class MapService implements InitializingBean, DisposableBean {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   public static final String DEBUG = "debug";
+  /** Number of installed maps that are added to {@link #installedMaps} at once while loading. */
+  private static final int INSTALLED_MAPS_BATCH_SIZE = 100;
 
   private final PreferencesService preferencesService;
   private final TaskService taskService;
@@ -91,13 +98,15 @@ public class MapService implements InitializingBean, DisposableBean {
   private final ClientProperties clientProperties;
   private final EventBus eventBus;
   private final ForgedAlliancePrefs forgedAlliancePreferences;
+  private final InstalledMapCatalog installedMapCatalog;
+  private final DirectoryWatcherService directoryWatcherService;
 
   private final String mapDownloadUrlFormat;
   private final String mapPreviewUrlFormat;
-  private final Map<Path, MapBean> pathToMap = new HashMap<>();
+  private final Map<Path, MapBean> pathToMap = new ConcurrentHashMap<>();
   private final ObservableList<MapBean> installedMaps = FXCollections.observableArrayList();
   private final Map<String, MapBean> mapsByFolderName = new HashMap<>();
-  private Thread directoryWatcherThread;
+  private DirectoryWatch mapsDirectoryWatch;
 
   @Inject
   public MapService(PreferencesService preferencesService,
@@ -109,7 +118,9 @@ public class MapService implements InitializingBean, DisposableBean {
                     UiService uiService,
                     MapGeneratorService mapGeneratorService,
                     ClientProperties clientProperties,
-                    EventBus eventBus) {
+                    EventBus eventBus,
+                    InstalledMapCatalog installedMapCatalog,
+                    DirectoryWatcherService directoryWatcherService) {
     this.preferencesService = preferencesService;
     this.taskService = taskService;
     this.applicationContext = applicationContext;
@@ -120,6 +131,8 @@ public class MapService implements InitializingBean, DisposableBean {
     this.mapGeneratorService = mapGeneratorService;
     this.clientProperties = clientProperties;
     this.eventBus = eventBus;
+    this.installedMapCatalog = installedMapCatalog;
+    this.directoryWatcherService = directoryWatcherService;
     forgedAlliancePreferences = preferencesService.getPreferences().getForgedAlliance();
     Vault vault = clientProperties.getVault();
     this.mapDownloadUrlFormat = vault.getMapDownloadUrlFormat();
@@ -176,39 +189,33 @@ public class MapService implements InitializingBean, DisposableBean {
 
     try {
       Files.createDirectories(mapsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(mapsDirectory);
+      Optional.ofNullable(mapsDirectoryWatch).ifPresent(DirectoryWatch::close);
+      mapsDirectoryWatch = directoryWatcherService.watch(mapsDirectory, this::onMapsDirectoryChanged);
     } catch (IOException e) {
       logger.warn("Could not start map directory watcher", e);
       // TODO notify user
     }
 
-    installedMaps.clear();
+    JavaFxUtil.runLater(installedMaps::clear);
     loadInstalledMaps();
   }
 
-  private Thread startDirectoryWatcher(Path mapsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      try (WatchService watcher = mapsDirectory.getFileSystem().newWatchService()) {
-        forgedAlliancePreferences.getCustomMapsDirectory().register(watcher, ENTRY_DELETE);
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE)
-              .forEach(event -> removeMap(mapsDirectory.resolve((Path) event.context())));
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        logger.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.setDaemon(true);
-    thread.start();
-    return thread;
+  /**
+   * Updates the installed maps with map folders that have been added, changed or removed, no matter whether by this
+   * client or externally.
+   */
+  @VisibleForTesting
+  void onMapsDirectoryChanged(DirectoryChanges changes) {
+    changes.getRemovedPaths().forEach(this::removeMap);
+    changes.getChangedPaths().forEach(this::removeMap);
+
+    Stream.concat(changes.getAddedPaths().stream(), changes.getChangedPaths().stream())
+        .filter(path -> Files.isDirectory(path) && !path.getFileName().toString().equals(DEBUG))
+        .forEach(this::addInstalledMap);
   }
 
   private void loadInstalledMaps() {
-    taskService.submitTask(new CompletableTask<Void>(Priority.LOW) {
+    taskService.submitTask(new CompletableTask<Void>(Priority.LOW, Category.DISK) {
 
       protected Void call() {
         updateTitle(i18n.get("mapVault.loadingMaps"));
@@ -220,37 +227,82 @@ public class MapService implements InitializingBean, DisposableBean {
               .map(officialMapsPath::resolve)
               .collect(toCollection(() -> mapPaths));
 
+          mapPaths.removeIf(mapPath -> mapPath.getFileName().toString().equals(DEBUG));
+
           long totalMaps = mapPaths.size();
           long mapsRead = 0;
-          for (Path mapPath : mapPaths) {
-            if (mapPath.getFileName().toString().equals(DEBUG)) {
-              continue;
-            }
-            updateProgress(++mapsRead, totalMaps);
-            addInstalledMap(mapPath);
+          for (List<Path> batch : Lists.partition(mapPaths, INSTALLED_MAPS_BATCH_SIZE)) {
+            // Changed maps are read in parallel, each thread uses its own Lua environment
+            addInstalledMaps(batch.parallelStream()
+                .map(mapPath -> readInstalledMap(mapPath))
+                .flatMap(Optional::stream)
+                .collect(toList()));
+            mapsRead += batch.size();
+            updateProgress(mapsRead, totalMaps);
           }
+
+          installedMapCatalog.retainAll(mapPaths);
         } catch (IOException e) {
           logger.warn("Maps could not be read from: " + forgedAlliancePreferences.getCustomMapsDirectory(), e);
         }
+        installedMapCatalog.store();
         return null;
       }
     });
   }
 
   private void removeMap(Path path) {
-    installedMaps.remove(pathToMap.remove(path));
+    installedMapCatalog.remove(path);
+    Optional.ofNullable(pathToMap.remove(path))
+        .ifPresent(mapBean -> JavaFxUtil.runLater(() -> installedMaps.remove(mapBean)));
   }
 
-  private void addInstalledMap(Path path) throws MapLoadException {
+  private void addInstalledMap(Path path) {
+    readInstalledMap(path).ifPresent(mapBean -> addInstalledMaps(List.of(mapBean)));
+    installedMapCatalog.store();
+  }
+
+  /**
+   * Returns the cataloged map of the specified folder or, if the folder has changed since it was cataloged, reads and
+   * catalogs it.
+   */
+  private Optional<MapBean> readInstalledMap(Path path) {
     try {
-      MapBean mapBean = readMap(path);
-      pathToMap.put(path, mapBean);
-      if (!mapsByFolderName.containsKey(mapBean.getFolderName())) {
-        installedMaps.add(mapBean);
+      long lastModified = Files.getLastModifiedTime(path).toMillis();
+      Optional<MapBean> catalogedMap = installedMapCatalog.get(path, lastModified);
+      MapBean mapBean;
+      if (catalogedMap.isPresent()) {
+        mapBean = catalogedMap.get();
+      } else {
+        mapBean = readMap(path);
+        installedMapCatalog.put(path, lastModified, mapBean);
       }
-    } catch (MapLoadException e) {
+      pathToMap.put(path, mapBean);
+      return Optional.of(mapBean);
+    } catch (IOException | MapLoadException e) {
       logger.warn("Map could not be read: " + path.getFileName(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Adds the specified maps to the installed maps at once, so that listeners are notified only once per batch. Maps
+   * whose folder name is already installed are skipped.
+   */
+  private void addInstalledMaps(List<MapBean> mapBeans) {
+    if (mapBeans.isEmpty()) {
+      return;
     }
+    JavaFxUtil.runLater(() -> {
+      Map<String, MapBean> newMapsByFolderName = new LinkedHashMap<>();
+      for (MapBean mapBean : mapBeans) {
+        String folderKey = mapBean.getFolderName().toLowerCase();
+        if (!mapsByFolderName.containsKey(folderKey)) {
+          newMapsByFolderName.putIfAbsent(folderKey, mapBean);
+        }
+      }
+      installedMaps.addAll(newMapsByFolderName.values());
+    });
   }
 
   @Subscribe
@@ -499,7 +551,7 @@ public class MapService implements InitializingBean, DisposableBean {
     }
 
     return taskService.submitTask(task).getFuture()
-        .thenAccept(aVoid -> noCatch(() -> addInstalledMap(getPathForMapInsensitive(folderName))));
+        .thenAccept(aVoid -> addInstalledMap(getPathForMapInsensitive(folderName)));
   }
 
   public CompletableFuture<List<MapBean>> getOwnedMaps(int playerId, int loadMoreCount, int page) {
@@ -518,7 +570,7 @@ public class MapService implements InitializingBean, DisposableBean {
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(mapsDirectoryWatch).ifPresent(DirectoryWatch::close);
   }
 
   public enum PreviewSize {
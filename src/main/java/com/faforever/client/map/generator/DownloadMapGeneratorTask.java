@@ -44,7 +44,7 @@ public class DownloadMapGeneratorTask extends CompletableTask<Void> {
 
   @Inject
   public DownloadMapGeneratorTask(MapGeneratorService mapGeneratorService, ClientProperties clientProperties, I18n i18n, PlatformService platformService) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, Category.NETWORK);
 
     this.mapGeneratorService = mapGeneratorService;
     this.clientProperties = clientProperties;
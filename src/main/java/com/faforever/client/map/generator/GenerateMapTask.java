@@ -44,7 +44,7 @@ public class GenerateMapTask extends CompletableTask<Void> {
 
   @Inject
   public GenerateMapTask(MapGeneratorService mapGeneratorService, ClientProperties clientProperties, NotificationService notificationService, I18n i18n, EventBus eventBus) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, Category.CPU);
 
     this.mapGeneratorService = mapGeneratorService;
     this.clientProperties = clientProperties;
@@ -32,7 +32,7 @@ import static com.faforever.client.task.CompletableTask.Priority.HIGH;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-public class InstallModTask extends CompletableTask<Void> {
+public class InstallModTask extends CompletableTask<Path> {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -43,14 +43,17 @@ public class InstallModTask extends CompletableTask<Void> {
 
   @Inject
   public InstallModTask(PreferencesService preferencesService, I18n i18n) {
-    super(HIGH);
+    super(HIGH, Category.NETWORK);
 
     this.preferencesService = preferencesService;
     this.i18n = i18n;
   }
 
+  /**
+   * @return the directory the mod has been installed to, or {@code null} if it couldn't be determined
+   */
   @Override
-  protected Void call() throws Exception {
+  protected Path call() throws Exception {
     Objects.requireNonNull(url, "url has not been set");
 
     Path tempFile = Files.createTempFile(preferencesService.getCacheDirectory(), "mod", null);
@@ -73,7 +76,7 @@ public class InstallModTask extends CompletableTask<Void> {
           .totalBytes(contentLength)
           .copy();
 
-      extractMod(tempFile);
+      return extractMod(tempFile);
     } finally {
       ResourceLocks.freeDownloadLock();
       try {
@@ -82,20 +85,21 @@ public class InstallModTask extends CompletableTask<Void> {
         logger.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
       }
     }
-    return null;
   }
 
-  private void extractMod(Path tempFile) throws IOException, ArchiveException {
+  private Path extractMod(Path tempFile) throws IOException, ArchiveException {
     Path modsDirectory = preferencesService.getPreferences().getForgedAlliance().getModsDirectory();
 
     updateTitle(i18n.get("downloadingModTask.unzipping", modsDirectory));
 
-    deleteOldModIfExisting(tempFile, modsDirectory);
-
-    logger.info("Unzipping {} to {}", tempFile, modsDirectory);
+    ResourceLocks.acquireDiskLock(modsDirectory);
     try (InputStream inputStream = Files.newInputStream(tempFile)) {
-      ResourceLocks.acquireDiskLock();
+      Path modDirectory = getModDirectory(tempFile, modsDirectory);
+      if (modDirectory != null) {
+        deleteOldModIfExisting(modDirectory);
+      }
 
+      logger.info("Unzipping {} to {}", tempFile, modsDirectory);
       Unzipper.from(inputStream)
           .to(modsDirectory)
           .zipBombByteCountThreshold(100_000_000)
@@ -103,17 +107,32 @@ public class InstallModTask extends CompletableTask<Void> {
           .totalBytes(Files.size(tempFile))
           .unzip();
 
+      return modDirectory;
     } finally {
-      ResourceLocks.freeDiskLock();
+      ResourceLocks.freeDiskLock(modsDirectory);
     }
   }
 
-  private void deleteOldModIfExisting(Path tempFile, Path modsDirectory) {
+  /**
+   * Returns the directory the mod will be extracted to, which is the top level directory of the first zip entry, or
+   * {@code null} if it can't be determined, e.g. because the first entry is a file in the root of the zip.
+   */
+  private Path getModDirectory(Path tempFile, Path modsDirectory) {
     try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(tempFile))) {
       ZipEntry zipEntry = zipInputStream.getNextEntry();
       Path pathToEntry = Paths.get(zipEntry.getName());
-      Path topLevelDirectory = getTopLevelDirectory(pathToEntry);
-      Path modDirectory = modsDirectory.resolve(topLevelDirectory);
+      if (pathToEntry.getNameCount() < 2 && !zipEntry.isDirectory()) {
+        return null;
+      }
+      return modsDirectory.resolve(pathToEntry.getName(0));
+    } catch (Exception e) {
+      logger.warn("Could not determine directory of mod", e);
+      return null;
+    }
+  }
+
+  private void deleteOldModIfExisting(Path modDirectory) {
+    try {
       if (Files.isDirectory(modDirectory)) {
         FileUtils.deleteRecursively(modDirectory);
         logger.trace("Deleting old version of the mod stored in {}", modDirectory);
@@ -123,14 +142,6 @@ public class InstallModTask extends CompletableTask<Void> {
     }
   }
 
-  private Path getTopLevelDirectory(Path pathToEntry) {
-    Path cutOffPath = pathToEntry;
-    while (cutOffPath.getParent() != null) {
-      cutOffPath = pathToEntry.getParent();
-    }
-    return cutOffPath;
-  }
-
   public void setUrl(URL url) {
     this.url = url;
   }
@@ -4,6 +4,9 @@ import com.faforever.client.config.CacheNames;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.DirectoryWatcherService.DirectoryWatch;
 import com.faforever.client.mod.ModVersion.ModType;
 import com.faforever.client.notification.Action;
 import com.faforever.client.notification.NotificationService;
@@ -20,6 +23,7 @@ import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
 import com.faforever.commons.mod.ModLoadException;
 import com.faforever.commons.mod.ModReader;
+import com.google.common.annotations.VisibleForTesting;
 import javafx.beans.InvalidationListener;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
@@ -51,25 +55,23 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.faforever.client.notification.Severity.WARN;
-import static com.github.nocatch.NoCatch.noCatch;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.file.Files.createDirectories;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -92,20 +94,23 @@ public class ModService implements InitializingBean, DisposableBean {
   private final I18n i18n;
   private final PlatformService platformService;
   private final AssetService assetService;
+  private final DirectoryWatcherService directoryWatcherService;
   private final ModReader modReader = new ModReader();
 
   private Path modsDirectory;
-  private Map<Path, ModVersion> pathToMod = new HashMap<>();
+  private final Map<Path, ModVersion> pathToMod = new ConcurrentHashMap<>();
+  /** The directories of the installed mods by uid. Guarded by {@link #pathToMod}, like the installed mod versions. */
+  private final Map<String, Path> modPathsByUid = new ConcurrentHashMap<>();
   private ObservableList<ModVersion> installedModVersions = FXCollections.observableArrayList();
   private ObservableList<ModVersion> readOnlyInstalledModVersions = FXCollections.unmodifiableObservableList(installedModVersions);
-  private Thread directoryWatcherThread;
+  private DirectoryWatch modsDirectoryWatch;
 
   @Override
   public void afterPropertiesSet() {
     InvalidationListener modDirectoryChangedListener = observable -> {
       modsDirectory = preferencesService.getPreferences().getForgedAlliance().getModsDirectory();
       if (modsDirectory != null) {
-        installedModVersions.clear();
+        clearMods();
         onModDirectoryReady();
       }
     };
@@ -116,8 +121,8 @@ public class ModService implements InitializingBean, DisposableBean {
   private void onModDirectoryReady() {
     try {
       createDirectories(modsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(modsDirectory);
+      Optional.ofNullable(modsDirectoryWatch).ifPresent(DirectoryWatch::close);
+      modsDirectoryWatch = directoryWatcherService.watch(modsDirectory, this::onModsDirectoryChanged);
     } catch (IOException e) {
       logger.warn("Could not start mod directory watcher", e);
       // TODO notify user
@@ -125,35 +130,33 @@ public class ModService implements InitializingBean, DisposableBean {
     loadInstalledMods();
   }
 
-  private Thread startDirectoryWatcher(Path modsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      WatchService watcher = modsDirectory.getFileSystem().newWatchService();
-      modsDirectory.register(watcher, ENTRY_DELETE);
+  /**
+   * Updates the installed mods with mod directories that have been added, changed or removed, no matter whether by
+   * this client or externally.
+   */
+  @VisibleForTesting
+  void onModsDirectoryChanged(DirectoryChanges changes) {
+    changes.getRemovedPaths().forEach(this::removeMod);
+    changes.getChangedPaths().forEach(this::removeMod);
 
-      try {
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE)
-              .forEach(event -> removeMod(modsDirectory.resolve((Path) event.context())));
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        logger.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.start();
-    return thread;
+    Stream.concat(changes.getAddedPaths().stream(), changes.getChangedPaths().stream())
+        .filter(Files::isDirectory)
+        .forEach(this::addMod);
   }
 
   public void loadInstalledMods() {
+    List<Path> modDirectories = new ArrayList<>();
     try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(modsDirectory, entry -> Files.isDirectory(entry))) {
-      for (Path path : directoryStream) {
-        addMod(path);
-      }
+      directoryStream.forEach(modDirectories::add);
     } catch (IOException e) {
       logger.warn("Mods could not be read from: " + modsDirectory, e);
+      return;
     }
+
+    Map<Path, ModVersion> modVersionsByPath = new ConcurrentHashMap<>();
+    modDirectories.parallelStream()
+        .forEach(path -> readMod(path).ifPresent(modVersion -> modVersionsByPath.put(path, modVersion)));
+    addMods(modVersionsByPath);
   }
 
   public ObservableList<ModVersion> getInstalledModVersions() {
@@ -185,7 +188,13 @@ public class ModService implements InitializingBean, DisposableBean {
     }
 
     return taskService.submitTask(task).getFuture()
-        .thenRun(this::loadInstalledMods);
+        .thenAccept(modDirectory -> {
+          if (modDirectory != null) {
+            addMod(modDirectory);
+          } else {
+            loadInstalledMods();
+          }
+        });
   }
 
   public CompletableFuture<Void> downloadAndInstallMod(ModVersion modVersion, @Nullable DoubleProperty progressProperty, StringProperty titleProperty) {
@@ -193,9 +202,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Set<String> getInstalledModUids() {
-    return getInstalledModVersions().stream()
-        .map(ModVersion::getUid)
-        .collect(Collectors.toSet());
+    return Set.copyOf(modPathsByUid.keySet());
   }
 
   public Set<String> getInstalledUiModsUids() {
@@ -226,7 +233,7 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public boolean isModInstalled(String uid) {
-    return getInstalledModUids().contains(uid);
+    return uid != null && modPathsByUid.containsKey(uid);
   }
 
   public CompletableFuture<Void> uninstallMod(ModVersion modVersion) {
@@ -236,10 +243,8 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Path getPathForMod(ModVersion modVersionToFind) {
-    return pathToMod.entrySet().stream()
-        .filter(pathModEntry -> pathModEntry.getValue().getUid().equals(modVersionToFind.getUid()))
-        .findFirst()
-        .map(Entry::getKey)
+    return Optional.ofNullable(modVersionToFind.getUid())
+        .map(modPathsByUid::get)
         .orElse(null);
   }
 
@@ -404,28 +409,84 @@ public class ModService implements InitializingBean, DisposableBean {
 
   private void removeMod(Path path) {
     logger.debug("Removing mod: {}", path);
-    installedModVersions.remove(pathToMod.remove(path));
+    synchronized (pathToMod) {
+      ModVersion modVersion = pathToMod.remove(path);
+      if (modVersion != null) {
+        removeFromIndex(modVersion, path);
+      }
+    }
+  }
+
+  /**
+   * Removes the specified mod from the uid index if it's indexed with the specified path. If another directory
+   * contains a mod with the same uid, that directory is indexed instead and the mod stays installed.
+   */
+  private void removeFromIndex(ModVersion modVersion, Path path) {
+    String uid = modVersion.getUid();
+    if (!modPathsByUid.remove(uid, path)) {
+      return;
+    }
+    pathToMod.entrySet().stream()
+        .filter(pathModEntry -> uid.equals(pathModEntry.getValue().getUid()))
+        .findFirst()
+        .ifPresentOrElse(
+            pathModEntry -> modPathsByUid.put(uid, pathModEntry.getKey()),
+            () -> installedModVersions.remove(modVersion)
+        );
   }
 
   private void addMod(Path path) {
+    readMod(path).ifPresent(modVersion -> addMods(Map.of(path, modVersion)));
+  }
+
+  /**
+   * Adds the specified mods to the installed mods at once. Mods whose uid is already installed replace the indexed
+   * directory but not the installed mod version.
+   */
+  private void addMods(Map<Path, ModVersion> modVersionsByPath) {
+    synchronized (pathToMod) {
+      List<ModVersion> newModVersions = new ArrayList<>();
+      modVersionsByPath.forEach((path, modVersion) -> {
+        ModVersion previousModVersion = pathToMod.put(path, modVersion);
+        if (previousModVersion != null && !previousModVersion.getUid().equals(modVersion.getUid())) {
+          removeFromIndex(previousModVersion, path);
+        }
+        if (modPathsByUid.put(modVersion.getUid(), path) == null) {
+          newModVersions.add(modVersion);
+        }
+      });
+      installedModVersions.addAll(newModVersions);
+    }
+  }
+
+  private void clearMods() {
+    synchronized (pathToMod) {
+      pathToMod.clear();
+      modPathsByUid.clear();
+      installedModVersions.clear();
+    }
+  }
+
+  private Optional<ModVersion> readMod(Path path) {
     logger.debug("Adding mod: {}", path);
     try {
       ModVersion modVersion = extractModInfo(path);
-      pathToMod.put(path, modVersion);
-      if (!installedModVersions.contains(modVersion)) {
-        installedModVersions.add(modVersion);
+      if (modVersion.getUid() == null) {
+        throw new ModLoadException("Missing uid in mod_info.lua of: " + path.toAbsolutePath());
       }
+      return Optional.of(modVersion);
     } catch (ModLoadException e) {
       logger.debug("Corrupt mod: " + path, e);
 
       notificationService.addNotification(new PersistentNotification(i18n.get("corruptedMods.notification", path.getFileName()), WARN, singletonList(
           new Action(i18n.get("corruptedMods.show"), event -> platformService.reveal(path))
       )));
+      return Optional.empty();
     }
   }
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(modsDirectoryWatch).ifPresent(DirectoryWatch::close);
   }
 }
@@ -39,7 +39,7 @@ public class ModUploadTask extends CompletableTask<Void> {
 
   @Inject
   public ModUploadTask(PreferencesService preferencesService, FafService fafService, I18n i18n) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, Category.NETWORK);
 
     this.preferencesService = preferencesService;
     this.fafService = fafService;
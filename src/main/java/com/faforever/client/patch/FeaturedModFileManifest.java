@@ -0,0 +1,126 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.io.PersistentPathIndex;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.hash.HashCode;
+import com.google.gson.Gson;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+/**
+ * Persistent manifest of the MD5 hashes of featured mod files, stored in the cache directory. A hash is only reused as
+ * long as the file's size and last modification time are unchanged, so that only new or changed files need to be
+ * hashed before a game is started.
+ */
+@Lazy
+@Component
+public class FeaturedModFileManifest {
+
+  private static final String MANIFEST_FILE_NAME = "featuredModFileManifest.json";
+  private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+  /**
+   * Files are hashed by the threads of a parallel stream, each of which reuses its buffer for every file it hashes.
+   */
+  private static final ThreadLocal<ByteBuffer> HASH_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
+
+  private final PersistentPathIndex<Entry> index;
+
+  public FeaturedModFileManifest(PreferencesService preferencesService) {
+    index = new PersistentPathIndex<>(() -> preferencesService.getCacheDirectory().resolve(MANIFEST_FILE_NAME),
+        "featured mod file manifest", new Gson(), Entry[].class, entry -> entry.getMd5() != null);
+  }
+
+  /**
+   * Returns the MD5 hash of the specified file as lower case hex string. The file is only read if it has changed since
+   * it was last hashed. This method may be called by multiple threads in parallel.
+   */
+  public String getMd5(Path file) throws IOException {
+    Path key = file.toAbsolutePath();
+    BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+    long size = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+
+    Optional<String> knownMd5 = index.get(key)
+        .filter(entry -> entry.getSize() == size && entry.getLastModified() == lastModified)
+        .map(Entry::getMd5);
+    if (knownMd5.isPresent()) {
+      return knownMd5.get();
+    }
+    return putMd5(key, size, lastModified, hash(key));
+  }
+
+  /**
+   * Records the already known MD5 hash of the specified file, e.g. of a downloaded file that has been verified, so that
+   * it doesn't need to be read on the next update.
+   */
+  public void putMd5(Path file, String md5) throws IOException {
+    Path key = file.toAbsolutePath();
+    BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+    putMd5(key, attributes.size(), attributes.lastModifiedTime().toMillis(), md5);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Writes the manifest to disk, if it has been modified since it was last read or written.
+   */
+  public void store() {
+    index.store();
+  }
+
+  private String putMd5(Path key, long size, long lastModified, String md5) {
+    index.put(new Entry(key.toString(), size, lastModified, md5));
+    return md5;
+  }
+
+  /**
+   * Reads the file through a direct buffer rather than memory-mapping it. A mapped file can't be replaced on Windows
+   * until the mapping has been garbage collected, which would break updating a file right after it has been hashed.
+   */
+  static String hash(Path file) throws IOException {
+    MessageDigest messageDigest;
+    try {
+      messageDigest = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not supported", e);
+    }
+
+    ByteBuffer buffer = HASH_BUFFER.get();
+    buffer.clear();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        messageDigest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return HashCode.fromBytes(messageDigest.digest()).toString();
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class Entry implements PersistentPathIndex.Entry {
+    private String path;
+    private long size;
+    private long lastModified;
+    private String md5;
+  }
+}
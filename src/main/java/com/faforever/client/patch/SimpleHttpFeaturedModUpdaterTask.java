@@ -8,7 +8,6 @@ import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.util.UpdaterUtil;
-import com.google.common.hash.Hashing;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +16,15 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -33,17 +36,20 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
   private final PreferencesService preferencesService;
   private final DownloadService downloadService;
   private final I18n i18n;
+  private final FeaturedModFileManifest featuredModFileManifest;
 
   private FeaturedMod featuredMod;
   private Integer version;
 
-  public SimpleHttpFeaturedModUpdaterTask(FafService fafService, PreferencesService preferencesService, DownloadService downloadService, I18n i18n) {
-    super(Priority.HIGH);
+  public SimpleHttpFeaturedModUpdaterTask(FafService fafService, PreferencesService preferencesService, DownloadService downloadService, I18n i18n,
+                                          FeaturedModFileManifest featuredModFileManifest) {
+    super(Priority.HIGH, Category.NETWORK);
 
     this.fafService = fafService;
     this.preferencesService = preferencesService;
     this.downloadService = downloadService;
     this.i18n = i18n;
+    this.featuredModFileManifest = featuredModFileManifest;
   }
 
   @Override
@@ -54,23 +60,20 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
     updateMessage(i18n.get("updater.readingFileList"));
 
     List<FeaturedModFile> featuredModFiles = fafService.getFeaturedModFiles(featuredMod, version).get();
+    Path fafDataDirectory = preferencesService.getFafDataDirectory();
+    Map<FeaturedModFile, String> md5sOfExistingFiles = hashExistingFiles(featuredModFiles, fafDataDirectory);
 
     Path initFile = null;
     for (FeaturedModFile featuredModFile : featuredModFiles) {
-      Path fafDataDirectory = preferencesService.getFafDataDirectory();
-      Path targetPath = fafDataDirectory
-          .resolve(featuredModFile.getGroup())
-          .resolve(featuredModFile.getName());
+      Path targetPath = getTargetPath(featuredModFile, fafDataDirectory);
 
-      if (Files.exists(targetPath)
-          && featuredModFile.getMd5().equals(com.google.common.io.Files.hash(targetPath.toFile(), Hashing.md5()).toString())) {
+      if (featuredModFile.getMd5().equals(md5sOfExistingFiles.get(featuredModFile))) {
         logger.debug("Already up to date: {}", targetPath);
       } else {
         Files.createDirectories(targetPath.getParent());
         updateMessage(i18n.get("updater.downloadingFile", targetPath.getFileName()));
 
-        String url = featuredModFile.getUrl();
-        downloadService.downloadFile(new URL(url), targetPath, this::updateProgress);
+        download(featuredModFile, targetPath);
         UpdaterUtil.extractMoviesIfPresent(targetPath, fafDataDirectory);
       }
 
@@ -80,6 +83,7 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
       }
     }
 
+    featuredModFileManifest.store();
     Assert.isTrue(initFile != null && Files.exists(initFile), "'" + initFileName + "' could be found.");
 
     int maxVersion = featuredModFiles.stream()
@@ -90,6 +94,51 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
     return PatchResult.withLegacyInitFile(new ComparableVersion(String.valueOf(maxVersion)), initFile);
   }
 
+  /**
+   * Downloads the file next to the target path and only replaces the target file if the download has the expected MD5
+   * hash, which is then recorded in the {@link FeaturedModFileManifest} so that the file isn't read again.
+   */
+  private void download(FeaturedModFile featuredModFile, Path targetPath) throws IOException {
+    Path downloadedFile = Files.createTempFile(targetPath.getParent(), targetPath.getFileName().toString(), null);
+    try {
+      downloadService.downloadFile(new URL(featuredModFile.getUrl()), downloadedFile, this::updateProgress);
+
+      String md5 = FeaturedModFileManifest.hash(downloadedFile);
+      if (!featuredModFile.getMd5().equals(md5)) {
+        throw new IOException("Downloaded file '" + targetPath + "' has MD5 " + md5 + " instead of " + featuredModFile.getMd5());
+      }
+      Files.move(downloadedFile, targetPath, StandardCopyOption.REPLACE_EXISTING);
+      featuredModFileManifest.putMd5(targetPath, md5);
+    } finally {
+      Files.deleteIfExists(downloadedFile);
+    }
+  }
+
+  /**
+   * Hashes the files that already exist in parallel. Files that haven't changed since they were last hashed aren't
+   * read again, their hash is taken from the {@link FeaturedModFileManifest}.
+   */
+  private Map<FeaturedModFile, String> hashExistingFiles(List<FeaturedModFile> featuredModFiles, Path fafDataDirectory) {
+    Map<FeaturedModFile, String> md5sByFile = new ConcurrentHashMap<>();
+    featuredModFiles.parallelStream()
+        .filter(featuredModFile -> Files.exists(getTargetPath(featuredModFile, fafDataDirectory)))
+        .forEach(featuredModFile -> {
+          Path targetPath = getTargetPath(featuredModFile, fafDataDirectory);
+          try {
+            md5sByFile.put(featuredModFile, featuredModFileManifest.getMd5(targetPath));
+          } catch (IOException e) {
+            logger.warn("Could not hash file, it will be downloaded again: {}", targetPath, e);
+          }
+        });
+    return md5sByFile;
+  }
+
+  private static Path getTargetPath(FeaturedModFile featuredModFile, Path fafDataDirectory) {
+    return fafDataDirectory
+        .resolve(featuredModFile.getGroup())
+        .resolve(featuredModFile.getName());
+  }
+
   public void setFeaturedMod(FeaturedMod featuredMod) {
     this.featuredMod = featuredMod;
   }
@@ -16,6 +16,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Displays a notification whenever a friend comes online (if enabled in settings).
  */
@@ -36,29 +39,36 @@ public class FriendOnlineNotifier implements InitializingBean {
   }
 
   @Subscribe
-  public void onUserOnline(PlayerOnlineEvent event) {
+  public void onPlayersOnline(PlayersOnlineEvent event) {
     NotificationsPrefs notification = preferencesService.getPreferences().getNotification();
-    Player player = event.getPlayer();
+    List<Player> friends = event.getPlayers().stream()
+        .filter(player -> player.getSocialStatus() == SocialStatus.FRIEND)
+        .collect(Collectors.toList());
 
-    if (player.getSocialStatus() != SocialStatus.FRIEND) {
+    if (friends.isEmpty()) {
       return;
     }
 
+    // Friends that come online at the same time are announced with a single sound
     if (notification.isFriendOnlineSoundEnabled()) {
       audioService.playFriendOnlineSound();
     }
 
     if (notification.isFriendOnlineToastEnabled()) {
-      notificationService.addNotification(
-          new TransientNotification(
-              i18n.get("friend.nowOnlineNotification.title", player.getUsername()),
-              i18n.get("friend.nowOnlineNotification.action"),
-              IdenticonUtil.createIdenticon(player.getId()),
-              actionEvent -> {
-                eventBus.post(new NavigateEvent(NavigationItem.CHAT));
-                eventBus.post(new InitiatePrivateChatEvent(player.getUsername()));
-              }
-          ));
+      friends.forEach(this::addFriendOnlineNotification);
     }
   }
+
+  private void addFriendOnlineNotification(Player player) {
+    notificationService.addNotification(
+        new TransientNotification(
+            i18n.get("friend.nowOnlineNotification.title", player.getUsername()),
+            i18n.get("friend.nowOnlineNotification.action"),
+            IdenticonUtil.createIdenticon(player.getId()),
+            actionEvent -> {
+              eventBus.post(new NavigateEvent(NavigationItem.CHAT));
+              eventBus.post(new InitiatePrivateChatEvent(player.getUsername()));
+            }
+        ));
+  }
 }
@@ -13,6 +13,7 @@ import com.faforever.client.game.GameUpdatedEvent;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.player.event.CurrentPlayerInfo;
 import com.faforever.client.player.event.FriendJoinedGameEvent;
+import com.faforever.client.net.ConnectionState;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.remote.domain.GameStatus;
 import com.faforever.client.remote.domain.PlayersMessage;
@@ -20,31 +21,38 @@ import com.faforever.client.remote.domain.SocialMessage;
 import com.faforever.client.user.UserService;
 import com.faforever.client.user.event.LoginSuccessEvent;
 import com.faforever.client.util.Assert;
+import com.faforever.client.util.IntHashSet;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.faforever.client.player.SocialStatus.FOE;
@@ -56,28 +64,49 @@ import static com.faforever.client.player.SocialStatus.SELF;
 @Slf4j
 public class PlayerService implements InitializingBean {
 
-  private final ObservableMap<String, Player> playersByName;
-  private final ObservableMap<Integer, Player> playersById;
-  private final List<Integer> foeList;
-  private final List<Integer> friendList;
+  /**
+   * How long players that went offline are kept before they are evicted, so that players that only reconnect keep
+   * their state.
+   */
+  private static final Duration OFFLINE_PLAYER_RETENTION = Duration.ofMinutes(5);
+
+  private final Map<String, Player> playersByName;
+  private final Map<Integer, Player> playersById;
+  /** When known players were last seen going offline, by username. Cleared as soon as they are seen online again. */
+  private final Map<String, Instant> offlineSince;
+  /** IDs of foes and friends, looked up for every player info received. Guarded by {@link #socialIdsLock}. */
+  private final IntHashSet foeIds;
+  private final IntHashSet friendIds;
+  private final Object socialIdsLock;
   private final ObjectProperty<Player> currentPlayer;
 
   private final FafService fafService;
   private final UserService userService;
   private final EventBus eventBus;
-  private final HashMap<Integer, List<Player>> playersByGame;
+  /** The players in each game by username, by game ID. Guarded by itself, as is {@link #gameIdsByUsername}. */
+  private final Map<Integer, Map<String, Player>> playersByGame;
+  /** The ID of the game each player is in, by username. */
+  private final Map<String, Integer> gameIdsByUsername;
+  private final AtomicLong evictedPlayers;
+  private final Map<String, com.faforever.client.remote.domain.Player> pendingPlayerInfos;
+  private boolean playerInfosScheduled;
 
   public PlayerService(FafService fafService, UserService userService, EventBus eventBus) {
     this.fafService = fafService;
     this.userService = userService;
     this.eventBus = eventBus;
 
-    playersByName = FXCollections.observableMap(new ConcurrentHashMap<>());
-    playersById = FXCollections.observableHashMap();
-    friendList = new ArrayList<>();
-    foeList = new ArrayList<>();
+    playersByName = new ConcurrentHashMap<>();
+    playersById = new ConcurrentHashMap<>();
+    offlineSince = new ConcurrentHashMap<>();
+    friendIds = new IntHashSet();
+    foeIds = new IntHashSet();
+    socialIdsLock = new Object();
     currentPlayer = new SimpleObjectProperty<>();
     playersByGame = new HashMap<>();
+    gameIdsByUsername = new HashMap<>();
+    evictedPlayers = new AtomicLong();
+    pendingPlayerInfos = new LinkedHashMap<>();
   }
 
   @Override
@@ -85,6 +114,41 @@ public class PlayerService implements InitializingBean {
     eventBus.register(this);
     fafService.addOnMessageListener(PlayersMessage.class, this::onPlayersInfo);
     fafService.addOnMessageListener(SocialMessage.class, this::onFoeList);
+
+    JavaFxUtil.addListener(
+        fafService.connectionStateProperty(),
+        (observable, oldValue, newValue) -> {
+          if (newValue == ConnectionState.DISCONNECTED) {
+            onDisconnected();
+          }
+        }
+    );
+  }
+
+  /**
+   * Games are discarded when the connection to the server is lost and added again after reconnecting, and so are the
+   * players that are online. Players that aren't announced again after reconnecting are therefore considered offline.
+   */
+  private void onDisconnected() {
+    synchronized (pendingPlayerInfos) {
+      pendingPlayerInfos.clear();
+    }
+
+    List<Player> playersInGames;
+    synchronized (playersByGame) {
+      playersInGames = playersByGame.values().stream()
+          .flatMap(players -> players.values().stream())
+          .collect(Collectors.toList());
+      playersByGame.clear();
+      gameIdsByUsername.clear();
+    }
+    playersInGames.forEach(player -> player.setGame(null));
+
+    Instant now = Instant.now();
+    Player current = currentPlayer.get();
+    playersByName.keySet().stream()
+        .filter(username -> current == null || !username.equals(current.getUsername()))
+        .forEach(username -> offlineSince.putIfAbsent(username, now));
   }
 
   @Subscribe
@@ -100,22 +164,35 @@ public class PlayerService implements InitializingBean {
   @Subscribe
   public void onGameRemoved(GameRemovedEvent event) {
     Game game = event.getGame();
-    ObservableMap<String, List<String>> teams = game.getTeams();
-    synchronized (teams) {
-      List<String> playersInGame = teams.entrySet().stream()
-          .flatMap(stringListEntry -> stringListEntry.getValue().stream())
-          .collect(Collectors.toList());
-      updateGamePlayers(playersInGame, null);
-    }
+    getUsernamesInGame(game).forEach(username -> getPlayerForUsername(username).ifPresent(this::resetIdleTime));
+    removeGamePlayers(game.getId());
   }
 
   private void updateGameForPlayersInGame(Game game) {
+    Set<String> usernames = getUsernamesInGame(game);
+    usernames.forEach(username -> getPlayerForUsername(username).ifPresent(this::resetIdleTime));
+
+    if (game.getStatus() == GameStatus.CLOSED) {
+      removeGamePlayers(game.getId());
+    } else {
+      updateGamePlayers(game, usernames);
+    }
+  }
+
+  private Set<String> getUsernamesInGame(Game game) {
     ObservableMap<String, List<String>> teams = game.getTeams();
     synchronized (teams) {
-      List<String> playersInGame = teams.entrySet().stream()
-          .flatMap(stringListEntry -> stringListEntry.getValue().stream())
-          .collect(Collectors.toList());
-      updateGamePlayers(playersInGame, game);
+      return teams.values().stream()
+          .flatMap(Collection::stream)
+          .collect(Collectors.toSet());
+    }
+  }
+
+  @Subscribe
+  public void onUserOffline(UserOfflineEvent event) {
+    // Players are evicted some time later, so that other subscribers of this event can still look them up
+    if (playersByName.containsKey(event.getUsername())) {
+      offlineSince.putIfAbsent(event.getUsername(), Instant.now());
     }
   }
 
@@ -150,49 +227,49 @@ public class PlayerService implements InitializingBean {
     Optional.ofNullable(playerForUsername).ifPresent(player -> player.setIdleSince(Instant.now()));
   }
 
-  private void updateGamePlayers(List<String> currentPlayers, Game game) {
-    currentPlayers.stream()
-        .map(this::getPlayerForUsername)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .forEach(player -> {
-          resetIdleTime(player);
-          updateGameDataForPlayer(game, player);
-        });
-
-    //We need to see if anybody dropped out of games
-    if (game != null && game.getStatus() != GameStatus.CLOSED && playersByGame.get(game.getId()) != null) {
-      List<Player> playersThatLeftTheGame = new ArrayList<>();
-      List<Player> previousPlayersFromGame = playersByGame.get(game.getId());
-      for (Player player : previousPlayersFromGame) {
-        if (!currentPlayers.contains(player.getUsername())) {
-          player.setGame(null);
-          playersThatLeftTheGame.add(player);
+  /**
+   * Updates the index of which player is in which game to the specified players of a game, and sets the game of the
+   * players that joined or left it.
+   */
+  private void updateGamePlayers(Game game, Set<String> usernames) {
+    int gameId = game.getId();
+    List<Player> playersThatLeftTheGame = new ArrayList<>();
+    List<Player> playersThatJoinedTheGame = new ArrayList<>();
+
+    synchronized (playersByGame) {
+      Map<String, Player> previousPlayers = playersByGame.computeIfAbsent(gameId, id -> new HashMap<>());
+
+      Iterator<Map.Entry<String, Player>> iterator = previousPlayers.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, Player> entry = iterator.next();
+        if (!usernames.contains(entry.getKey())) {
+          iterator.remove();
+          if (gameIdsByUsername.remove(entry.getKey(), gameId)) {
+            playersThatLeftTheGame.add(entry.getValue());
+          }
         }
       }
-      previousPlayersFromGame.removeAll(playersThatLeftTheGame);
-    }
-  }
 
-  private void updateGameDataForPlayer(Game game, Player player) {
-    if (game == null) {
-      player.setGame(null);
-      return;
-    }
-
-    if (game.getStatus() == GameStatus.CLOSED) {
-      playersByGame.remove(game.getId());
-      player.setGame(null);
-      return;
-    }
+      for (String username : usernames) {
+        Player player = playersByName.get(username);
+        if (player == null || previousPlayers.putIfAbsent(username, player) != null) {
+          continue;
+        }
+        Integer previousGameId = gameIdsByUsername.put(username, gameId);
+        if (previousGameId != null && previousGameId != gameId) {
+          removeFromGame(previousGameId, username);
+        }
+        playersThatJoinedTheGame.add(player);
+      }
 
-    if (!playersByGame.containsKey(game.getId())) {
-      playersByGame.put(game.getId(), new ArrayList<>());
+      if (previousPlayers.isEmpty()) {
+        playersByGame.remove(gameId);
+      }
     }
 
-    if (!playersByGame.get(game.getId()).contains(player)) {
+    playersThatLeftTheGame.forEach(player -> player.setGame(null));
+    for (Player player : playersThatJoinedTheGame) {
       player.setGame(game);
-      playersByGame.get(game.getId()).add(player);
       if (player.getSocialStatus() == FRIEND
           && game.getStatus() == GameStatus.OPEN
           && !game.getFeaturedMod().equals(KnownFeaturedMod.LADDER_1V1.getTechnicalName())) {
@@ -201,15 +278,100 @@ public class PlayerService implements InitializingBean {
     }
   }
 
+  private void removeGamePlayers(int gameId) {
+    List<Player> playersThatLeftTheGame = new ArrayList<>();
+    synchronized (playersByGame) {
+      Map<String, Player> players = playersByGame.remove(gameId);
+      if (players == null) {
+        return;
+      }
+      players.forEach((username, player) -> {
+        if (gameIdsByUsername.remove(username, gameId)) {
+          playersThatLeftTheGame.add(player);
+        }
+      });
+    }
+    playersThatLeftTheGame.forEach(player -> player.setGame(null));
+  }
+
+  private void removeFromGame(int gameId, String username) {
+    Map<String, Player> players = playersByGame.get(gameId);
+    if (players == null) {
+      return;
+    }
+    players.remove(username);
+    if (players.isEmpty()) {
+      playersByGame.remove(gameId);
+    }
+  }
+
+  /**
+   * Evicts the players that have been offline for a while, unless they are still known to be in a game or in a chat
+   * channel. A player is considered offline when leaving the default chat channel, but may still be logged in and in
+   * other channels or private chats whose chat users refer to the player.
+   */
+  @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+  public void evictOfflinePlayers() {
+    // Player infos are applied on the application thread, so evicting there can't drop a player that just came online
+    Instant offlineBefore = Instant.now().minus(OFFLINE_PLAYER_RETENTION);
+    Platform.runLater(() -> evictPlayersOfflineSince(offlineBefore));
+  }
+
+  void evictPlayersOfflineSince(Instant offlineBefore) {
+    int evicted = 0;
+    for (Map.Entry<String, Instant> entry : offlineSince.entrySet()) {
+      String username = entry.getKey();
+      if (entry.getValue().isAfter(offlineBefore) || isInGame(username)) {
+        continue;
+      }
+      Player player = playersByName.get(username);
+      if (player != null && !player.getChatChannelUsers().isEmpty()) {
+        continue;
+      }
+      offlineSince.remove(username, entry.getValue());
+
+      if (player == null || player == currentPlayer.get()) {
+        continue;
+      }
+      playersByName.remove(username, player);
+      playersById.remove(player.getId(), player);
+      evicted++;
+    }
+
+    if (evicted > 0) {
+      evictedPlayers.addAndGet(evicted);
+      log.debug("Evicted {} offline players, {}", evicted, getStatistics());
+    }
+  }
+
+  private boolean isInGame(String username) {
+    synchronized (playersByGame) {
+      return gameIdsByUsername.containsKey(username);
+    }
+  }
+
+  public PlayerStatistics getStatistics() {
+    int gamesWithPlayers;
+    int playersInGames;
+    synchronized (playersByGame) {
+      gamesWithPlayers = playersByGame.size();
+      playersInGames = gameIdsByUsername.size();
+    }
+    return new PlayerStatistics(playersByName.size(), playersById.size(), offlineSince.size(), gamesWithPlayers,
+        playersInGames, evictedPlayers.get());
+  }
 
   public boolean isOnline(Integer playerId) {
-    return playersById.containsKey(playerId);
+    return playerId != null && playersById.containsKey(playerId);
   }
 
   /**
    * Returns the PlayerInfoBean for the specified username. Returns null if no such player is known.
    */
   public Optional<Player> getPlayerForUsername(@Nullable String username) {
+    if (username == null) {
+      return Optional.empty();
+    }
     return Optional.ofNullable(playersByName.get(username));
   }
 
@@ -219,20 +381,14 @@ public class PlayerService implements InitializingBean {
   Player createAndGetPlayerForUsername(@NotNull String username) {
     Assert.checkNullArgument(username, "username must not be null");
 
-    synchronized (playersByName) {
-      if (!playersByName.containsKey(username)) {
-        Player player = new Player(username);
-        JavaFxUtil.addListener(player.idProperty(), (observable, oldValue, newValue) -> {
-          synchronized (playersById) {
-            playersById.remove(oldValue.intValue());
-            playersById.put(newValue.intValue(), player);
-          }
-        });
-        playersByName.put(username, player);
-      }
-    }
-
-    return playersByName.get(username);
+    return playersByName.computeIfAbsent(username, name -> {
+      Player player = new Player(name);
+      JavaFxUtil.addListener(player.idProperty(), (observable, oldValue, newValue) -> {
+        playersById.remove(oldValue.intValue(), player);
+        playersById.put(newValue.intValue(), player);
+      });
+      return player;
+    });
   }
 
   public Set<String> getPlayerNames() {
@@ -241,30 +397,38 @@ public class PlayerService implements InitializingBean {
 
   public void addFriend(Player player) {
     playersByName.get(player.getUsername()).setSocialStatus(FRIEND);
-    friendList.add(player.getId());
-    foeList.remove((Integer) player.getId());
+    synchronized (socialIdsLock) {
+      friendIds.add(player.getId());
+      foeIds.remove(player.getId());
+    }
 
     fafService.addFriend(player);
   }
 
   public void removeFriend(Player player) {
     playersByName.get(player.getUsername()).setSocialStatus(OTHER);
-    friendList.remove((Integer) player.getId());
+    synchronized (socialIdsLock) {
+      friendIds.remove(player.getId());
+    }
 
     fafService.removeFriend(player);
   }
 
   public void addFoe(Player player) {
     playersByName.get(player.getUsername()).setSocialStatus(FOE);
-    foeList.add(player.getId());
-    friendList.remove((Integer) player.getId());
+    synchronized (socialIdsLock) {
+      foeIds.add(player.getId());
+      friendIds.remove(player.getId());
+    }
 
     fafService.addFoe(player);
   }
 
   public void removeFoe(Player player) {
     playersByName.get(player.getUsername()).setSocialStatus(OTHER);
-    foeList.remove((Integer) player.getId());
+    synchronized (socialIdsLock) {
+      foeIds.remove(player.getId());
+    }
 
     fafService.removeFoe(player);
   }
@@ -284,6 +448,7 @@ public class PlayerService implements InitializingBean {
   @Subscribe
   public void onChatUserCreated(ChatUserCreatedEvent event) {
     ChatChannelUser chatChannelUser = event.getChatChannelUser();
+    offlineSince.remove(chatChannelUser.getUsername());
     Optional.ofNullable(playersByName.get(chatChannelUser.getUsername()))
         .ifPresent(player -> Platform.runLater(() -> {
           chatChannelUser.setPlayer(player);
@@ -291,8 +456,65 @@ public class PlayerService implements InitializingBean {
         }));
   }
 
+  /**
+   * Queues the received player infos to be applied on the application thread. All player infos that arrive until the
+   * application thread gets to apply them are applied at once, which keeps the application responsive while the info
+   * of thousands of players is received after login.
+   */
   private void onPlayersInfo(PlayersMessage playersMessage) {
-    playersMessage.getPlayers().forEach(dto -> JavaFxUtil.assureRunOnMainThread(() -> onPlayerInfo(dto)));
+    boolean scheduleUpdate;
+    synchronized (pendingPlayerInfos) {
+      playersMessage.getPlayers().forEach(dto -> pendingPlayerInfos.put(dto.getLogin(), dto));
+      scheduleUpdate = !playerInfosScheduled;
+      playerInfosScheduled = true;
+    }
+
+    if (scheduleUpdate) {
+      Platform.runLater(this::applyPendingPlayerInfos);
+    }
+  }
+
+  private void applyPendingPlayerInfos() {
+    JavaFxUtil.assertApplicationThread();
+
+    List<com.faforever.client.remote.domain.Player> dtos;
+    synchronized (pendingPlayerInfos) {
+      dtos = new ArrayList<>(pendingPlayerInfos.values());
+      pendingPlayerInfos.clear();
+      playerInfosScheduled = false;
+    }
+
+    List<SocialStatus> socialStatuses = new ArrayList<>(dtos.size());
+    synchronized (socialIdsLock) {
+      for (com.faforever.client.remote.domain.Player dto : dtos) {
+        socialStatuses.add(getSocialStatus(dto.getId()));
+      }
+    }
+
+    String currentUsername = userService.getUsername();
+    List<Player> onlinePlayers = new ArrayList<>(dtos.size());
+    for (int i = 0; i < dtos.size(); i++) {
+      com.faforever.client.remote.domain.Player dto = dtos.get(i);
+      if (dto.getLogin().equalsIgnoreCase(currentUsername)) {
+        onCurrentPlayerInfo(dto);
+      } else {
+        onlinePlayers.add(onPlayerInfo(dto, socialStatuses.get(i)));
+      }
+    }
+
+    if (!onlinePlayers.isEmpty()) {
+      eventBus.post(new PlayersOnlineEvent(onlinePlayers));
+    }
+  }
+
+  private SocialStatus getSocialStatus(int playerId) {
+    if (friendIds.contains(playerId)) {
+      return FRIEND;
+    }
+    if (foeIds.contains(playerId)) {
+      return FOE;
+    }
+    return OTHER;
   }
 
   private void onFoeList(SocialMessage socialMessage) {
@@ -301,47 +523,49 @@ public class PlayerService implements InitializingBean {
   }
 
   private void onFoeList(List<Integer> foes) {
-    updateSocialList(foeList, foes, FOE);
+    updateSocialList(foeIds, foes, FOE);
   }
 
   private void onFriendList(List<Integer> friends) {
-    updateSocialList(friendList, friends, FRIEND);
+    updateSocialList(friendIds, friends, FRIEND);
   }
 
-  private void updateSocialList(List<Integer> socialList, List<Integer> newValues, SocialStatus socialStatus) {
-    socialList.clear();
-    socialList.addAll(newValues);
+  private void updateSocialList(IntHashSet socialIds, List<Integer> newValues, SocialStatus socialStatus) {
+    synchronized (socialIdsLock) {
+      socialIds.clear();
+      socialIds.addAll(newValues);
+    }
 
-    synchronized (playersById) {
-      for (Integer userId : socialList) {
-        Player player = playersById.get(userId);
-        if (player != null) {
-          player.setSocialStatus(socialStatus);
-        }
+    for (Integer userId : newValues) {
+      Player player = playersById.get(userId);
+      if (player != null) {
+        player.setSocialStatus(socialStatus);
       }
     }
   }
 
-  private void onPlayerInfo(com.faforever.client.remote.domain.Player dto) {
-    if (dto.getLogin().equalsIgnoreCase(userService.getUsername())) {
-      Player player = getCurrentPlayer().orElseThrow(() -> new IllegalStateException("Player has not been set"));
-      player.updateFromDto(dto);
-      player.setSocialStatus(SELF);
-      eventBus.post(new CurrentPlayerInfo(player));
-    } else {
-      Player player = createAndGetPlayerForUsername(dto.getLogin());
-
-      if (friendList.contains(dto.getId())) {
-        player.setSocialStatus(FRIEND);
-      } else if (foeList.contains(dto.getId())) {
-        player.setSocialStatus(FOE);
-      } else {
-        player.setSocialStatus(OTHER);
-      }
+  private void onCurrentPlayerInfo(com.faforever.client.remote.domain.Player dto) {
+    Player player = getCurrentPlayer().orElseThrow(() -> new IllegalStateException("Player has not been set"));
+    player.updateFromDto(dto);
+    player.setSocialStatus(SELF);
+    eventBus.post(new CurrentPlayerInfo(player));
+  }
 
-      player.updateFromDto(dto);
+  private Player onPlayerInfo(com.faforever.client.remote.domain.Player dto, SocialStatus socialStatus) {
+    offlineSince.remove(dto.getLogin());
+    Player player = createAndGetPlayerForUsername(dto.getLogin());
+    player.setSocialStatus(socialStatus);
+    player.updateFromDto(dto);
+    return player;
+  }
 
-      eventBus.post(new PlayerOnlineEvent(player));
-    }
+  @Value
+  public static class PlayerStatistics {
+    int knownPlayers;
+    int playersWithId;
+    int offlinePlayers;
+    int gamesWithPlayers;
+    int playersInGames;
+    long evictedPlayers;
   }
 }
@@ -0,0 +1,14 @@
+package com.faforever.client.player;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Fired on the application thread with all players whose info has been received since the last event. Player info is
+ * applied in batches, so a login posts a handful of these events rather than one per online player.
+ */
+@Value
+public class PlayersOnlineEvent {
+  List<Player> players;
+}
@@ -4,6 +4,7 @@ import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.remote.domain.FafServerMessage;
 import com.faforever.client.remote.io.QDataInputStream;
 import org.apache.commons.compress.utils.IOUtils;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -11,6 +12,7 @@ import org.springframework.beans.factory.DisposableBean;
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.Socket;
 
@@ -31,15 +33,31 @@ public abstract class AbstractServerAccessor implements DisposableBean {
    * {@link FafServerMessage}</li> </ol> I'm not yet happy with those terms, so any suggestions are welcome.
    */
   protected void blockingReadServer(Socket socket) throws IOException {
+    blockingReadServer(socket, null);
+  }
+
+  /**
+   * Like {@link #blockingReadServer(Socket)}, but records the frame of every message with the specified recorder, if
+   * any.
+   */
+  protected void blockingReadServer(Socket socket, @Nullable LobbyTrafficRecorder trafficRecorder) throws IOException {
     JavaFxUtil.assertBackgroundThread();
 
-    dataInput = new QDataInputStream(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+    InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+    if (trafficRecorder != null) {
+      inputStream = trafficRecorder.capture(inputStream);
+    }
+    dataInput = new QDataInputStream(new DataInputStream(inputStream));
     while (!stopped && !socket.isInputShutdown()) {
       dataInput.skipBlockSize();
       String message = dataInput.readQString();
 
       logger.debug("Message from server: {}", message);
 
+      if (trafficRecorder != null) {
+        trafficRecorder.recordFrame();
+      }
+
       try {
         onServerMessage(message);
       } catch (Exception e) {
@@ -50,6 +68,10 @@ public abstract class AbstractServerAccessor implements DisposableBean {
     logger.info("Connection to server {} has been closed", socket.getRemoteSocketAddress());
   }
 
+  /**
+   * Called for every message on the thread that reads from the server. Implementations should return quickly, as no
+   * further messages are read until they do.
+   */
   protected abstract void onServerMessage(String message) throws IOException;
 
   @Override
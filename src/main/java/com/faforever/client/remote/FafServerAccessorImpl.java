@@ -1,7 +1,6 @@
 package com.faforever.client.remote;
 
 import com.faforever.client.FafClientApplication;
-import com.faforever.client.config.CacheNames;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.config.ClientProperties.Server;
 import com.faforever.client.fa.CloseGameEvent;
@@ -24,6 +23,8 @@ import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.rankedmatch.MatchmakerInfoClientMessage;
 import com.faforever.client.rankedmatch.SearchLadder1v1ClientMessage;
 import com.faforever.client.rankedmatch.StopSearchLadder1v1ClientMessage;
+import com.faforever.client.remote.ServerMessageDispatcher.MessageDispatchStatistics;
+import com.faforever.client.remote.ServerRequest.InFlightPolicy;
 import com.faforever.client.remote.domain.AddFoeMessage;
 import com.faforever.client.remote.domain.AddFriendMessage;
 import com.faforever.client.remote.domain.AuthenticationFailedMessage;
@@ -60,6 +61,7 @@ import com.faforever.client.remote.domain.SelectAvatarMessage;
 import com.faforever.client.remote.domain.SerializableMessage;
 import com.faforever.client.remote.domain.ServerCommand;
 import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.ServerMessageType;
 import com.faforever.client.remote.domain.SessionMessage;
 import com.faforever.client.remote.domain.VictoryCondition;
 import com.faforever.client.remote.gson.ClientMessageTypeTypeAdapter;
@@ -70,19 +72,18 @@ import com.faforever.client.remote.gson.GpgServerMessageTypeTypeAdapter;
 import com.faforever.client.remote.gson.LobbyModeTypeAdapter;
 import com.faforever.client.remote.gson.MessageTargetTypeAdapter;
 import com.faforever.client.remote.gson.RatingRangeTypeAdapter;
-import com.faforever.client.remote.gson.ServerMessageTypeAdapter;
+import com.faforever.client.remote.gson.ServerMessageDecoder;
 import com.faforever.client.remote.gson.ServerMessageTypeTypeAdapter;
 import com.faforever.client.remote.gson.VictoryConditionTypeAdapter;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.update.Version;
-import com.github.nocatch.NoCatch;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.EventBus;
 import com.google.common.hash.Hashing;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
@@ -93,7 +94,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.utils.IOUtils;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.TaskScheduler;
@@ -103,9 +103,11 @@ import org.springframework.util.StringUtils;
 
 import javax.security.auth.login.LoginException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
@@ -114,7 +116,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static com.faforever.client.util.ConcurrentUtil.executeInBackground;
@@ -137,12 +138,17 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
       .registerTypeAdapter(FafServerMessageType.class, ServerMessageTypeTypeAdapter.INSTANCE)
       .registerTypeAdapter(GpgServerMessageType.class, GpgServerMessageTypeTypeAdapter.INSTANCE)
       .registerTypeAdapter(MessageTarget.class, MessageTargetTypeAdapter.INSTANCE)
-      .registerTypeAdapter(ServerMessage.class, ServerMessageTypeAdapter.INSTANCE)
       .registerTypeAdapter(RatingRange.class, RatingRangeTypeAdapter.INSTANCE)
       .registerTypeAdapter(Faction.class, FactionTypeAdapter.INSTANCE)
       .registerTypeAdapter(LobbyMode.class, LobbyModeTypeAdapter.INSTANCE)
       .create();
+  private final ServerMessageDecoder serverMessageDecoder = new ServerMessageDecoder(gson);
   private final HashMap<Class<? extends ServerMessage>, Collection<Consumer<ServerMessage>>> messageListeners = new HashMap<>();
+  private final ServerRequest<GameLaunchMessage> gameLaunchRequest = new ServerRequest<>("game launch", InFlightPolicy.REPLACE);
+  /** The game launch request of the current ladder search, if any. */
+  private CompletableFuture<GameLaunchMessage> ladderSearch;
+  private final ServerRequest<List<Avatar>> avatarsRequest = new ServerRequest<>("avatars", InFlightPolicy.SHARE);
+  private final ServerRequest<List<IceServer>> iceServersRequest = new ServerRequest<>("ICE servers", InFlightPolicy.SHARE);
 
   private final PreferencesService preferencesService;
   private final UidService uidService;
@@ -160,21 +166,19 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   private ServerWriter serverWriter;
   private volatile CompletableFuture<LoginMessage> loginFuture;
   private CompletableFuture<SessionMessage> sessionFuture;
-  private CompletableFuture<GameLaunchMessage> gameLaunchFuture;
   private ObjectProperty<Long> sessionId = new SimpleObjectProperty<>();
   private String username;
   private String password;
   private ObjectProperty<ConnectionState> connectionState = new SimpleObjectProperty<>();
   private Socket fafServerSocket;
-  private CompletableFuture<List<Avatar>> avatarsFuture;
-  private CompletableFuture<List<IceServer>> iceServersFuture;
+  private ServerMessageDispatcher serverMessageDispatcher;
 
   private void onAvatarMessage(AvatarMessage avatarMessage) {
-    avatarsFuture.complete(avatarMessage.getAvatarList());
+    avatarsRequest.complete(avatarMessage.getAvatarList());
   }
 
   private void onIceServersMessage(IceServersServerMessage iceServersServerMessage) {
-    iceServersFuture.complete(iceServersServerMessage.getIceServers());
+    iceServersRequest.complete(iceServersServerMessage.getIceServers());
   }
 
   private void onNotice(NoticeMessage noticeMessage) {
@@ -238,7 +242,8 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
 
 
           try (Socket fafServerSocket = new Socket(serverHost, serverPort);
-               OutputStream outputStream = fafServerSocket.getOutputStream()) {
+               OutputStream outputStream = fafServerSocket.getOutputStream();
+               LobbyTrafficRecorder trafficRecorder = createTrafficRecorder(server)) {
             FafServerAccessorImpl.this.fafServerSocket = fafServerSocket;
 
             fafServerSocket.setKeepAlive(true);
@@ -253,9 +258,10 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
             Platform.runLater(() -> connectionState.set(ConnectionState.CONNECTED));
             reconnectTimerService.resetConnectionFailures();
 
-            blockingReadServer(fafServerSocket);
+            blockingReadServer(fafServerSocket, trafficRecorder);
           } catch (IOException e) {
             Platform.runLater(() -> connectionState.set(ConnectionState.DISCONNECTED));
+            cancelServerRequests();
             if (isCancelled()) {
               log.debug("Connection to FAF server has been closed");
             } else {
@@ -311,23 +317,34 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
         newGameInfo.getGameVisibility()
     );
 
-    gameLaunchFuture = new CompletableFuture<>();
-    writeToServer(hostGameMessage);
-    return gameLaunchFuture;
+    return sendGameLaunchRequest(hostGameMessage);
   }
 
   @Override
   public CompletableFuture<GameLaunchMessage> requestJoinGame(int gameId, String password) {
     JoinGameMessage joinGameMessage = new JoinGameMessage(gameId, password);
 
-    gameLaunchFuture = new CompletableFuture<>();
-    writeToServer(joinGameMessage);
-    return gameLaunchFuture;
+    return sendGameLaunchRequest(joinGameMessage);
+  }
+
+  /**
+   * Sends a request to host or join a game, which replaces a ladder search in flight. As the server would keep
+   * searching a match for the player otherwise, the search is stopped first.
+   */
+  private synchronized CompletableFuture<GameLaunchMessage> sendGameLaunchRequest(ClientMessage clientMessage) {
+    if (ladderSearch != null && !ladderSearch.isDone()) {
+      writeToServer(new StopSearchLadder1v1ClientMessage());
+    }
+    ladderSearch = null;
+    return gameLaunchRequest.send(() -> writeToServer(clientMessage), clientProperties.getServer().getResponseTimeout());
   }
 
   @Override
   public void destroy() {
     disconnect();
+    if (serverMessageDispatcher != null) {
+      serverMessageDispatcher.shutdown();
+    }
   }
 
   public void disconnect() {
@@ -358,16 +375,16 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   }
 
   @Override
-  public CompletableFuture<GameLaunchMessage> startSearchLadder1v1(Faction faction) {
-    gameLaunchFuture = new CompletableFuture<>();
-    writeToServer(new SearchLadder1v1ClientMessage(faction));
-    return gameLaunchFuture;
+  public synchronized CompletableFuture<GameLaunchMessage> startSearchLadder1v1(Faction faction) {
+    // Finding a match takes as long as it takes
+    ladderSearch = gameLaunchRequest.send(() -> writeToServer(new SearchLadder1v1ClientMessage(faction)), null);
+    return ladderSearch;
   }
 
   @Override
   public void stopSearchingRanked() {
     writeToServer(new StopSearchLadder1v1ClientMessage());
-    gameLaunchFuture = null;
+    gameLaunchRequest.cancel();
   }
 
   @Override
@@ -411,18 +428,13 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   }
 
   @Override
-  @Cacheable(CacheNames.AVAILABLE_AVATARS)
-  public List<Avatar> getAvailableAvatars() {
-    avatarsFuture = new CompletableFuture<>();
-    writeToServer(new ListPersonalAvatarsMessage());
-    return NoCatch.noCatch(() -> avatarsFuture.get(10, TimeUnit.SECONDS));
+  public CompletableFuture<List<Avatar>> getAvailableAvatars() {
+    return avatarsRequest.send(() -> writeToServer(new ListPersonalAvatarsMessage()), clientProperties.getServer().getResponseTimeout());
   }
 
   @Override
   public CompletableFuture<List<IceServer>> getIceServers() {
-    iceServersFuture = new CompletableFuture<>();
-    writeToServer(new ListIceServersMessage());
-    return iceServersFuture;
+    return iceServersRequest.send(() -> writeToServer(new ListIceServersMessage()), clientProperties.getServer().getResponseTimeout());
   }
 
   @Override
@@ -430,6 +442,18 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
     writeToServer(new RestoreGameSessionMessage(id));
   }
 
+  private LobbyTrafficRecorder createTrafficRecorder(Server server) {
+    if (server.getTrafficRecordingDirectory() == null) {
+      return null;
+    }
+    try {
+      return LobbyTrafficRecorder.create(Paths.get(server.getTrafficRecordingDirectory()));
+    } catch (IOException e) {
+      log.warn("Could not start recording lobby traffic", e);
+      return null;
+    }
+  }
+
   private ServerWriter createServerWriter(OutputStream outputStream) {
     ServerWriter serverWriter = new ServerWriter(outputStream);
     serverWriter.registerMessageSerializer(new ClientMessageSerializer(), ClientMessage.class);
@@ -448,15 +472,42 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
     serverWriter.write(message);
   }
 
-  public void onServerMessage(String message) {
+  /**
+   * Answers pings right away and hands all other messages over to the {@link ServerMessageDispatcher}, so that they are
+   * decoded and handled while reading from the server continues.
+   */
+  public void onServerMessage(String message) throws IOException {
     ServerCommand serverCommand = ServerCommand.fromString(message);
     if (serverCommand != null) {
       dispatchServerMessage(serverCommand);
-    } else {
-      parseServerObject(message);
+      return;
+    }
+
+    ServerMessageType serverMessageType;
+    try {
+      serverMessageType = serverMessageDecoder.getServerMessageType(message);
+    } catch (JsonParseException e) {
+      log.warn("Could not deserialize message: " + message, e);
+      return;
+    }
+    if (serverMessageType == null) {
+      log.debug("Discarding unimplemented server message: {}", message);
+      return;
+    }
+
+    try {
+      serverMessageDispatcher.dispatch(() -> decodeServerMessage(message, serverMessageType), this::handleServerMessage);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to dispatch server message");
     }
   }
 
+  @VisibleForTesting
+  MessageDispatchStatistics getMessageDispatchStatistics() {
+    return serverMessageDispatcher.getStatistics();
+  }
+
   private void dispatchServerMessage(ServerCommand serverCommand) {
     switch (serverCommand) {
       case PING:
@@ -473,23 +524,21 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
     }
   }
 
-  private void parseServerObject(String jsonString) {
+  private ServerMessage decodeServerMessage(String jsonString, ServerMessageType serverMessageType) {
     try {
-      ServerMessage serverMessage = gson.fromJson(jsonString, ServerMessage.class);
-      if (serverMessage == null) {
-        log.debug("Discarding unimplemented server message: {}", jsonString);
-        return;
-      }
-
-      Class<?> messageClass = serverMessage.getClass();
-      while (messageClass != Object.class) {
-        messageListeners.getOrDefault(messageClass, Collections.emptyList())
-            .forEach(consumer -> consumer.accept(serverMessage));
-        messageClass = messageClass.getSuperclass();
-      }
-
-    } catch (JsonSyntaxException e) {
+      return serverMessageDecoder.decode(jsonString, serverMessageType);
+    } catch (JsonParseException e) {
       log.warn("Could not deserialize message: " + jsonString, e);
+      return null;
+    }
+  }
+
+  private void handleServerMessage(ServerMessage serverMessage) {
+    Class<?> messageClass = serverMessage.getClass();
+    while (messageClass != Object.class) {
+      messageListeners.getOrDefault(messageClass, Collections.emptyList())
+          .forEach(consumer -> consumer.accept(serverMessage));
+      messageClass = messageClass.getSuperclass();
     }
   }
 
@@ -541,8 +590,16 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   }
 
   private void onGameLaunchInfo(GameLaunchMessage gameLaunchMessage) {
-    gameLaunchFuture.complete(gameLaunchMessage);
-    gameLaunchFuture = null;
+    gameLaunchRequest.complete(gameLaunchMessage);
+  }
+
+  /**
+   * The server forgets about requests when the connection is lost, so their responses will never be received.
+   */
+  private void cancelServerRequests() {
+    gameLaunchRequest.cancel();
+    avatarsRequest.cancel();
+    iceServersRequest.cancel();
   }
 
   @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
@@ -556,6 +613,8 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
 
   @Override
   public void afterPropertiesSet() throws Exception {
+    serverMessageDispatcher = new ServerMessageDispatcher(clientProperties.getServer().getMaxQueuedMessages());
+
     addOnMessageListener(NoticeMessage.class, this::onNotice);
     addOnMessageListener(SessionMessage.class, this::onSessionInitiated);
     addOnMessageListener(LoginMessage.class, this::onFafLoginSucceeded);
@@ -194,9 +194,8 @@ public class FafService {
         .collect(toList()));
   }
 
-  @Async
   public CompletableFuture<List<AvatarBean>> getAvailableAvatars() {
-    return CompletableFuture.completedFuture(fafServerAccessor.getAvailableAvatars().stream()
+    return fafServerAccessor.getAvailableAvatars().thenApply(avatars -> avatars.stream()
         .map(AvatarBean::fromAvatar)
         .collect(Collectors.toList()));
   }
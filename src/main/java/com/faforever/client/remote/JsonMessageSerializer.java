@@ -1,7 +1,6 @@
 package com.faforever.client.remote;
 
 import com.faforever.client.remote.domain.SerializableMessage;
-import com.faforever.client.remote.io.QDataWriter;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -10,42 +9,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.serializer.Serializer;
 
-import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 
+/**
+ * Serializes messages to JSON and writes them as a QString, that is the string's size in bytes followed by the string
+ * encoded in UTF-16BE. The buffers are reused for every message, which is why messages are serialized one at a time.
+ */
 public class JsonMessageSerializer<T extends SerializableMessage> implements Serializer<T> {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private static final String CONFIDENTIAL_INFORMATION_MASK = "********";
+  private static final int INITIAL_BUFFER_SIZE = 512;
+  /** Buffers that grew larger than this while serializing a large message are not kept. */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 32 * 1024;
+  private static final Field SEPARATOR_FIELD = getSeparatorField();
 
+  private final ReusableCharArrayWriter jsonBuffer = new ReusableCharArrayWriter();
+  private byte[] encodeBuffer = new byte[INITIAL_BUFFER_SIZE * 2];
   private Gson gson;
 
   // TODO Clean this up, such that the message is logged within ServerWriter and everything makes much more sense
   @Override
-  public void serialize(SerializableMessage message, OutputStream outputStream) throws IOException {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-    Writer jsonStringWriter = new StringWriter();
-
-    // Serialize the object into a StringWriter which is later send as one string block with its size prepended.
-    getGson().toJson(message, message.getClass(), fixedJsonWriter(jsonStringWriter));
-
-    QDataWriter qDataWriter = new QDataWriter(byteArrayOutputStream);
-    qDataWriter.append(jsonStringWriter.toString());
-
-    byte[] byteArray = byteArrayOutputStream.toByteArray();
+  public synchronized void serialize(SerializableMessage message, OutputStream outputStream) throws IOException {
+    jsonBuffer.reset();
+    getGson().toJson(message, message.getClass(), fixedJsonWriter(jsonBuffer));
 
     if (logger.isDebugEnabled()) {
-      // Remove the first 4 bytes which contain the length of the following data
-      String data = new String(Arrays.copyOfRange(byteArray, 4, byteArray.length), StandardCharsets.UTF_16BE);
+      String data = jsonBuffer.toString();
 
       for (String stringToMask : message.getStringsToMask()) {
         data = data.replace("\"" + stringToMask + "\"", "\"" + CONFIDENTIAL_INFORMATION_MASK + "\"");
@@ -54,7 +50,23 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
       logger.debug("Writing to server: {}", data);
     }
 
-    outputStream.write(byteArray);
+    // Write the JSON as one string block with its size prepended
+    int byteCount = jsonBuffer.size() * 2;
+    if (encodeBuffer.length < byteCount + 4) {
+      encodeBuffer = new byte[byteCount + 4];
+    }
+    encodeBuffer[0] = (byte) (byteCount >>> 24);
+    encodeBuffer[1] = (byte) (byteCount >>> 16);
+    encodeBuffer[2] = (byte) (byteCount >>> 8);
+    encodeBuffer[3] = (byte) byteCount;
+    jsonBuffer.encodeUtf16Be(encodeBuffer, 4);
+
+    outputStream.write(encodeBuffer, 0, byteCount + 4);
+
+    if (encodeBuffer.length > MAX_RETAINED_BUFFER_SIZE * 2) {
+      encodeBuffer = new byte[INITIAL_BUFFER_SIZE * 2];
+    }
+    jsonBuffer.trim();
   }
 
   private Gson getGson() {
@@ -75,13 +87,19 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
     try {
       JsonWriter jsonWriter = new JsonWriter(writer);
       jsonWriter.setSerializeNulls(false);
+      SEPARATOR_FIELD.set(jsonWriter, ": ");
+      return jsonWriter;
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
 
+  private static Field getSeparatorField() {
+    try {
       Field separatorField = JsonWriter.class.getDeclaredField("separator");
       separatorField.setAccessible(true);
-      separatorField.set(jsonWriter, ": ");
-
-      return jsonWriter;
-    } catch (NoSuchFieldException | IllegalAccessException e) {
+      return separatorField;
+    } catch (NoSuchFieldException e) {
       throw new RuntimeException(e);
     }
   }
@@ -92,4 +110,29 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
   protected void addTypeAdapters(GsonBuilder gsonBuilder) {
     // To be overridden by subclasses, if desired
   }
+
+  private static class ReusableCharArrayWriter extends CharArrayWriter {
+
+    private ReusableCharArrayWriter() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the buffered characters in UTF-16BE into the target array, without creating an intermediate string.
+     */
+    private void encodeUtf16Be(byte[] target, int offset) {
+      for (int i = 0; i < count; i++) {
+        char c = buf[i];
+        target[offset + 2 * i] = (byte) (c >>> 8);
+        target[offset + 2 * i + 1] = (byte) c;
+      }
+    }
+
+    private void trim() {
+      if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+        buf = new char[INITIAL_BUFFER_SIZE];
+      }
+      count = 0;
+    }
+  }
 }
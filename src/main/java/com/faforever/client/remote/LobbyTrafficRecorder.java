@@ -0,0 +1,140 @@
+package com.faforever.client.remote;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the messages received from the lobby server into a file, so that they can be replayed by {@code
+ * LobbyReplayServer}, a development tool found in the tests. Only messages sent by the server are recorded, never the
+ * messages the client sends.
+ * <p>
+ * A recording starts with {@link #MAGIC} and {@link #FORMAT_VERSION}, followed by one record per message: the
+ * milliseconds since the recording started as a long, the size of the frame as an int and the raw bytes of the frame
+ * exactly as they have been received from the server, that is the block size followed by the message as a QString.
+ * The bytes are captured by the stream returned by {@link #capture(InputStream)} while the message is being read.
+ */
+@Slf4j
+public class LobbyTrafficRecorder implements Closeable {
+
+  static final long MAGIC = 0x4641464C4F424259L;
+  static final int FORMAT_VERSION = 1;
+
+  private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("'lobby-'yyyyMMdd-HHmmss'.rec'");
+
+  private final Path file;
+  private final DataOutputStream outputStream;
+  private final long startNanos;
+  private final ByteArrayOutputStream capturedFrame;
+  private boolean failed;
+
+  private LobbyTrafficRecorder(Path file) throws IOException {
+    this.file = file;
+    outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    outputStream.writeLong(MAGIC);
+    outputStream.writeInt(FORMAT_VERSION);
+    startNanos = System.nanoTime();
+    capturedFrame = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Starts a new recording in the specified directory.
+   */
+  public static LobbyTrafficRecorder create(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Path file = directory.resolve(FILE_NAME_FORMATTER.format(LocalDateTime.now()));
+    log.info("Recording lobby traffic to {}", file);
+    return new LobbyTrafficRecorder(file);
+  }
+
+  /**
+   * Returns a stream that reads from the specified stream and captures every byte read (or skipped), until the
+   * captured bytes are recorded as a frame by {@link #recordFrame()}.
+   */
+  public InputStream capture(InputStream inputStream) {
+    return new FilterInputStream(inputStream) {
+      @Override
+      public int read() throws IOException {
+        int b = super.read();
+        if (b != -1 && !failed) {
+          capturedFrame.write(b);
+        }
+        return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        int bytesRead = super.read(b, off, len);
+        if (bytesRead > 0 && !failed) {
+          capturedFrame.write(b, off, bytesRead);
+        }
+        return bytesRead;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+        // Skipped bytes are part of the frame, so they need to be read
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        int bytesRead = read(buffer, 0, buffer.length);
+        return Math.max(bytesRead, 0);
+      }
+    };
+  }
+
+  /**
+   * Records the bytes captured since the last frame as one frame. If writing to the recording fails, recording stops
+   * but no exception is thrown, so that the connection to the server is not affected.
+   */
+  public void recordFrame() {
+    byte[] frame = capturedFrame.toByteArray();
+    capturedFrame.reset();
+    record(frame);
+  }
+
+  @VisibleForTesting
+  void record(byte[] frame) {
+    if (failed) {
+      return;
+    }
+
+    try {
+      outputStream.writeLong(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      outputStream.writeInt(frame.length);
+      outputStream.write(frame);
+    } catch (IOException e) {
+      log.warn("Could not record lobby traffic to " + file + ", recording stopped", e);
+      failed = true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    outputStream.close();
+  }
+
+  /**
+   * Reads the header of a recording and fails if it isn't one.
+   */
+  static void readHeader(DataInputStream inputStream) throws IOException {
+    if (inputStream.readLong() != MAGIC) {
+      throw new IOException("Not a lobby traffic recording");
+    }
+    int version = inputStream.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported lobby traffic recording version: " + version);
+    }
+  }
+}
@@ -299,8 +299,8 @@ public class MockFafServerAccessor implements FafServerAccessor {
   }
 
   @Override
-  public List<Avatar> getAvailableAvatars() {
-    return emptyList();
+  public CompletableFuture<List<Avatar>> getAvailableAvatars() {
+    return CompletableFuture.completedFuture(emptyList());
   }
 
   @Override
@@ -0,0 +1,116 @@
+package com.faforever.client.remote;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hands messages read from the server over to their handlers, so that the thread reading the socket never waits for a
+ * message to be decoded or handled.
+ * <p>
+ * Messages are decoded concurrently, but handled one after another in the order they were read. The server relies on
+ * this order, e.g. a {@code game_info} refers to players announced by previous {@code player_info} messages and a
+ * {@code game_launch} is expected to be handled after the {@code game_info} of the game.
+ * <p>
+ * At most {@code maxQueuedMessages} messages may be waiting; if the limit is reached, {@link #dispatch(Supplier,
+ * Consumer)} blocks until a message has been handled, which stops reading from the socket.
+ */
+@Slf4j
+class ServerMessageDispatcher {
+
+  private final int maxQueuedMessages;
+  private final Semaphore queueCapacity;
+  private final ExecutorService decodingExecutorService;
+  private final ExecutorService handlingExecutorService;
+  private final AtomicInteger queuedMessages = new AtomicInteger();
+  private final AtomicInteger maxObservedQueuedMessages = new AtomicInteger();
+  private final AtomicLong handledMessages = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  ServerMessageDispatcher(int maxQueuedMessages) {
+    this.maxQueuedMessages = Math.max(1, maxQueuedMessages);
+    queueCapacity = new Semaphore(this.maxQueuedMessages);
+    decodingExecutorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
+        .setNameFormat("server-message-decoder-%d")
+        .setDaemon(true)
+        .build());
+    handlingExecutorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("server-message-handler-%d")
+        .setDaemon(true)
+        .build());
+  }
+
+  /**
+   * Decodes a message in background and passes it to the specified handler once all previously dispatched messages
+   * have been handled. Blocks while the queue is full.
+   *
+   * @param decoder returns the decoded message, or {@code null} if it can't be decoded, in which case the handler isn't
+   * called
+   */
+  synchronized <T> void dispatch(Supplier<T> decoder, Consumer<T> handler) throws InterruptedException {
+    if (!queueCapacity.tryAcquire()) {
+      log.debug("{} server messages are waiting to be handled, pausing reading from the server", maxQueuedMessages);
+      queueCapacity.acquire();
+    }
+    maxObservedQueuedMessages.accumulateAndGet(queuedMessages.incrementAndGet(), Math::max);
+    long enqueuedAt = System.nanoTime();
+
+    CompletableFuture<T> decodedMessage = CompletableFuture.supplyAsync(decoder, decodingExecutorService);
+    handlingExecutorService.execute(() -> {
+      try {
+        T message = decodedMessage.join();
+        long latency = System.nanoTime() - enqueuedAt;
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        if (message != null) {
+          handler.accept(message);
+        }
+      } catch (Exception e) {
+        log.warn("Error while handling server message", e);
+      } finally {
+        handledMessages.incrementAndGet();
+        queuedMessages.decrementAndGet();
+        queueCapacity.release();
+      }
+    });
+  }
+
+  MessageDispatchStatistics getStatistics() {
+    long handled = handledMessages.get();
+    return new MessageDispatchStatistics(
+        queuedMessages.get(),
+        maxObservedQueuedMessages.get(),
+        maxQueuedMessages,
+        handled,
+        handled == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / handled),
+        TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get())
+    );
+  }
+
+  void shutdown() {
+    decodingExecutorService.shutdownNow();
+    handlingExecutorService.shutdownNow();
+    log.debug("Server message dispatch statistics: {}", getStatistics());
+  }
+
+  @Value
+  static class MessageDispatchStatistics {
+    int queuedMessages;
+    int maxObservedQueuedMessages;
+    int maxQueuedMessages;
+    long handledMessages;
+    long averageLatencyMillis;
+    long maxLatencyMillis;
+  }
+}
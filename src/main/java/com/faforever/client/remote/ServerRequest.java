@@ -0,0 +1,108 @@
+package com.faforever.client.remote;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlates a kind of request to the server with the message the server responds with. The server's responses don't
+ * carry a request ID, so there is at most one request of a kind in flight at a time, and the next response completes
+ * it. What happens to a request in flight when another one is sent depends on the {@link InFlightPolicy}.
+ * <p>
+ * Requests in flight fail with a {@link java.util.concurrent.TimeoutException} if no response is received in time. A
+ * late response is then discarded.
+ */
+@Slf4j
+class ServerRequest<T> {
+
+  enum InFlightPolicy {
+    /** The request in flight is answered the same as a new one would be, so all callers share its response. */
+    SHARE,
+    /** A new request makes the server discard the request in flight, so the latter is cancelled. */
+    REPLACE
+  }
+
+  private final String name;
+  private final InFlightPolicy inFlightPolicy;
+
+  private CompletableFuture<T> inFlight;
+
+  ServerRequest(String name, InFlightPolicy inFlightPolicy) {
+    this.name = name;
+    this.inFlightPolicy = inFlightPolicy;
+  }
+
+  /**
+   * Returns a future for the response to a request, calling {@code sendRequest} unless the request in flight is
+   * shared.
+   *
+   * @param timeout how long to wait for the response, or {@code null} to wait until it is received or the request is
+   * cancelled
+   */
+  synchronized CompletableFuture<T> send(Runnable sendRequest, @Nullable Duration timeout) {
+    if (inFlight != null) {
+      if (inFlightPolicy == InFlightPolicy.SHARE) {
+        log.debug("Sharing {} request in flight", name);
+        return inFlight.copy();
+      }
+      inFlight.completeExceptionally(new CancellationException("Replaced by a new " + name + " request"));
+    }
+
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (timeout != null) {
+      future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    inFlight = future;
+    future.whenComplete((response, throwable) -> clear(future));
+
+    try {
+      sendRequest.run();
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+
+    return inFlightPolicy == InFlightPolicy.SHARE ? future.copy() : future;
+  }
+
+  /**
+   * Completes the request in flight, if any, with the specified response.
+   */
+  void complete(T response) {
+    CompletableFuture<T> future;
+    synchronized (this) {
+      future = inFlight;
+      inFlight = null;
+    }
+
+    if (future == null) {
+      log.debug("Discarding {} response as no request is in flight", name);
+      return;
+    }
+    future.complete(response);
+  }
+
+  /**
+   * Cancels the request in flight, if any.
+   */
+  void cancel() {
+    CompletableFuture<T> future;
+    synchronized (this) {
+      future = inFlight;
+      inFlight = null;
+    }
+
+    if (future != null) {
+      future.cancel(false);
+    }
+  }
+
+  private synchronized void clear(CompletableFuture<T> future) {
+    if (inFlight == future) {
+      inFlight = null;
+    }
+  }
+}
@@ -15,50 +15,82 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.SocketException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Sends data to the server. Classes should not use the server writer directly, but e.g. {@link com.faforever.client.remote.FafService} or
  * any other server accessor instead.
+ * <p>
+ * Messages are serialized into a buffer that is reused for every message. The stream is only flushed by the last of
+ * several threads that are writing at the same time, so that a burst of messages is sent with as few flushes as
+ * possible.
  */
 public class ServerWriter implements Closeable {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  /** Buffers that grew larger than this while writing a large message are not kept. */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
   private final QDataWriter qDataWriter;
   private final Map<Class<?>, Serializer<?>> objectWriters;
+  /** Caches the serializer of every class that has been written so far. */
+  private final Map<Class<?>, Serializer<?>> serializersByClass;
+  private final AtomicInteger pendingWrites;
+  private ReusableByteArrayOutputStream messageBuffer;
 
   public ServerWriter(OutputStream outputStream) {
     qDataWriter = new QDataWriter(new DataOutputStream(new BufferedOutputStream(outputStream)));
-    objectWriters = new HashMap<>();
+    objectWriters = new ConcurrentHashMap<>();
+    serializersByClass = new ConcurrentHashMap<>();
+    pendingWrites = new AtomicInteger();
+    messageBuffer = new ReusableByteArrayOutputStream();
   }
 
   public void registerMessageSerializer(Serializer<?> objectSerializer, Class<?> writableClass) {
     objectWriters.put(writableClass, objectSerializer);
+    serializersByClass.clear();
   }
 
   @SuppressWarnings("unchecked")
   public void write(SerializableMessage object) {
     Class<?> clazz = object.getClass();
 
-    Serializer<SerializableMessage> serializer = (Serializer<SerializableMessage>) findSerializerForClass(clazz);
+    Serializer<SerializableMessage> serializer = (Serializer<SerializableMessage>) serializersByClass.computeIfAbsent(clazz, this::findSerializerForClass);
 
     if (serializer == null) {
       throw new IllegalStateException("No object writer registered for type: " + clazz);
     }
 
-    try {
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-      serializer.serialize(object, outputStream);
-
-      synchronized (qDataWriter) {
-        qDataWriter.appendWithSize(outputStream.toByteArray());
-        qDataWriter.flush();
+    pendingWrites.incrementAndGet();
+    synchronized (qDataWriter) {
+      try {
+        messageBuffer.reset();
+        serializer.serialize(object, messageBuffer);
+        messageBuffer.appendWithSizeTo(qDataWriter);
+      } catch (EOFException | SocketException e) {
+        logger.debug("Server writer has been closed");
+      } catch (IOException e) {
+        logger.debug("Server writer has been closed", e);
+      } finally {
+        if (messageBuffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+          messageBuffer = new ReusableByteArrayOutputStream();
+        }
+        flushIfLastPendingWrite();
       }
-    } catch (EOFException | SocketException e) {
-      logger.debug("Server writer has been closed");
+    }
+  }
+
+  private void flushIfLastPendingWrite() {
+    if (pendingWrites.decrementAndGet() > 0) {
+      // Another thread is waiting to write and will flush
+      return;
+    }
+    try {
+      qDataWriter.flush();
     } catch (IOException e) {
       logger.debug("Server writer has been closed", e);
     }
@@ -83,4 +115,22 @@ public class ServerWriter implements Closeable {
   public void close() throws IOException {
     qDataWriter.close();
   }
+
+  private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private ReusableByteArrayOutputStream() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    private int capacity() {
+      return buf.length;
+    }
+
+    /**
+     * Appends the buffered bytes with their size, without copying them first.
+     */
+    private void appendWithSizeTo(QDataWriter qDataWriter) throws IOException {
+      qDataWriter.appendWithSize(buf, 0, count);
+    }
+  }
 }
@@ -0,0 +1,109 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.fa.relay.GpgServerMessageType;
+import com.faforever.client.remote.domain.FafServerMessageType;
+import com.faforever.client.remote.domain.MessageTarget;
+import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.ServerMessageType;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Decodes messages from the server into their {@link ServerMessage} class. The message's {@code command} and {@code
+ * target} are read in a streaming pass that skips all other values and stops as soon as the type is known, then the
+ * message is bound directly to its class, so that no intermediate {@link com.google.gson.JsonElement} tree is built.
+ * <p>
+ * Commands of the lobby server don't have a target and are distinct from those of the game relay, so the pass stops
+ * right after the command of a lobby server message. Only for the other commands the target needs to be read.
+ */
+public class ServerMessageDecoder {
+
+  private static final String COMMAND = "command";
+  private static final String TARGET = "target";
+
+  private final Gson gson;
+
+  public ServerMessageDecoder(Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * Returns the decoded message or {@code null} if the message's command or target is unknown.
+   */
+  public ServerMessage decode(String json) throws JsonParseException {
+    ServerMessageType serverMessageType = getServerMessageType(json);
+    if (serverMessageType == null) {
+      return null;
+    }
+    return decode(json, serverMessageType);
+  }
+
+  /**
+   * Binds the message to the class of a type previously returned by {@link #getServerMessageType(String)}.
+   */
+  public ServerMessage decode(String json, ServerMessageType serverMessageType) throws JsonParseException {
+    return gson.fromJson(json, serverMessageType.getType());
+  }
+
+  /**
+   * Returns the type of the message without binding it, or {@code null} if the message's command or target is unknown.
+   */
+  public ServerMessageType getServerMessageType(String json) throws JsonParseException {
+    String command = null;
+    String target = null;
+
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      reader.setLenient(true);
+      reader.beginObject();
+      while ((command == null || target == null && !isClientCommand(command)) && reader.hasNext()) {
+        String name = reader.nextName();
+        if ((COMMAND.equals(name) || TARGET.equals(name)) && reader.peek() != JsonToken.NULL) {
+          if (COMMAND.equals(name)) {
+            command = reader.nextString();
+          } else {
+            target = reader.nextString();
+          }
+        } else {
+          reader.skipValue();
+        }
+      }
+    } catch (MalformedJsonException | IllegalStateException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+
+    if (command == null) {
+      return null;
+    }
+
+    MessageTarget messageTarget = MessageTarget.fromString(target);
+    if (messageTarget == null) {
+      return null;
+    }
+
+    switch (messageTarget) {
+      case GAME:
+      case CONNECTIVITY:
+        return GpgServerMessageType.fromString(command);
+
+      case CLIENT:
+        return FafServerMessageType.fromString(command);
+
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isClientCommand(String command) {
+    return FafServerMessageType.fromString(command) != null;
+  }
+}
@@ -19,7 +19,7 @@ public class QDataWriter extends Writer {
 
   @Override
   public void write(@NotNull char[] cbuf, int off, int len) throws IOException {
-    out.write(new String(cbuf).substring(off, off + len).getBytes(CHARSET));
+    out.write(new String(cbuf, off, len).getBytes(CHARSET));
   }
 
   @Override
@@ -54,8 +54,15 @@ public class QDataWriter extends Writer {
    * Appends the size of the given byte array to the stream followed by the byte array itself.
    */
   public QDataWriter appendWithSize(byte[] bytes) throws IOException {
-    writeInt32(bytes.length);
-    out.write(bytes);
+    return appendWithSize(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Appends {@code len} bytes of the given byte array, starting at {@code off}, preceded by their size.
+   */
+  public QDataWriter appendWithSize(byte[] bytes, int off, int len) throws IOException {
+    writeInt32(len);
+    out.write(bytes, off, len);
     return this;
   }
 }
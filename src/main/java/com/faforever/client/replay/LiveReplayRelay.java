@@ -0,0 +1,373 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.Iterator;
+
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+
+/**
+ * Records the live replay stream of a running game to a file and relays it to the remote replay server, using a single
+ * {@link Selector} on the calling thread.
+ * <p>
+ * Data received from the game is appended to the recording right away and sent to the replay server from there,
+ * either as soon as {@link ClientProperties.Replay#getRelayFlushSize()} bytes are pending or once the oldest pending byte
+ * is older than {@link ClientProperties.Replay#getRelayFlushInterval()}. If the connection to the replay server drops,
+ * it is re-established and the stream is sent again from its beginning, since the replay server needs the complete
+ * stream.
+ */
+@Slf4j
+class LiveReplayRelay {
+
+  /**
+   * This is a prefix used in the FA live replay protocol that needs to be stripped away when storing to a file.
+   */
+  static final byte[] LIVE_REPLAY_PREFIX = new byte[]{'P', '/'};
+
+  private static final int READ_BUFFER_SIZE = 8192;
+  private static final int MAX_HEADER_LENGTH = 1024;
+
+  private final SocketChannel gameChannel;
+  private final FileChannel recordingChannel;
+  @Nullable
+  private final InetSocketAddress remoteAddress;
+  private final int flushSize;
+  private final long flushIntervalMillis;
+  private final long reconnectDelayMillis;
+  private final int maxConnectAttempts;
+  private final ReplayRelayStatistics statistics;
+  private final Runnable onReplayServerUnreachable;
+  private final ByteBuffer readBuffer;
+  private final ByteArrayOutputStream headerBytes;
+
+  /** The live replay header (e.g. {@code P/1234/Downlord.scfareplay\0}), which is relayed but not recorded. */
+  private byte[] header;
+  private long recordedBytes;
+  private long oldestPendingTimestamp;
+
+  private Selector selector;
+  private SocketChannel remoteChannel;
+  private SelectionKey remoteKey;
+  private boolean remoteConnected;
+  private int failedConnectAttempts;
+  private int connects;
+  private long reconnectAt;
+  /** The part of the header that still has to be sent over the current connection. */
+  private ByteBuffer pendingHeader;
+  /** Position in the recording up to which data has been sent over the current connection. */
+  private long relayedBytes;
+
+  LiveReplayRelay(SocketChannel gameChannel, FileChannel recordingChannel, @Nullable InetSocketAddress remoteAddress,
+                  ClientProperties.Replay replayProperties, ReplayRelayStatistics statistics, Runnable onReplayServerUnreachable) {
+    this.gameChannel = gameChannel;
+    this.recordingChannel = recordingChannel;
+    this.remoteAddress = remoteAddress;
+    this.flushSize = replayProperties.getRelayFlushSize();
+    this.flushIntervalMillis = replayProperties.getRelayFlushInterval().toMillis();
+    this.reconnectDelayMillis = replayProperties.getRelayReconnectDelay().toMillis();
+    this.maxConnectAttempts = replayProperties.getRelayMaxConnectAttempts();
+    this.statistics = statistics;
+    this.onReplayServerUnreachable = onReplayServerUnreachable;
+    readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    headerBytes = new ByteArrayOutputStream();
+    oldestPendingTimestamp = -1;
+    reconnectAt = -1;
+  }
+
+  /**
+   * Runs until the game closes the connection.
+   */
+  void run() throws IOException {
+    try {
+      runSelectorLoop();
+      relayRemaining();
+    } finally {
+      closeRemote();
+    }
+  }
+
+  private void runSelectorLoop() throws IOException {
+    try (Selector selector = Selector.open()) {
+      this.selector = selector;
+      gameChannel.configureBlocking(false);
+      gameChannel.register(selector, OP_READ);
+
+      if (remoteAddress != null) {
+        connect();
+      }
+
+      while (true) {
+        selector.select(nextSelectTimeout());
+
+        boolean gameDisconnected = false;
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.channel() == gameChannel) {
+            gameDisconnected = !readFromGame();
+          } else if (key.isConnectable()) {
+            finishConnect();
+          } else if (key.isWritable()) {
+            relay();
+          }
+        }
+
+        if (gameDisconnected) {
+          break;
+        }
+
+        long now = System.currentTimeMillis();
+        if (reconnectAt != -1 && now >= reconnectAt) {
+          reconnectAt = -1;
+          connect();
+        }
+        if (isFlushDue(now)) {
+          relay();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns {@code false} if the game has closed the connection.
+   */
+  private boolean readFromGame() throws IOException {
+    readBuffer.clear();
+    int bytesRead = gameChannel.read(readBuffer);
+    if (bytesRead == -1) {
+      return false;
+    }
+    readBuffer.flip();
+    statistics.onBytesReceived(bytesRead);
+
+    if (header == null) {
+      readHeader(readBuffer);
+    }
+    record(readBuffer);
+    return true;
+  }
+
+  /**
+   * Consumes the live replay header from the specified buffer. If the stream doesn't start with {@link
+   * #LIVE_REPLAY_PREFIX}, it doesn't have a header and all bytes consumed so far are recorded.
+   */
+  private void readHeader(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      byte b = buffer.get();
+      headerBytes.write(b);
+      int length = headerBytes.size();
+
+      boolean isPrefix = length > LIVE_REPLAY_PREFIX.length || b == LIVE_REPLAY_PREFIX[length - 1];
+      if (!isPrefix || length > MAX_HEADER_LENGTH) {
+        header = new byte[0];
+        record(ByteBuffer.wrap(headerBytes.toByteArray()));
+        return;
+      }
+      if (b == 0x00) {
+        header = headerBytes.toByteArray();
+        return;
+      }
+    }
+  }
+
+  private void record(ByteBuffer buffer) throws IOException {
+    if (!buffer.hasRemaining()) {
+      return;
+    }
+    while (buffer.hasRemaining()) {
+      recordedBytes += recordingChannel.write(buffer);
+    }
+    if (oldestPendingTimestamp == -1) {
+      oldestPendingTimestamp = System.currentTimeMillis();
+    }
+  }
+
+  private long pendingBytes() {
+    return recordedBytes - relayedBytes + (pendingHeader != null ? pendingHeader.remaining() : 0);
+  }
+
+  private boolean isFlushDue(long now) {
+    if (!remoteConnected || header == null || (remoteKey.interestOps() & OP_WRITE) != 0) {
+      return false;
+    }
+    long pendingBytes = pendingBytes();
+    return pendingBytes > 0
+        && (pendingBytes >= flushSize || now - oldestPendingTimestamp >= flushIntervalMillis);
+  }
+
+  private long nextSelectTimeout() {
+    long now = System.currentTimeMillis();
+    long timeout = Long.MAX_VALUE;
+    // While the replay server's socket is backpressured, data is sent as soon as it becomes writable again
+    if (remoteConnected && oldestPendingTimestamp != -1 && (remoteKey.interestOps() & OP_WRITE) == 0) {
+      timeout = oldestPendingTimestamp + flushIntervalMillis - now;
+    }
+    if (reconnectAt != -1) {
+      timeout = Math.min(timeout, reconnectAt - now);
+    }
+    if (timeout == Long.MAX_VALUE) {
+      // Wait indefinitely
+      return 0;
+    }
+    return Math.max(1, timeout);
+  }
+
+  /**
+   * Sends as much pending data as the replay server's socket accepts without blocking. If not everything could be sent,
+   * the rest is sent as soon as the socket becomes writable again.
+   */
+  private void relay() {
+    if (!remoteConnected || header == null) {
+      return;
+    }
+    try {
+      if (pendingHeader == null) {
+        pendingHeader = ByteBuffer.wrap(header);
+      }
+      if (pendingHeader.hasRemaining()) {
+        remoteChannel.write(pendingHeader);
+        if (pendingHeader.hasRemaining()) {
+          remoteKey.interestOps(OP_WRITE);
+          return;
+        }
+      }
+
+      long count = recordedBytes - relayedBytes;
+      if (count > 0) {
+        long transferred = recordingChannel.transferTo(relayedBytes, count, remoteChannel);
+        relayedBytes += transferred;
+        statistics.onBytesRelayed(transferred);
+      }
+
+      if (relayedBytes < recordedBytes) {
+        remoteKey.interestOps(OP_WRITE);
+        return;
+      }
+
+      remoteKey.interestOps(0);
+      if (oldestPendingTimestamp != -1) {
+        statistics.onFlushed(System.currentTimeMillis() - oldestPendingTimestamp);
+        oldestPendingTimestamp = -1;
+      }
+    } catch (IOException e) {
+      log.warn("Connection to replay server lost ({})", e.getMessage());
+      onConnectionFailed();
+    }
+  }
+
+  /**
+   * Sends the remaining data after the game has disconnected, this time blocking.
+   */
+  private void relayRemaining() {
+    if (!remoteConnected || header == null) {
+      return;
+    }
+    try {
+      remoteChannel.configureBlocking(true);
+      if (pendingHeader == null) {
+        pendingHeader = ByteBuffer.wrap(header);
+      }
+      while (pendingHeader.hasRemaining()) {
+        remoteChannel.write(pendingHeader);
+      }
+      while (relayedBytes < recordedBytes) {
+        long transferred = recordingChannel.transferTo(relayedBytes, recordedBytes - relayedBytes, remoteChannel);
+        relayedBytes += transferred;
+        statistics.onBytesRelayed(transferred);
+      }
+      if (oldestPendingTimestamp != -1) {
+        statistics.onFlushed(System.currentTimeMillis() - oldestPendingTimestamp);
+      }
+    } catch (IOException e) {
+      log.warn("Could not send remaining replay data to replay server ({})", e.getMessage());
+    }
+  }
+
+  private void connect() {
+    log.debug("Connecting to replay server at '{}'", remoteAddress);
+    try {
+      remoteChannel = SocketChannel.open();
+      remoteChannel.configureBlocking(false);
+      if (remoteChannel.connect(remoteAddress)) {
+        remoteKey = remoteChannel.register(selector, 0);
+        onConnected();
+      } else {
+        remoteKey = remoteChannel.register(selector, OP_CONNECT);
+      }
+    } catch (IOException | UnresolvedAddressException e) {
+      log.warn("Could not connect to replay server at '{}' ({})", remoteAddress, e.getMessage());
+      onConnectionFailed();
+    }
+  }
+
+  private void finishConnect() {
+    try {
+      if (remoteChannel.finishConnect()) {
+        remoteKey.interestOps(0);
+        onConnected();
+      }
+    } catch (IOException e) {
+      log.warn("Could not connect to replay server at '{}' ({})", remoteAddress, e.getMessage());
+      onConnectionFailed();
+    }
+  }
+
+  private void onConnected() {
+    log.debug("Connected to replay server at '{}'", remoteAddress);
+    if (connects++ > 0) {
+      statistics.onReconnected();
+    }
+    remoteConnected = true;
+    failedConnectAttempts = 0;
+    pendingHeader = null;
+    relayedBytes = 0;
+    if (recordedBytes > 0 && oldestPendingTimestamp == -1) {
+      oldestPendingTimestamp = System.currentTimeMillis();
+    }
+    relay();
+  }
+
+  private void onConnectionFailed() {
+    closeRemote();
+    failedConnectAttempts++;
+    if (failedConnectAttempts >= maxConnectAttempts) {
+      log.warn("Giving up on connecting to replay server after {} attempts, the replay will only be recorded locally", failedConnectAttempts);
+      onReplayServerUnreachable.run();
+      return;
+    }
+    reconnectAt = System.currentTimeMillis() + reconnectDelayMillis;
+  }
+
+  private void closeRemote() {
+    remoteConnected = false;
+    if (remoteKey != null) {
+      remoteKey.cancel();
+      remoteKey = null;
+    }
+    if (remoteChannel != null) {
+      try {
+        remoteChannel.close();
+      } catch (IOException e) {
+        log.debug("Could not close connection to replay server", e);
+      }
+      remoteChannel = null;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.io.PersistentPathIndex;
+import com.faforever.client.preferences.PreferencesService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Persistent index of the metadata of local replay files, stored in the cache directory. An entry is only valid as long
+ * as the replay file's size and last modification time are unchanged, so that only new or changed replay files need to
+ * be parsed on startup.
+ */
+@Lazy
+@Component
+public class LocalReplayIndex {
+
+  private static final String INDEX_FILE_NAME = "localReplayIndex.json";
+
+  private final PersistentPathIndex<Entry> index;
+
+  public LocalReplayIndex(PreferencesService preferencesService) {
+    index = new PersistentPathIndex<>(() -> preferencesService.getCacheDirectory().resolve(INDEX_FILE_NAME),
+        "local replay index", ReplayFiles.gson(), Entry[].class, entry -> entry.getReplayInfo() != null);
+  }
+
+  /**
+   * Returns the indexed metadata of the specified replay file if the file hasn't changed since it was indexed.
+   */
+  public Optional<LocalReplayInfo> get(Path replayFile, long size, long lastModified) {
+    return index.get(replayFile)
+        .filter(entry -> entry.getSize() == size && entry.getLastModified() == lastModified)
+        .map(Entry::getReplayInfo);
+  }
+
+  public void put(Path replayFile, long size, long lastModified, LocalReplayInfo replayInfo) {
+    index.put(new Entry(replayFile.toAbsolutePath().toString(), size, lastModified, replayInfo));
+  }
+
+  public void remove(Path replayFile) {
+    index.remove(replayFile);
+  }
+
+  /**
+   * Removes all entries whose replay file is not contained in the specified collection.
+   */
+  public void retainAll(Collection<Path> replayFiles) {
+    index.retainAll(replayFiles);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Writes the index to disk, if it has been modified since it was last read or written.
+   */
+  public void store() {
+    index.store();
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class Entry implements PersistentPathIndex.Entry {
+    private String path;
+    private long size;
+    private long lastModified;
+    private LocalReplayInfo replayInfo;
+  }
+}
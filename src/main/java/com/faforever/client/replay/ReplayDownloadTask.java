@@ -37,7 +37,7 @@ public class ReplayDownloadTask extends CompletableTask<Path> {
 
   @Inject
   public ReplayDownloadTask(I18n i18n, ClientProperties clientProperties, PreferencesService preferencesService) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, Category.NETWORK);
 
     this.i18n = i18n;
     this.clientProperties = clientProperties;
@@ -1,9 +1,7 @@
 package com.faforever.client.replay;
 
-import com.faforever.commons.replay.QtCompress;
 import com.faforever.commons.replay.ReplayData;
 import com.faforever.commons.replay.ReplayDataParser;
-import com.google.common.io.BaseEncoding;
 import com.google.gson.Gson;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -12,16 +10,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.InflaterInputStream;
 
-import static com.github.nocatch.NoCatch.noCatch;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Lazy
 @Component
@@ -29,6 +31,7 @@ import static com.github.nocatch.NoCatch.noCatch;
 public class ReplayFileReaderImpl implements ReplayFileReader {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
 
   private final Gson gson;
 
@@ -40,11 +43,12 @@ public class ReplayFileReaderImpl implements ReplayFileReader {
   @SneakyThrows
   public LocalReplayInfo parseMetaData(Path replayFile) {
     logger.debug("Parsing metadata of replay file: {}", replayFile);
-    try (Stream<String> stream = Files.lines(replayFile)) {
-      return stream
-          .findFirst()
-          .map(jsonString -> gson.fromJson(jsonString, LocalReplayInfo.class))
-          .orElseThrow(() -> new IOException(String.format("Failed to extract metadata from replay file: {}", replayFile)));
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(replayFile))) {
+      byte[] metaDataBytes = readLine(inputStream);
+      if (metaDataBytes.length == 0) {
+        throw new IOException(String.format("Failed to extract metadata from replay file: %s", replayFile));
+      }
+      return gson.fromJson(new String(metaDataBytes, UTF_8), LocalReplayInfo.class);
     }
   }
 
@@ -52,15 +56,68 @@ public class ReplayFileReaderImpl implements ReplayFileReader {
   @SneakyThrows
   public byte[] readRawReplayData(Path replayFile) {
     logger.debug("Reading replay file: {}", replayFile);
-    try (Stream<String> stream = Files.lines(replayFile)) {
-      return stream
-          .skip(1)
-          .findFirst()
-          .map(base64String -> noCatch(() -> QtCompress.qUncompress(BaseEncoding.base64().decode(base64String))))
-          .orElseThrow(() -> new IOException(String.format("Failed to extract replay data from replay file: {}", replayFile)));
+    try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(replayFile), READ_BUFFER_SIZE)) {
+      if (!skipLine(inputStream)) {
+        throw new IOException(String.format("Failed to extract replay data from replay file: %s", replayFile));
+      }
+      return qUncompress(Base64.getMimeDecoder().wrap(inputStream));
     }
   }
 
+  /**
+   * Streaming equivalent of {@link com.faforever.commons.replay.QtCompress#qUncompress(byte[])}: reads the 4 byte
+   * big-endian length header written by Qt's {@code qCompress} and inflates the zlib data that follows it directly into
+   * an array of that size, without buffering the compressed data.
+   */
+  private static byte[] qUncompress(InputStream compressedInputStream) throws IOException {
+    DataInputStream dataInputStream = new DataInputStream(compressedInputStream);
+    int uncompressedSize;
+    try {
+      uncompressedSize = dataInputStream.readInt();
+    } catch (EOFException e) {
+      throw new IOException("Replay data is empty", e);
+    }
+    if (uncompressedSize < 0) {
+      throw new IOException("Invalid uncompressed replay data size: " + uncompressedSize);
+    }
+
+    byte[] uncompressedData = new byte[uncompressedSize];
+    try (DataInputStream inflaterInputStream = new DataInputStream(new InflaterInputStream(dataInputStream))) {
+      inflaterInputStream.readFully(uncompressedData);
+    }
+    return uncompressedData;
+  }
+
+  /**
+   * Reads bytes up to, but excluding, the next line feed (a trailing carriage return is dropped as well).
+   */
+  private static byte[] readLine(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = inputStream.read()) != -1 && b != '\n') {
+      line.write(b);
+    }
+    byte[] bytes = line.toByteArray();
+    if (bytes.length > 0 && bytes[bytes.length - 1] == '\r') {
+      return Arrays.copyOf(bytes, bytes.length - 1);
+    }
+    return bytes;
+  }
+
+  /**
+   * Skips bytes up to and including the next line feed. Returns {@code false} if the end of the stream was reached
+   * before.
+   */
+  private static boolean skipLine(InputStream inputStream) throws IOException {
+    int b;
+    while ((b = inputStream.read()) != -1) {
+      if (b == '\n') {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public ReplayData parseReplay(Path path) {
     return new ReplayDataParser(path).parse();
@@ -1,9 +1,13 @@
 package com.faforever.client.replay;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 
 public interface ReplayFileWriter {
 
-  void writeReplayDataToFile(ByteArrayOutputStream replayData, LocalReplayInfo replayInfo) throws IOException;
+  /**
+   * Writes a replay file consisting of the specified replay info and the raw replay data read from {@code
+   * replayDataFile}. The replay data is compressed and encoded while streaming, so it is never held in memory.
+   */
+  void writeReplayDataToFile(Path replayDataFile, LocalReplayInfo replayInfo) throws IOException;
 }
@@ -4,8 +4,6 @@ import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.commons.io.Bytes;
-import com.faforever.commons.replay.QtCompress;
-import com.google.common.io.BaseEncoding;
 import com.google.gson.Gson;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -13,17 +11,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
 
 @Lazy
 @Component
@@ -31,6 +33,7 @@ import static java.nio.file.StandardOpenOption.CREATE_NEW;
 public class ReplayFileWriterImpl implements ReplayFileWriter {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int BUFFER_SIZE = 64 * 1024;
   private final Gson gson = ReplayFiles.gson();
 
   private final I18n i18n;
@@ -38,24 +41,49 @@ public class ReplayFileWriterImpl implements ReplayFileWriter {
   private final PreferencesService preferencesService;
 
   @Override
-  public void writeReplayDataToFile(ByteArrayOutputStream replayData, LocalReplayInfo replayInfo) throws IOException {
+  public void writeReplayDataToFile(Path replayDataFile, LocalReplayInfo replayInfo) throws IOException {
     String fileName = String.format(clientProperties.getReplay().getReplayFileFormat(), replayInfo.getUid(), replayInfo.getRecorder());
     Path replayFile = preferencesService.getReplaysDirectory().resolve(fileName);
     Path temporaryReplayFile = Files.createTempFile(preferencesService.getCacheDirectory(), fileName, "fafreplay");
+    long replayDataSize = Files.size(replayDataFile);
 
-    logger.info("Writing replay file to {} ({})", replayFile, Bytes.formatSize(replayData.size(), i18n.getUserSpecificLocale()));
+    logger.info("Writing replay file to {} ({})", replayFile, Bytes.formatSize(replayDataSize, i18n.getUserSpecificLocale()));
 
     Files.createDirectories(replayFile.getParent());
 
-    try (BufferedWriter writer = Files.newBufferedWriter(temporaryReplayFile, UTF_8, APPEND)) {
-      byte[] compressedBytes = QtCompress.qCompress(replayData.toByteArray());
-      String base64ReplayData = BaseEncoding.base64().encode(compressedBytes);
-
+    try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryReplayFile), BUFFER_SIZE)) {
+      Writer writer = new OutputStreamWriter(outputStream, UTF_8);
       gson.toJson(replayInfo, writer);
       writer.write('\n');
-      writer.write(base64ReplayData);
+      writer.flush();
+
+      try (OutputStream base64OutputStream = Base64.getEncoder().wrap(outputStream)) {
+        qCompress(replayDataFile, replayDataSize, base64OutputStream);
+      }
     }
 
     Files.move(temporaryReplayFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
   }
+
+  /**
+   * Streaming equivalent of {@link com.faforever.commons.replay.QtCompress#qCompress(byte[])}: writes the 4 byte
+   * big-endian length header expected by Qt's {@code qUncompress}, followed by the zlib compressed data.
+   */
+  private static void qCompress(Path source, long size, OutputStream outputStream) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Replay data is too large to be compressed: " + size);
+    }
+
+    DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+    dataOutputStream.writeInt((int) size);
+
+    Deflater deflater = new Deflater();
+    try {
+      DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(dataOutputStream, deflater, BUFFER_SIZE);
+      Files.copy(source, deflaterOutputStream);
+      deflaterOutputStream.finish();
+    } finally {
+      deflater.end();
+    }
+  }
 }
@@ -0,0 +1,95 @@
+package com.faforever.client.replay;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a live replay relay session. All values may be read from any thread while the session is running.
+ */
+public class ReplayRelayStatistics {
+
+  private final long startedAtNanos = System.nanoTime();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong bytesRelayed = new AtomicLong();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLong reconnects = new AtomicLong();
+  private volatile long lastRelayLatencyMillis;
+  private volatile long maxRelayLatencyMillis;
+
+  void onBytesReceived(long count) {
+    bytesReceived.addAndGet(count);
+  }
+
+  void onBytesRelayed(long count) {
+    bytesRelayed.addAndGet(count);
+  }
+
+  void onFlushed(long latencyMillis) {
+    flushes.incrementAndGet();
+    lastRelayLatencyMillis = latencyMillis;
+    if (latencyMillis > maxRelayLatencyMillis) {
+      maxRelayLatencyMillis = latencyMillis;
+    }
+  }
+
+  void onReconnected() {
+    reconnects.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of bytes received from the game.
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * Returns the number of bytes sent to the replay server, including data that has been sent again after a reconnect.
+   */
+  public long getBytesRelayed() {
+    return bytesRelayed.get();
+  }
+
+  public long getFlushes() {
+    return flushes.get();
+  }
+
+  public long getReconnects() {
+    return reconnects.get();
+  }
+
+  /**
+   * Returns the time between the oldest byte of the last flush being received from the game and it being sent to the
+   * replay server.
+   */
+  public long getLastRelayLatencyMillis() {
+    return lastRelayLatencyMillis;
+  }
+
+  public long getMaxRelayLatencyMillis() {
+    return maxRelayLatencyMillis;
+  }
+
+  public double getReceivedBytesPerSecond() {
+    return perSecond(getBytesReceived());
+  }
+
+  public double getRelayedBytesPerSecond() {
+    return perSecond(getBytesRelayed());
+  }
+
+  private double perSecond(long count) {
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+    if (elapsedMillis == 0) {
+      return 0;
+    }
+    return count * 1000d / elapsedMillis;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("received: %d bytes (%.1f B/s), relayed: %d bytes (%.1f B/s), flushes: %d, reconnects: %d, max latency: %d ms",
+        getBytesReceived(), getReceivedBytesPerSecond(), getBytesRelayed(), getRelayedBytesPerSecond(),
+        getFlushes(), getReconnects(), getMaxRelayLatencyMillis());
+  }
+}
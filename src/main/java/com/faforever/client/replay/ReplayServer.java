@@ -10,4 +10,9 @@ public interface ReplayServer {
   void stop();
 
   CompletableFuture<Integer> start(int gameId, Supplier<Game> onGameInfoFinished);
+
+  /**
+   * Returns the relay statistics of the current or, if no game is running, the last game.
+   */
+  ReplayRelayStatistics getStatistics();
 }
@@ -7,31 +7,32 @@ import com.faforever.client.notification.Action;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.notification.PersistentNotification;
 import com.faforever.client.notification.Severity;
+import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.domain.GameStatus;
 import com.faforever.client.update.ClientUpdateService;
 import com.faforever.client.user.UserService;
-import com.google.common.primitives.Bytes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.ConnectException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 import static com.github.nocatch.NoCatch.noCatch;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 @Lazy
 @Component
@@ -39,29 +40,19 @@ import static com.github.nocatch.NoCatch.noCatch;
 @RequiredArgsConstructor
 public class ReplayServerImpl implements ReplayServer {
 
-  /**
-   * Size for buffer used to send data to the live replay server. The buffer needs to be large enough to not flush too
-   * many times (after all, it's a TCP stream so we don't want to send single bytes) but small enough to not delay data
-   * for too long. I don't have any data right now but it can be expected that the replay stream produces about 70 bytes
-   * per second (See #973).
-   */
-  private static final int REPLAY_BUFFER_SIZE = 128;
-
-  /**
-   * This is a prefix used in the FA live replay protocol that needs to be stripped away when storing to a file.
-   */
-  private static final byte[] LIVE_REPLAY_PREFIX = new byte[]{'P', '/'};
-
   private final ClientProperties clientProperties;
   private final NotificationService notificationService;
   private final I18n i18n;
   private final UserService userService;
   private final ReplayFileWriter replayFileWriter;
   private final ClientUpdateService clientUpdateService;
+  private final PreferencesService preferencesService;
+  private final ExecutorService executorService;
 
   private LocalReplayInfo replayInfo;
-  private ServerSocket serverSocket;
+  private ServerSocketChannel serverSocketChannel;
   private boolean stoppedGracefully;
+  private volatile ReplayRelayStatistics statistics = new ReplayRelayStatistics();
 
   /**
    * Returns the current millis the same way as python does since this is what's stored in the replay files *yay*.
@@ -72,36 +63,31 @@ public class ReplayServerImpl implements ReplayServer {
 
   @Override
   public void stop() {
-    if (serverSocket == null) {
+    if (serverSocketChannel == null) {
       return;
     }
     stoppedGracefully = true;
-    noCatch(() -> serverSocket.close());
+    noCatch(() -> serverSocketChannel.close());
+  }
+
+  @Override
+  public ReplayRelayStatistics getStatistics() {
+    return statistics;
   }
 
   @Override
   public CompletableFuture<Integer> start(int gameId, Supplier<Game> gameSupplier) {
     stoppedGracefully = false;
     CompletableFuture<Integer> future = new CompletableFuture<>();
-    new Thread(() -> {
-      String remoteReplayServerHost = clientProperties.getReplay().getRemoteHost();
-      Integer remoteReplayServerPort = clientProperties.getReplay().getRemotePort();
-
-      log.debug("Connecting to replay server at '{}:{}'", remoteReplayServerHost, remoteReplayServerPort);
-
-      try (ServerSocket localSocket = new ServerSocket(0)) {
-        log.debug("Opening local replay server on port {}", localSocket.getLocalPort());
-        this.serverSocket = localSocket;
-        future.complete(serverSocket.getLocalPort());
-
-        try (Socket remoteReplayServerSocket = new Socket(remoteReplayServerHost, remoteReplayServerPort);
-             DataOutputStream fafReplayOutputStream = new DataOutputStream(remoteReplayServerSocket.getOutputStream())) {
-          recordAndRelay(gameId, localSocket, fafReplayOutputStream, gameSupplier);
-        } catch (ConnectException e) {
-          log.warn("Could not connect to remote replay server", e);
-          notificationService.addNotification(new PersistentNotification(i18n.get("replayServer.unreachable"), Severity.WARN));
-          recordAndRelay(gameId, localSocket, null, gameSupplier);
-        }
+    executorService.execute(() -> {
+      try (ServerSocketChannel localChannel = ServerSocketChannel.open()) {
+        localChannel.bind(new InetSocketAddress(0));
+        int localPort = ((InetSocketAddress) localChannel.getLocalAddress()).getPort();
+        log.debug("Opening local replay server on port {}", localPort);
+        this.serverSocketChannel = localChannel;
+        future.complete(localPort);
+
+        recordAndRelay(gameId, localChannel, gameSupplier);
       } catch (IOException e) {
         if (stoppedGracefully) {
           return;
@@ -113,7 +99,7 @@ public class ReplayServerImpl implements ReplayServer {
             Severity.WARN, Collections.singletonList(new Action(i18n.get("replayServer.retry"), event -> start(gameId, gameSupplier)))
         ));
       }
-    }).start();
+    });
     return future;
   }
 
@@ -127,48 +113,57 @@ public class ReplayServerImpl implements ReplayServer {
     );
   }
 
-  /**
-   * @param fafReplayOutputStream if {@code null}, the replay won't be relayed
-   */
-  private void recordAndRelay(int uid, ServerSocket serverSocket, @Nullable OutputStream fafReplayOutputStream, Supplier<Game> onGameInfoFinished) throws IOException {
-    Socket socket = serverSocket.accept();
-    Game game = onGameInfoFinished.get();
-    log.debug("Accepted connection from {}", socket.getRemoteSocketAddress());
-
-    initReplayInfo(uid);
-
-    ByteArrayOutputStream replayData = new ByteArrayOutputStream();
-
-    boolean connectionToServerLost = false;
-    byte[] buffer = new byte[REPLAY_BUFFER_SIZE];
-    try (InputStream inputStream = socket.getInputStream()) {
-      int bytesRead;
-      while ((bytesRead = inputStream.read(buffer)) != -1) {
-        if (replayData.size() == 0 && Bytes.indexOf(buffer, LIVE_REPLAY_PREFIX) != -1) {
-          int dataBeginIndex = Bytes.indexOf(buffer, (byte) 0x00) + 1;
-          replayData.write(buffer, dataBeginIndex, bytesRead - dataBeginIndex);
-        } else {
-          replayData.write(buffer, 0, bytesRead);
+  private void recordAndRelay(int uid, ServerSocketChannel serverSocketChannel, Supplier<Game> onGameInfoFinished) throws IOException {
+    try (SocketChannel gameChannel = serverSocketChannel.accept()) {
+      Game game = onGameInfoFinished.get();
+      log.debug("Accepted connection from {}", gameChannel.getRemoteAddress());
+
+      initReplayInfo(uid);
+
+      Path replayDataFile = createReplayDataFile(uid);
+      try {
+        try (FileChannel recordingChannel = FileChannel.open(replayDataFile, READ, WRITE)) {
+          statistics = new ReplayRelayStatistics();
+          new LiveReplayRelay(gameChannel, recordingChannel, getRemoteReplayServerAddress(), clientProperties.getReplay(),
+              statistics, this::onReplayServerUnreachable).run();
+        } catch (Exception e) {
+          log.warn("Error while recording replay", e);
+          throw e;
         }
 
-        if (!connectionToServerLost && fafReplayOutputStream != null) {
-          try {
-            fafReplayOutputStream.write(buffer, 0, bytesRead);
-          } catch (SocketException e) {
-            // In case we lose connection to the replay server, just stop writing to it
-            log.warn("Connection to replay server lost ({})", e.getMessage());
-            connectionToServerLost = true;
-          }
-        }
+        log.debug("FAF has disconnected, writing replay data to file (relay statistics: {})", statistics);
+        finishReplayInfo(game);
+        replayFileWriter.writeReplayDataToFile(replayDataFile, replayInfo);
+      } finally {
+        Files.deleteIfExists(replayDataFile);
       }
-    } catch (Exception e) {
-      log.warn("Error while recording replay", e);
-      throw e;
     }
+  }
 
-    log.debug("FAF has disconnected, writing replay data to file");
-    finishReplayInfo(game);
-    replayFileWriter.writeReplayDataToFile(replayData, replayInfo);
+  /**
+   * Returns the address of the remote replay server or {@code null} if none is configured, in which case the replay
+   * is only recorded.
+   */
+  private InetSocketAddress getRemoteReplayServerAddress() {
+    String remoteReplayServerHost = clientProperties.getReplay().getRemoteHost();
+    if (StringUtils.isBlank(remoteReplayServerHost)) {
+      return null;
+    }
+    return new InetSocketAddress(remoteReplayServerHost, clientProperties.getReplay().getRemotePort());
+  }
+
+  private void onReplayServerUnreachable() {
+    notificationService.addNotification(new PersistentNotification(i18n.get("replayServer.unreachable"), Severity.WARN));
+  }
+
+  /**
+   * Creates the file the raw replay data is recorded to while the game is running, so that it doesn't need to be kept
+   * in memory.
+   */
+  private Path createReplayDataFile(int uid) throws IOException {
+    Path cacheDirectory = preferencesService.getCacheDirectory();
+    Files.createDirectories(cacheDirectory);
+    return Files.createTempFile(cacheDirectory, "replay-" + uid + "-", ".scfareplay");
   }
 
   private void finishReplayInfo(Game game) {
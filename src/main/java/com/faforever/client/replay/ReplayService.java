@@ -7,6 +7,9 @@ import com.faforever.client.game.Game;
 import com.faforever.client.game.GameService;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
+import com.faforever.client.io.DirectoryWatcherService.DirectoryWatch;
 import com.faforever.client.main.event.LocalReplaysChangedEvent;
 import com.faforever.client.map.MapBean;
 import com.faforever.client.map.MapService;
@@ -37,12 +40,16 @@ import com.github.rutledgepaulv.qbuilders.conditions.Condition;
 import com.github.rutledgepaulv.qbuilders.visitors.RSQLVisitor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.net.UrlEscapers;
 import com.google.common.primitives.Bytes;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.util.StringUtils;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
@@ -60,26 +67,29 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.StandardCopyOption;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static com.faforever.client.notification.Severity.WARN;
 import static com.faforever.commons.api.elide.ElideNavigator.qBuilder;
@@ -89,9 +99,6 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.move;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -117,13 +124,15 @@ public class ReplayService {
   private static final String FAF_LIFE_PROTOCOL = "faflive";
   private static final String GPGNET_SCHEME = "gpgnet";
   private static final String TEMP_SCFA_REPLAY_FILE_NAME = "temp.scfareplay";
-  private static final long MAX_REPLAYS = 300;
+  private static final int LOCAL_REPLAYS_CHUNK_SIZE = 100;
+  private static final int LOCAL_REPLAYS_PARSER_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
   private static final Pattern invalidCharacters = Pattern.compile("[?@*%{}<>|\"]");
 
   private final ClientProperties clientProperties;
   private final PreferencesService preferencesService;
   private final UserService userService;
   private final ReplayFileReader replayFileReader;
+  private final LocalReplayIndex localReplayIndex;
   private final NotificationService notificationService;
   private final GameService gameService;
   private final PlayerService playerService;
@@ -138,9 +147,9 @@ public class ReplayService {
   private final ApplicationEventPublisher publisher;
   private final MapGeneratorService mapGeneratorService;
   private final ExecutorService executorService;
-  private Thread directoryWatcherThread;
-  private WatchService watchService;
-  protected List<Replay> localReplays = new ArrayList<Replay>();
+  private final DirectoryWatcherService directoryWatcherService;
+  private DirectoryWatch localReplaysWatch;
+  protected final Map<Path, Replay> localReplays = new ConcurrentHashMap<>();
 
   public void startLoadingAndWatchingLocalReplays() {
     Path replaysDirectory = preferencesService.getReplaysDirectory();
@@ -148,83 +157,74 @@ public class ReplayService {
       noCatch(() -> createDirectories(replaysDirectory));
     }
 
+    // Loaded replays are published in chunks by loadLocalReplays()
+    localReplays.clear();
     LoadLocalReplaysTask loadLocalReplaysTask = applicationContext.getBean(LoadLocalReplaysTask.class);
-    taskService.submitTask(loadLocalReplaysTask).getFuture().thenAccept( replays -> {
-      localReplays.clear();
-      localReplays.addAll(replays);
-      publisher.publishEvent(new LocalReplaysChangedEvent(this, replays, new ArrayList<Replay>()));
-    });
+    taskService.submitTask(loadLocalReplaysTask);
 
     try {
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(replaysDirectory);
+      Optional.ofNullable(localReplaysWatch).ifPresent(DirectoryWatch::close);
+      localReplaysWatch = directoryWatcherService.watch(replaysDirectory,
+          clientProperties.getReplay().getLocalReplaysSettleDelay(), this::onLocalReplaysChanged);
     } catch (IOException e) {
       logger.warn("Failed to start watching the local replays directory");
     }
   }
 
   public Collection<Replay> getLocalReplays() {
-    return localReplays;
+    return localReplays.values();
   }
 
-  protected Thread startDirectoryWatcher(Path replaysDirectory) throws IOException {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      try (WatchService watcher = replaysDirectory.getFileSystem().newWatchService()) {
-        replaysDirectory.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          onLocalReplaysWatchEvent(key);
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        logger.debug("Local replay directory watcher terminated ({})", e.getMessage());
+  /**
+   * Removes deleted replay files from the index and (re)loads new or modified ones. Called by the {@link
+   * DirectoryWatcherService} once changes have settled for {@link ClientProperties.Replay#getLocalReplaysSettleDelay()},
+   * so bulk changes result in a single {@link LocalReplaysChangedEvent}.
+   */
+  @VisibleForTesting
+  void onLocalReplaysChanged(DirectoryChanges changes) {
+    PathMatcher replayFileMatcher = FileSystems.getDefault().getPathMatcher("glob:" + clientProperties.getReplay().getReplayFileGlob());
+
+    List<LocalReplayFile> changedReplayFiles = new ArrayList<>();
+    List<Replay> deletedReplays = new ArrayList<>();
+
+    for (Path path : changes.getRemovedPaths()) {
+      localReplayIndex.remove(path);
+      Optional.ofNullable(localReplays.remove(path)).ifPresent(deletedReplays::add);
+    }
+
+    for (Path path : Sets.union(changes.getAddedPaths(), changes.getChangedPaths())) {
+      BasicFileAttributes attributes;
+      try {
+        attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      } catch (IOException e) {
+        // File has been deleted since the changes settled, which will be reported separately
+        continue;
       }
-    }));
-    thread.setDaemon(true);
-    thread.start();
-    return thread;
-  }
 
-  @VisibleForTesting
-  protected void onLocalReplaysWatchEvent(WatchKey key) {
-    List<CompletableFuture<Replay>> newReplaysFutures = new ArrayList<CompletableFuture<Replay>>();
-    Collection<Replay> deletedReplays = new ArrayList<Replay>();
-    for (WatchEvent<?> watchEvent : key.pollEvents()) {
-      Path path = (Path) watchEvent.context();
-      Path fullPathToReplay = preferencesService.getReplaysDirectory().resolve(path);
-
-      if (watchEvent.kind() == ENTRY_CREATE) {
-        newReplaysFutures.add(tryLoadingLocalReplay(fullPathToReplay));
-      } else if (watchEvent.kind() == ENTRY_DELETE) {
-        Optional<Replay> existingReplay = localReplays
-            .stream()
-            .filter(replay -> replay.getReplayFile().compareTo(fullPathToReplay) == 0)
-            .findFirst();
-
-        if (existingReplay.isPresent()) {
-          Replay deletedReplay = existingReplay.get();
-          deletedReplays.add(deletedReplay);
-          localReplays.remove(deletedReplay);
-        }
+      if (!attributes.isRegularFile() || !replayFileMatcher.matches(path.getFileName())) {
+        continue;
       }
-    }
 
-    CompletableFuture[] replayFuturesArray = newReplaysFutures.toArray(new CompletableFuture[newReplaysFutures.size()]);
-    CompletableFuture<List<Replay>> newReplaysFuture = CompletableFuture.allOf(replayFuturesArray)
-        .thenApply(ignoredVoid ->
-            newReplaysFutures.stream()
-                .map(CompletableFuture::join)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList())
-    );
+      long size = attributes.size();
+      long lastModified = attributes.lastModifiedTime().toMillis();
+      if (localReplays.containsKey(path) && localReplayIndex.get(path, size, lastModified).isPresent()) {
+        continue;
+      }
 
-    try {
-      List<Replay> newReplays = newReplaysFuture.get();
-      localReplays.addAll(newReplays);
-      publisher.publishEvent(new LocalReplaysChangedEvent(this, newReplays, deletedReplays));
-    } catch (Exception e) {
-      logger.warn("Failed to load new local replays ({})", e.getMessage());
+      Optional.ofNullable(localReplays.remove(path)).ifPresent(deletedReplays::add);
+      changedReplayFiles.add(new LocalReplayFile(path, size, lastModified));
     }
+
+    if (changedReplayFiles.isEmpty() && deletedReplays.isEmpty()) {
+      localReplayIndex.store();
+      return;
+    }
+
+    List<Replay> newReplays = loadLocalReplays(changedReplayFiles, chunk -> {
+    }).join();
+    newReplays.forEach(replay -> localReplays.put(replay.getReplayFile(), replay));
+    localReplayIndex.store();
+    publisher.publishEvent(new LocalReplaysChangedEvent(this, newReplays, deletedReplays));
   }
 
   @VisibleForTesting
@@ -276,7 +276,10 @@ public class ReplayService {
   }
 
   /**
-   * Loads some, but not all, local replays. Loading all local replays could result in OOME.
+   * Loads all local replays. Metadata of replay files which haven't changed since the last start is taken from the
+   * {@link LocalReplayIndex}, so only new or modified replay files need to be parsed. Replay files are processed newest
+   * first in chunks of {@link #LOCAL_REPLAYS_CHUNK_SIZE}; each chunk is parsed in parallel and published as a {@link
+   * LocalReplaysChangedEvent} as soon as its maps and featured mods have been resolved.
    */
   @Async
   public CompletableFuture<Collection<Replay>> loadLocalReplays() throws IOException {
@@ -287,45 +290,158 @@ public class ReplayService {
       noCatch(() -> createDirectories(replaysDirectory));
     }
 
+    List<LocalReplayFile> replayFiles = listLocalReplayFiles(replaysDirectory, replayFileGlob);
+    localReplayIndex.retainAll(replayFiles.stream().map(LocalReplayFile::getPath).collect(Collectors.toList()));
 
-    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(replaysDirectory, replayFileGlob)) {
-      List<CompletableFuture<Replay>> replayFutures = StreamSupport.stream(directoryStream.spliterator(), false)
-          .sorted(Comparator.comparing(path -> noCatch(() -> Files.getLastModifiedTime((Path) path))).reversed())
-          .limit(MAX_REPLAYS)
-          .map(this::tryLoadingLocalReplay)
-          .filter(e -> !e.isCompletedExceptionally())
+    if (replayFiles.isEmpty()) {
+      onLocalReplaysLoaded(Collections.emptyList());
+      return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    return loadLocalReplays(replayFiles, this::onLocalReplaysLoaded)
+        .thenApply(replays -> {
+          localReplayIndex.store();
+          return replays;
+        });
+  }
+
+  /**
+   * Parses the specified replay files chunk by chunk and resolves their featured mods and maps. Each resolved chunk is
+   * passed to {@code chunkListener}.
+   */
+  private CompletableFuture<List<Replay>> loadLocalReplays(List<LocalReplayFile> replayFiles, Consumer<List<Replay>> chunkListener) {
+    // Lookups are shared across chunks so that each featured mod and map is only requested once
+    Map<String, CompletableFuture<FeaturedMod>> featuredModLookups = new HashMap<>();
+    Map<String, CompletableFuture<Optional<MapBean>>> mapLookups = new HashMap<>();
+    List<CompletableFuture<List<Replay>>> chunkFutures = new ArrayList<>();
+
+    for (List<LocalReplayFile> chunk : Lists.partition(replayFiles, LOCAL_REPLAYS_CHUNK_SIZE)) {
+      List<Tuple<Path, LocalReplayInfo>> parsedReplays = parseLocalReplays(chunk);
+
+      List<CompletableFuture<Replay>> replayFutures = parsedReplays.stream()
+          .map(parsedReplay -> {
+            LocalReplayInfo replayInfo = parsedReplay.getSecond();
+            return toReplay(parsedReplay.getFirst(), replayInfo,
+                featuredModLookups.computeIfAbsent(replayInfo.getFeaturedMod(), modService::getFeaturedMod),
+                mapLookups.computeIfAbsent(replayInfo.getMapname(), this::findMapByFolderName));
+          })
           .collect(Collectors.toList());
 
-      CompletableFuture[] replayFuturesArray = replayFutures.toArray(new CompletableFuture[replayFutures.size()]);
-      return CompletableFuture.allOf(replayFuturesArray)
-          .thenApply(ignoredVoid ->
-              replayFutures.stream()
-                  .map(CompletableFuture::join)
-                  .filter(Objects::nonNull)
-                  .collect(Collectors.toList()));
+      chunkFutures.add(CompletableFuture.allOf(replayFutures.toArray(new CompletableFuture[0]))
+          .thenApply(ignoredVoid -> {
+            List<Replay> replays = replayFutures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+            chunkListener.accept(replays);
+            return replays;
+          }));
+    }
 
+    return CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture[0]))
+        .thenApply(ignoredVoid -> chunkFutures.stream()
+            .map(CompletableFuture::join)
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * Lists the replay files in the specified directory, newest first. The attributes of each file are read only once.
+   */
+  private List<LocalReplayFile> listLocalReplayFiles(Path replaysDirectory, String replayFileGlob) throws IOException {
+    List<LocalReplayFile> replayFiles = new ArrayList<>();
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(replaysDirectory, replayFileGlob)) {
+      for (Path replayFile : directoryStream) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(replayFile, BasicFileAttributes.class);
+          replayFiles.add(new LocalReplayFile(replayFile, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (IOException e) {
+          logger.warn("Could not read attributes of replay file '{}'", replayFile, e);
+        }
+      }
     }
+    replayFiles.sort(Comparator.comparingLong(LocalReplayFile::getLastModified).reversed());
+    return replayFiles;
   }
 
-  private CompletableFuture<Replay> tryLoadingLocalReplay(Path replayFile)  {
+  /**
+   * Reads the metadata of the specified replay files, using at most {@link #LOCAL_REPLAYS_PARSER_PARALLELISM} threads
+   * of the executor. Corrupt replay files are moved away and omitted from the result.
+   */
+  private List<Tuple<Path, LocalReplayInfo>> parseLocalReplays(List<LocalReplayFile> replayFiles) {
+    int partitionSize = (replayFiles.size() + LOCAL_REPLAYS_PARSER_PARALLELISM - 1) / LOCAL_REPLAYS_PARSER_PARALLELISM;
+
+    List<CompletableFuture<List<Tuple<Path, LocalReplayInfo>>>> partitionFutures = Lists.partition(replayFiles, partitionSize).stream()
+        .map(partition -> CompletableFuture.supplyAsync(() -> partition.stream()
+            .map(this::tryReadingLocalReplayInfo)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList()), executorService))
+        .collect(Collectors.toList());
+
+    return partitionFutures.stream()
+        .map(CompletableFuture::join)
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Nullable
+  private Tuple<Path, LocalReplayInfo> tryReadingLocalReplayInfo(LocalReplayFile replayFile) {
     try {
-      LocalReplayInfo replayInfo = replayFileReader.parseMetaData(replayFile);
+      return new Tuple<>(replayFile.getPath(), readLocalReplayInfo(replayFile));
+    } catch (Exception e) {
+      logger.warn("Could not read replay file '{}'", replayFile.getPath(), e);
+      localReplayIndex.remove(replayFile.getPath());
+      moveCorruptedReplayFile(replayFile.getPath());
+      return null;
+    }
+  }
 
-      CompletableFuture<FeaturedMod> featuredModFuture = modService.getFeaturedMod(replayInfo.getFeaturedMod());
-      CompletableFuture<Optional<MapBean>> mapBeanFuture = mapService.findByMapFolderName(replayInfo.getMapname());
+  private CompletableFuture<Replay> toReplay(Path replayFile, LocalReplayInfo replayInfo,
+                                             CompletableFuture<FeaturedMod> featuredModFuture,
+                                             CompletableFuture<Optional<MapBean>> mapBeanFuture) {
+    return CompletableFuture.allOf(featuredModFuture, mapBeanFuture)
+        .thenApply(ignoredVoid -> {
+          Optional<MapBean> mapBean = mapBeanFuture.join();
+          if (!mapBean.isPresent()) {
+            logger.warn("Could not find map for replay file '{}'", replayFile);
+          }
+          return new Replay(replayInfo, replayFile, featuredModFuture.join(), mapBean.orElse(null));
+        })
+        .exceptionally(throwable -> {
+          logger.warn("Could not resolve featured mod or map of replay file '{}'", replayFile, throwable);
+          return null;
+        });
+  }
 
-      return CompletableFuture.allOf(featuredModFuture, mapBeanFuture).thenApply(ignoredVoid  -> {
-        Optional<MapBean> mapBean = mapBeanFuture.join();
-        if (!mapBean.isPresent()) {
-          logger.warn("Could not find map for replay file '{}'", replayFile);
-        }
-        return new Replay(replayInfo, replayFile, featuredModFuture.join(), mapBean.orElse(null));
-      });
-    } catch (Exception e) {
-      logger.warn("Could not read replay file '{}'", replayFile, e);
-      moveCorruptedReplayFile(replayFile);
-      return CompletableFuture.completedFuture(null);
+  private void onLocalReplaysLoaded(Collection<Replay> replays) {
+    replays.forEach(replay -> localReplays.put(replay.getReplayFile(), replay));
+    publisher.publishEvent(new LocalReplaysChangedEvent(this, replays, Collections.emptyList()));
+  }
+
+  /**
+   * Coop replays don't have a map name in their metadata, so there's nothing to look up.
+   */
+  private CompletableFuture<Optional<MapBean>> findMapByFolderName(@Nullable String mapFolderName) {
+    if (mapFolderName == null) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+    return mapService.findByMapFolderName(mapFolderName);
+  }
+
+  /**
+   * Returns the metadata of the specified replay file from the index or, if the file is new or has been modified since
+   * it was indexed, parses it and updates the index.
+   */
+  private LocalReplayInfo readLocalReplayInfo(LocalReplayFile replayFile) {
+    Path path = replayFile.getPath();
+    Optional<LocalReplayInfo> indexedReplayInfo = localReplayIndex.get(path, replayFile.getSize(), replayFile.getLastModified());
+    if (indexedReplayInfo.isPresent()) {
+      return indexedReplayInfo.get();
     }
+
+    LocalReplayInfo replayInfo = replayFileReader.parseMetaData(path);
+    localReplayIndex.put(path, replayFile.getSize(), replayFile.getLastModified(), replayInfo);
+    return replayInfo;
   }
 
   private void moveCorruptedReplayFile(Path replayFile) {
@@ -554,4 +670,11 @@ public class ReplayService {
     SortConfig sortConfig = new SortConfig("startTime", SortOrder.DESC);
     return getReplaysForPlayerWithPageCount(userService.getUserId(), maxResults, page, sortConfig);
   }
+
+  @Value
+  private static class LocalReplayFile {
+    Path path;
+    long size;
+    long lastModified;
+  }
 }
@@ -8,10 +8,16 @@ import java.util.concurrent.CompletableFuture;
 public abstract class CompletableTask<V> extends Task<V> implements PrioritizedCompletableTask<V> {
 
   private final CompletableFuture<V> future;
+  private final Category category;
   private Priority priority;
 
   public CompletableTask(Priority priority) {
+    this(priority, Category.DEFAULT);
+  }
+
+  public CompletableTask(Priority priority, Category category) {
     this.priority = priority;
+    this.category = category;
     this.future = new CompletableFuture<>();
     setOnCancelled(event -> future.cancel(true));
     setOnFailed(event -> future.completeExceptionally(getException()));
@@ -27,6 +33,16 @@ public abstract class CompletableTask<V> extends Task<V> implements PrioritizedC
     return priority.compareTo(other.priority);
   }
 
+  @Override
+  public Priority getPriority() {
+    return priority;
+  }
+
+  @Override
+  public Category getCategory() {
+    return category;
+  }
+
   public void setPriority(Priority priority) {
     if (this.priority != null) {
       throw new IllegalStateException("Priority has already been set");
@@ -45,4 +61,19 @@ public abstract class CompletableTask<V> extends Task<V> implements PrioritizedC
     MEDIUM,
     HIGH
   }
+
+  /**
+   * Determines which resource a task mainly uses. The number of tasks of a category that run concurrently is limited,
+   * see {@link TaskService}.
+   */
+  public enum Category {
+    /** Downloads and uploads. */
+    NETWORK,
+    /** Tasks that mainly read or write local files. */
+    DISK,
+    /** Computationally expensive tasks. */
+    CPU,
+    /** Short tasks that don't need a particular resource. */
+    DEFAULT
+  }
 }
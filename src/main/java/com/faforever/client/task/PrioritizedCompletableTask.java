@@ -13,6 +13,10 @@ public interface PrioritizedCompletableTask<V> extends Comparable<CompletableTas
 
   String getTitle();
 
+  CompletableTask.Priority getPriority();
+
+  CompletableTask.Category getCategory();
+
   boolean cancel(boolean mayInterruptIfRunning);
 
   CompletableFuture<V> getFuture();
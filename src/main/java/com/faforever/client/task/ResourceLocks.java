@@ -1,34 +1,61 @@
 package com.faforever.client.task;
 
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
+
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Coordinates tasks that use the same resources.
+ * <p>
+ * Disk locks are held per path, so that tasks that write to different files or directories can run at the same time.
+ * Network locks arbitrate the bandwidth between transfers: downloads and uploads share a fixed number of transfer slots
+ * of which uploads may only use one, so an upload neither blocks downloads nor can it be starved by them.
+ */
 public class ResourceLocks {
 
-  private static final ReentrantReadWriteLock NETWORK_LOCK = new ReentrantReadWriteLock();
-  private static final ReentrantLock DISK_LOCK = new ReentrantLock();
+  private static final int MAX_CONCURRENT_TRANSFERS = 4;
+  private static final int MAX_CONCURRENT_UPLOADS = 1;
+  private static final int DISK_LOCK_STRIPES = 64;
+
+  private static final Semaphore TRANSFER_PERMITS = new Semaphore(MAX_CONCURRENT_TRANSFERS, true);
+  private static final Semaphore UPLOAD_PERMITS = new Semaphore(MAX_CONCURRENT_UPLOADS, true);
+  private static final Striped<Lock> DISK_LOCKS = Striped.lock(DISK_LOCK_STRIPES);
 
   public static void acquireDownloadLock() {
-    NETWORK_LOCK.readLock().lock();
+    TRANSFER_PERMITS.acquireUninterruptibly();
   }
 
   public static void freeDownloadLock() {
-    NETWORK_LOCK.readLock().unlock();
+    TRANSFER_PERMITS.release();
   }
 
   public static void acquireUploadLock() {
-    NETWORK_LOCK.writeLock().lock();
+    UPLOAD_PERMITS.acquireUninterruptibly();
+    TRANSFER_PERMITS.acquireUninterruptibly();
   }
 
   public static void freeUploadLock() {
-    NETWORK_LOCK.writeLock().unlock();
+    TRANSFER_PERMITS.release();
+    UPLOAD_PERMITS.release();
+  }
+
+  /**
+   * Acquires the lock for the specified file or directory. Tasks must not hold more than one disk lock at a time, as
+   * different paths may share the same lock.
+   */
+  public static void acquireDiskLock(Path path) {
+    getDiskLock(path).lock();
   }
 
-  public static void acquireDiskLock() {
-    DISK_LOCK.lock();
+  public static void freeDiskLock(Path path) {
+    getDiskLock(path).unlock();
   }
 
-  public static void freeDiskLock() {
-    DISK_LOCK.unlock();
+  @VisibleForTesting
+  static Lock getDiskLock(Path path) {
+    return DISK_LOCKS.get(path.toAbsolutePath().normalize());
   }
 }
@@ -1,51 +1,90 @@
 package com.faforever.client.task;
 
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.task.CompletableTask.Category;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Worker;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Enqueues and runs tasks in background. Services that need to run a task (tasks that finish, not long-running
  * background jobs) in background should always submit them to this service.
  * <p>
- * There are different queues for different kind of tasks. For every queue, only one task is executed at a time.
+ * There is a queue for every {@link Category} of tasks. Of every category, only a limited number of tasks is executed
+ * at a time (see {@link ClientProperties.Task}), so that for instance many downloads don't compete for bandwidth. The
+ * tasks waiting in a queue are executed by priority and in the order they were submitted. If too many tasks are
+ * waiting, further tasks are rejected. Waiting tasks that are cancelled are removed from their queue.
  */
 @Lazy
 @Service
-@RequiredArgsConstructor
 public class TaskService {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  /** Highest priority first, then in the order of submission. */
+  private static final Comparator<QueuedTask> QUEUED_TASK_ORDER = Comparator
+      .comparing((QueuedTask queuedTask) -> queuedTask.task.getPriority(), Comparator.reverseOrder())
+      .thenComparingLong(queuedTask -> queuedTask.sequence);
+
   private final ExecutorService executorService;
+  private final int maxQueuedTasks;
+  private final Map<Category, TaskQueue> queues;
   private final ObservableList<Worker<?>> activeTasks = FXCollections.synchronizedObservableList(FXCollections.observableArrayList());
 
   private ObservableList<Worker<?>> unmodifiableObservableList = FXCollections.unmodifiableObservableList(activeTasks);
 
+  public TaskService(ExecutorService executorService, ClientProperties clientProperties) {
+    this.executorService = executorService;
+
+    ClientProperties.Task taskProperties = clientProperties.getTask();
+    maxQueuedTasks = taskProperties.getMaxQueuedTasks();
+    queues = new EnumMap<>(Category.class);
+    queues.put(Category.NETWORK, new TaskQueue(taskProperties.getMaxNetworkTasks()));
+    queues.put(Category.DISK, new TaskQueue(taskProperties.getMaxDiskTasks()));
+    queues.put(Category.CPU, new TaskQueue(taskProperties.getMaxCpuTasks()));
+    queues.put(Category.DEFAULT, new TaskQueue(taskProperties.getMaxDefaultTasks()));
+  }
+
   /**
-   * Submits a task for execution in background.
+   * Submits a task for execution in background. If too many tasks of the same category are already waiting, the task's
+   * future is completed with a {@link RejectedExecutionException}.
+   *
    * @param <T> the task's result type
    * @param task the task to execute
    */
   @SuppressWarnings("unchecked")
   public <T extends PrioritizedCompletableTask> T submitTask(T task) {
+    TaskQueue queue = queues.get(task.getCategory());
+
     task.getFuture().whenComplete((o, throwable) -> {
       activeTasks.remove(task);
+      queue.remove(task);
       if (throwable != null) {
         logger.warn("Task failed", (Throwable) throwable);
       }
     });
 
+    if (!queue.offer(task)) {
+      task.getFuture().completeExceptionally(new RejectedExecutionException(
+          "Too many " + task.getCategory() + " tasks are waiting, rejecting task: " + task.getTitle()));
+      return task;
+    }
+
     activeTasks.add(task);
-    executorService.execute(task);
+    dispatch(queue);
 
     return task;
   }
@@ -53,4 +92,74 @@ public class TaskService {
   public ObservableList<Worker<?>> getActiveWorkers() {
     return unmodifiableObservableList;
   }
+
+  private void dispatch(TaskQueue queue) {
+    PrioritizedCompletableTask<?> task;
+    while ((task = queue.pollIfPermitted()) != null) {
+      PrioritizedCompletableTask<?> nextTask = task;
+      try {
+        executorService.execute(() -> {
+          try {
+            nextTask.run();
+          } finally {
+            queue.release();
+            dispatch(queue);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        queue.release();
+        nextTask.getFuture().completeExceptionally(e);
+      }
+    }
+  }
+
+  private class TaskQueue {
+
+    private final int maxRunningTasks;
+    private final Queue<QueuedTask> waitingTasks;
+    private int runningTasks;
+    private long sequence;
+
+    private TaskQueue(int maxRunningTasks) {
+      this.maxRunningTasks = Math.max(1, maxRunningTasks);
+      waitingTasks = new PriorityQueue<>(QUEUED_TASK_ORDER);
+    }
+
+    synchronized boolean offer(PrioritizedCompletableTask<?> task) {
+      if (waitingTasks.size() >= maxQueuedTasks) {
+        return false;
+      }
+      waitingTasks.add(new QueuedTask(task, sequence++));
+      return true;
+    }
+
+    /**
+     * Returns the next task to run, if there is one and the maximum number of running tasks has not been reached.
+     */
+    synchronized PrioritizedCompletableTask<?> pollIfPermitted() {
+      if (runningTasks >= maxRunningTasks || waitingTasks.isEmpty()) {
+        return null;
+      }
+      runningTasks++;
+      return waitingTasks.poll().task;
+    }
+
+    synchronized void release() {
+      runningTasks--;
+    }
+
+    synchronized void remove(PrioritizedCompletableTask<?> task) {
+      waitingTasks.removeIf(queuedTask -> queuedTask.task == task);
+    }
+  }
+
+  private static class QueuedTask {
+    private final PrioritizedCompletableTask<?> task;
+    private final long sequence;
+
+    private QueuedTask(PrioritizedCompletableTask<?> task, long sequence) {
+      this.task = task;
+      this.sequence = sequence;
+    }
+  }
 }
@@ -0,0 +1,81 @@
+package com.faforever.client.theme;
+
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An HTML template of a theme, like a chat message, with placeholders like {@code {username}}. The template is parsed
+ * once, so that rendering it only concatenates its literal parts with the placeholder values. Every placeholder is
+ * replaced in a single pass, so values that contain placeholders themselves are never replaced again.
+ */
+public final class HtmlTemplate {
+
+  private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([a-z][a-z0-9-]*)}");
+
+  /** The literal parts of the template. There is one literal before and after every placeholder. */
+  private final String[] literals;
+  private final String[] placeholders;
+  private final int literalsLength;
+
+  private HtmlTemplate(String[] literals, String[] placeholders) {
+    this.literals = literals;
+    this.placeholders = placeholders;
+
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    literalsLength = length;
+  }
+
+  public static HtmlTemplate compile(String template) {
+    List<String> literals = new ArrayList<>();
+    List<String> placeholders = new ArrayList<>();
+
+    Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+    int literalStart = 0;
+    while (matcher.find()) {
+      literals.add(template.substring(literalStart, matcher.start()));
+      placeholders.add(matcher.group(1));
+      literalStart = matcher.end();
+    }
+    literals.add(template.substring(literalStart));
+
+    return new HtmlTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+  }
+
+  public static HtmlTemplate load(URL url) throws IOException {
+    try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+      return compile(CharStreams.toString(reader));
+    }
+  }
+
+  /**
+   * Renders this template with the specified values by placeholder name. Placeholders without a value are rendered
+   * as they are.
+   */
+  public String render(Map<String, String> values) {
+    StringBuilder stringBuilder = new StringBuilder(literalsLength + placeholders.length * 16);
+    for (int i = 0; i < placeholders.length; i++) {
+      stringBuilder.append(literals[i]);
+
+      String value = values.get(placeholders[i]);
+      if (value != null) {
+        stringBuilder.append(value);
+      } else {
+        stringBuilder.append('{').append(placeholders[i]).append('}');
+      }
+    }
+    return stringBuilder.append(literals[placeholders.length]).toString();
+  }
+}
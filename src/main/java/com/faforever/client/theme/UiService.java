@@ -67,6 +67,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
@@ -134,6 +135,8 @@ public class UiService implements InitializingBean, DisposableBean {
   private final Map<Theme, String> folderNamesByTheme;
   private final Map<Path, WatchKey> watchKeys;
   private final ObjectProperty<Theme> currentTheme;
+  /** Compiled templates of the current theme by relative file name. */
+  private final Map<String, HtmlTemplate> templatesByFile;
   private Path currentTempStyleSheet;
   private MessageSourceResourceBundle resources;
 
@@ -151,6 +154,7 @@ public class UiService implements InitializingBean, DisposableBean {
     webViews = new HashSet<>();
     watchKeys = new HashMap<>();
     currentTheme = new SimpleObjectProperty<>(DEFAULT_THEME);
+    templatesByFile = new ConcurrentHashMap<>();
     folderNamesByTheme = new HashMap<>();
     themesByFolderName = FXCollections.observableHashMap();
     themesByFolderName.addListener((MapChangeListener<String, Theme>) change -> {
@@ -258,6 +262,7 @@ public class UiService implements InitializingBean, DisposableBean {
       }
     }
 
+    templatesByFile.clear();
     reloadStylesheet();
   }
 
@@ -304,6 +309,14 @@ public class UiService implements InitializingBean, DisposableBean {
   }
 
 
+  /**
+   * Returns the compiled HTML template from the current theme. Templates are only read once, until the theme or any of
+   * its files change.
+   */
+  public HtmlTemplate getThemeTemplate(String relativeFile) {
+    return templatesByFile.computeIfAbsent(relativeFile, file -> noCatch(() -> HtmlTemplate.load(getThemeFileUrl(file))));
+  }
+
   public URL getThemeFileUrl(String relativeFile) {
     String themeFile = getThemeFile(relativeFile);
     if (themeFile.startsWith("file:") || themeFile.startsWith("jar:")) {
@@ -325,6 +338,7 @@ public class UiService implements InitializingBean, DisposableBean {
     preferencesService.storeInBackground();
     currentTheme.set(theme);
     cacheManager.getCache(CacheNames.THEME_IMAGES).clear();
+    templatesByFile.clear();
     reloadStylesheet();
   }
 
@@ -0,0 +1,168 @@
+package com.faforever.client.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A set of {@code int} values that doesn't box its elements, for sets that are looked up very often, like the IDs of
+ * all friends for every player that comes online. Uses open addressing with linear probing.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IntHashSet {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  /** Marks an empty slot. The value itself is tracked by {@link #containsFree}. */
+  private static final int FREE = 0;
+
+  private int[] slots;
+  private int size;
+  private boolean containsFree;
+
+  public IntHashSet() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntHashSet(int expectedSize) {
+    slots = new int[capacityFor(expectedSize)];
+  }
+
+  public boolean contains(int value) {
+    if (value == FREE) {
+      return containsFree;
+    }
+    return slots[indexOf(value)] == value;
+  }
+
+  /**
+   * @return {@code true} if the value was not yet contained
+   */
+  public boolean add(int value) {
+    if (value == FREE) {
+      if (containsFree) {
+        return false;
+      }
+      containsFree = true;
+      size++;
+      return true;
+    }
+
+    int index = indexOf(value);
+    if (slots[index] == value) {
+      return false;
+    }
+    slots[index] = value;
+    size++;
+    if (size > slots.length * LOAD_FACTOR) {
+      rehash(slots.length * 2);
+    }
+    return true;
+  }
+
+  public void addAll(Collection<Integer> values) {
+    values.forEach(this::add);
+  }
+
+  /**
+   * @return {@code true} if the value was contained
+   */
+  public boolean remove(int value) {
+    if (value == FREE) {
+      if (!containsFree) {
+        return false;
+      }
+      containsFree = false;
+      size--;
+      return true;
+    }
+
+    int index = indexOf(value);
+    if (slots[index] != value) {
+      return false;
+    }
+    slots[index] = FREE;
+    size--;
+    closeGap(index);
+    return true;
+  }
+
+  public void clear() {
+    Arrays.fill(slots, FREE);
+    containsFree = false;
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int[] toArray() {
+    int[] values = new int[size];
+    int i = 0;
+    if (containsFree) {
+      values[i++] = FREE;
+    }
+    for (int slot : slots) {
+      if (slot != FREE) {
+        values[i++] = slot;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the slot that contains the value or, if it isn't contained, the free slot it would be put into.
+   */
+  private int indexOf(int value) {
+    int mask = slots.length - 1;
+    int index = hash(value) & mask;
+    while (slots[index] != FREE && slots[index] != value) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  /**
+   * Moves back the values that follow a removed one, so that lookups don't stop at the gap it left.
+   */
+  private void closeGap(int gap) {
+    int mask = slots.length - 1;
+    int index = (gap + 1) & mask;
+    while (slots[index] != FREE) {
+      int home = hash(slots[index]) & mask;
+      // Move the value into the gap unless its home slot lies cyclically within (gap, index]
+      if (((index - home) & mask) >= ((index - gap) & mask)) {
+        slots[gap] = slots[index];
+        slots[index] = FREE;
+        gap = index;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] oldSlots = slots;
+    slots = new int[capacity];
+    for (int value : oldSlots) {
+      if (value != FREE) {
+        slots[indexOf(value)] = value;
+      }
+    }
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), DEFAULT_CAPACITY) - 1) << 1;
+    return Math.max(capacity, DEFAULT_CAPACITY);
+  }
+
+  private static int hash(int value) {
+    int hash = value * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -1,20 +1,40 @@
 package com.faforever.client.util;
 
-import com.google.common.io.CharStreams;
 import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.Varargs;
 import org.luaj.vm2.lib.jse.JsePlatform;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Runs Lua files like {@code *_scenario.lua}. Setting up a Lua environment with the standard libraries and
+ * {@code faf.lua} is far more expensive than running a typical declarative file, so every thread keeps one prepared
+ * environment that is reset after each file. {@code faf.lua} is compiled only once and shared by all environments. This
+ * allows to read files on multiple threads in parallel.
+ */
 public final class LuaUtil {
 
+  private static final ThreadLocal<LuaEnvironment> environments = new ThreadLocal<>();
+  private static volatile Prototype fafLuaPrototype;
+
   private LuaUtil() {
     throw new AssertionError("Not instantiatable");
   }
@@ -25,10 +45,136 @@ public final class LuaUtil {
     }
   }
 
+  /**
+   * Runs the specified Lua script and returns a table of the global variables it has set.
+   */
   public static LuaValue load(InputStream inputStream) throws IOException {
-    Globals globals = JsePlatform.standardGlobals();
-    globals.baselib.load(globals.load(CharStreams.toString(new InputStreamReader(LuaUtil.class.getResourceAsStream("/lua/faf.lua"), UTF_8))));
-    globals.load(inputStream, "@" + inputStream.hashCode(), "bt", globals).invoke();
-    return globals;
+    LuaEnvironment environment = environments.get();
+    if (environment == null) {
+      environment = new LuaEnvironment(getFafLuaPrototype());
+      environments.set(environment);
+    }
+    return environment.run(inputStream);
+  }
+
+  private static Prototype getFafLuaPrototype() throws IOException {
+    if (fafLuaPrototype == null) {
+      synchronized (LuaUtil.class) {
+        if (fafLuaPrototype == null) {
+          try (Reader reader = new InputStreamReader(LuaUtil.class.getResourceAsStream("/lua/faf.lua"), UTF_8)) {
+            fafLuaPrototype = JsePlatform.standardGlobals().compilePrototype(reader, "faf.lua");
+          }
+        }
+      }
+    }
+    return fafLuaPrototype;
+  }
+
+  /**
+   * Lua globals with the standard libraries and {@code faf.lua} loaded. Must only be used by a single thread.
+   * <p>
+   * After every script, each table that was reachable from the globals once {@code faf.lua} had run (the globals
+   * themselves, the standard libraries like {@code string} or {@code math} and the tables defined by {@code faf.lua})
+   * gets its initial contents and metatable back, so that a script changing e.g. {@code string.upper} doesn't affect
+   * later scripts. Only the metatable of strings can't be restored, as LuaJ shares it between all environments.
+   */
+  private static final class LuaEnvironment {
+
+    private final Globals globals;
+    /** The global variables after {@code faf.lua} has been run, to tell which globals a script has set. */
+    private final Map<LuaValue, LuaValue> initialGlobals;
+    /** The contents of all tables reachable from the globals after {@code faf.lua} has been run, including the globals. */
+    private final Map<LuaTable, TableSnapshot> initialTables;
+
+    LuaEnvironment(Prototype fafLuaPrototype) {
+      globals = JsePlatform.standardGlobals();
+      globals.baselib.load(new LuaClosure(fafLuaPrototype, globals));
+
+      initialTables = new IdentityHashMap<>();
+      snapshot(globals);
+      initialGlobals = initialTables.get(globals).entries;
+    }
+
+    LuaValue run(InputStream inputStream) {
+      try {
+        globals.load(inputStream, "@" + inputStream.hashCode(), "bt", globals).invoke();
+
+        LuaTable result = new LuaTable();
+        forEachEntry(globals, (key, value) -> {
+          if (initialGlobals.get(key) != value) {
+            result.rawset(key, value);
+          }
+        });
+        return result;
+      } finally {
+        reset();
+      }
+    }
+
+    private void snapshot(LuaTable table) {
+      if (initialTables.containsKey(table)) {
+        return;
+      }
+      Map<LuaValue, LuaValue> entries = new HashMap<>();
+      forEachEntry(table, entries::put);
+      LuaValue metatable = table.getmetatable();
+      initialTables.put(table, new TableSnapshot(entries, metatable));
+
+      for (LuaValue value : entries.values()) {
+        if (value.istable()) {
+          snapshot((LuaTable) value);
+        }
+      }
+      if (metatable != null && metatable.istable()) {
+        snapshot((LuaTable) metatable);
+      }
+    }
+
+    private void reset() {
+      for (Entry<LuaTable, TableSnapshot> initialTable : initialTables.entrySet()) {
+        LuaTable table = initialTable.getKey();
+        TableSnapshot snapshot = initialTable.getValue();
+
+        List<LuaValue> keys = new ArrayList<>();
+        forEachEntry(table, (key, value) -> {
+          if (snapshot.entries.get(key) != value) {
+            keys.add(key);
+          }
+        });
+        for (LuaValue key : keys) {
+          table.rawset(key, LuaValue.NIL);
+        }
+        for (Entry<LuaValue, LuaValue> entry : snapshot.entries.entrySet()) {
+          if (table.rawget(entry.getKey()) != entry.getValue()) {
+            table.rawset(entry.getKey(), entry.getValue());
+          }
+        }
+        if (table.getmetatable() != snapshot.metatable) {
+          table.setmetatable(snapshot.metatable);
+        }
+      }
+    }
+
+    private static void forEachEntry(LuaTable table, BiConsumer<LuaValue, LuaValue> consumer) {
+      LuaValue key = LuaValue.NIL;
+      while (true) {
+        Varargs next = table.next(key);
+        key = next.arg1();
+        if (key.isnil()) {
+          return;
+        }
+        consumer.accept(key, next.arg(2));
+      }
+    }
+  }
+
+  private static final class TableSnapshot {
+    private final Map<LuaValue, LuaValue> entries;
+    private final LuaValue metatable;
+
+    TableSnapshot(Map<LuaValue, LuaValue> entries, LuaValue metatable) {
+      this.entries = entries;
+      this.metatable = metatable;
+    }
   }
 }
@@ -1,6 +1,7 @@
 package com.faforever.client.vault.replay;
 
 import com.faforever.client.fx.AbstractViewController;
+import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.main.event.LocalReplaysChangedEvent;
 import com.faforever.client.main.event.NavigateEvent;
@@ -250,11 +251,14 @@ public class ReplayVaultController extends AbstractViewController<Node> {
   public void onLocalReplaysChanged(LocalReplaysChangedEvent event) {
     Collection<Replay> newReplays = event.getNewReplays();
     Collection<Replay> deletedReplays = event.getDeletedReplays();
-    replayTableView.getItems().addAll(newReplays);
-    replayTableView.getItems().removeAll(deletedReplays);
-    replayTableView.sort();
-    replayTableView.setVisible(true);
-    loadingPane.setVisible(false);
+    // Local replays are published in chunks from background threads
+    JavaFxUtil.runLater(() -> {
+      replayTableView.getItems().addAll(newReplays);
+      replayTableView.getItems().removeAll(deletedReplays);
+      replayTableView.sort();
+      replayTableView.setVisible(true);
+      loadingPane.setVisible(false);
+    });
   }
   
   public Node getRoot() {
@@ -48,6 +48,45 @@ function messagePlayer(playerName) {
     java.openPrivateMessageTab(playerName);
 }
 
+/**
+ * Appends rendered messages to the chat container at once, removes the specified number of topmost chat sections and
+ * scrolls down if the chat was scrolled to the bottom before.
+ *
+ * @param messagesJson a JSON array of messages, each with the HTML of its text, the ID of the chat section to append it
+ * to and, if the message starts a new section, the HTML of the section
+ */
+function appendMessages(messagesJson, sectionsToRemove) {
+  var messages = JSON.parse(messagesJson);
+  var container = document.getElementById("chat-container");
+  var fragment = document.createDocumentFragment();
+  var newSections = {};
+  var parser = document.createElement("div");
+
+  for (var i = 0; i < messages.length; i++) {
+    var message = messages[i];
+    if (message.section) {
+      parser.innerHTML = message.section;
+      newSections[message.sectionId] = parser.querySelector("#" + message.sectionId);
+      while (parser.firstChild) {
+        fragment.appendChild(parser.firstChild);
+      }
+    }
+
+    var section = newSections[message.sectionId] || document.getElementById(message.sectionId);
+    if (section) {
+      section.insertAdjacentHTML("beforeend", message.text);
+    }
+  }
+  container.appendChild(fragment);
+
+  var sections = container.getElementsByClassName("chat-section");
+  for (var j = 0; j < sectionsToRemove && sections.length > 0; j++) {
+    sections[0].remove();
+  }
+
+  scrollToBottomIfDesired();
+}
+
 function scrollToBottomIfDesired() {
   if (isScrolledToBottom) {
     window.scrollTo(0, document.documentElement.scrollHeight);
@@ -0,0 +1,175 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.CacheNames;
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestOperations;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class ApiResponseDiskCacheTest {
+
+  private static final String BASE_URL = "https://api.example.com";
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private CacheManager cacheManager;
+  @Mock
+  private Cache cache;
+  @Mock
+  private ClientHttpRequestExecution execution;
+  @Mock
+  private RestOperations restOperations;
+
+  private ClientProperties clientProperties;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    clientProperties = new ClientProperties();
+    clientProperties.getApi().setBaseUrl(BASE_URL);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+    when(cacheManager.getCache(CacheNames.MODS)).thenReturn(cache);
+  }
+
+  @Test
+  public void testUncachedEndpointIsPassedThrough() throws Exception {
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create(BASE_URL + "/me"));
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.OK, "{}"));
+
+    createInstance().intercept(request, new byte[0], execution);
+
+    assertThat(Files.exists(cacheDirectory.getRoot().toPath().resolve("api")), is(false));
+  }
+
+  @Test
+  public void testStoredResponseIsServedAndRevalidated() throws Exception {
+    URI uri = URI.create(BASE_URL + "/data/mod?page[number]=1");
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.OK, "[1]"));
+    ClientHttpResponse firstResponse = createInstance().intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    assertThat(body(firstResponse), is("[1]"));
+
+    // New session: the stored response is served, then revalidated by a new request
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, uri);
+    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.NOT_MODIFIED, ""));
+    ApiResponseDiskCache instance = createInstance();
+    MockClientHttpRequest revalidationRequest = new MockClientHttpRequest(HttpMethod.GET, uri);
+    mockRevalidation(instance, uri, revalidationRequest);
+    ClientHttpResponse secondResponse = instance.intercept(request, new byte[0], execution);
+
+    assertThat(body(secondResponse), is("[1]"));
+    assertThat(request.getHeaders().getIfNoneMatch().isEmpty(), is(true));
+    assertThat(revalidationRequest.getHeaders().getIfNoneMatch().get(0), is("\"etag\""));
+    assertThat(revalidationRequest.getHeaders().getAccept(), is(List.of(MediaType.APPLICATION_JSON)));
+    verify(cache, never()).clear();
+  }
+
+  @Test
+  public void testNotModifiedResponseRenewsStoredResponse() throws Exception {
+    URI uri = URI.create(BASE_URL + "/data/mod");
+    clientProperties.getApi().setDiskCacheMaxStale(Duration.ofMinutes(1));
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.OK, "[1]"));
+    ApiResponseDiskCache instance = createInstance();
+    instance.intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+
+    Path responseFile = instance.getResponseFile(uri.toString());
+    String storedResponse = new String(Files.readAllBytes(responseFile), UTF_8);
+    Files.write(responseFile, storedResponse.replaceFirst("\"storedAt\":\\d+", "\"storedAt\":0").getBytes(UTF_8));
+
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.NOT_MODIFIED, ""));
+    ClientHttpResponse revalidatedResponse = instance.intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    assertThat(body(revalidatedResponse), is("[1]"));
+
+    // New session: the renewed response is recent enough to be served from disk
+    ClientHttpResponse storedResponseOfNewSession = createInstance().intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    assertThat(body(storedResponseOfNewSession), is("[1]"));
+    verify(execution, times(2)).execute(any(), any());
+  }
+
+  @Test
+  public void testCacheIsClearedIfRevalidatedResponseChanged() throws Exception {
+    URI uri = URI.create(BASE_URL + "/data/mod");
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.OK, "[1]"));
+    createInstance().intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    verifyZeroInteractions(cache);
+
+    when(execution.execute(any(), any())).thenAnswer(invocation -> response(HttpStatus.OK, "[2]"));
+    ApiResponseDiskCache instance = createInstance();
+    mockRevalidation(instance, uri, new MockClientHttpRequest(HttpMethod.GET, uri));
+    ClientHttpResponse staleResponse = instance.intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+
+    assertThat(body(staleResponse), is("[1]"));
+    verify(cache).clear();
+
+    ClientHttpResponse freshResponse = instance.intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    assertThat(body(freshResponse), is("[2]"));
+  }
+
+  private ApiResponseDiskCache createInstance() {
+    ApiResponseDiskCache instance = new ApiResponseDiskCache(preferencesService, clientProperties, cacheManager, MoreExecutors.newDirectExecutorService());
+    instance.setRestOperations(restOperations);
+    return instance;
+  }
+
+  /**
+   * Lets the rest operations send the specified request through the interceptor, like the rest template does.
+   */
+  private void mockRevalidation(ApiResponseDiskCache instance, URI uri, MockClientHttpRequest revalidationRequest) {
+    when(restOperations.execute(eq(uri), eq(HttpMethod.GET), any(), any())).thenAnswer(invocation -> {
+      RequestCallback requestCallback = invocation.getArgument(2);
+      requestCallback.doWithRequest(revalidationRequest);
+      instance.intercept(revalidationRequest, new byte[0], execution).close();
+      return null;
+    });
+  }
+
+  private static MockClientHttpResponse response(HttpStatus status, String body) {
+    MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(UTF_8), status);
+    response.getHeaders().setETag("\"etag\"");
+    response.getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/vnd.api+json");
+    return response;
+  }
+
+  private static String body(ClientHttpResponse response) throws Exception {
+    return StreamUtils.copyToString(response.getBody(), UTF_8);
+  }
+}
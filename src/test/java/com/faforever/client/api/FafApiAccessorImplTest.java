@@ -29,6 +29,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 
 import java.nio.file.Files;
@@ -70,6 +71,8 @@ public class FafApiAccessorImplTest {
   private JsonApiMessageConverter jsonApiMessageConverter;
   @Mock
   private JsonApiErrorHandler jsonApiErrorHandler;
+  @Mock
+  private ApiResponseDiskCache apiResponseDiskCache;
 
   @Before
   public void setUp() throws Exception {
@@ -77,11 +80,12 @@ public class FafApiAccessorImplTest {
 
     when(restTemplateBuilder.requestFactory(any(Supplier.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.additionalMessageConverters(any(JsonApiMessageConverter.class))).thenReturn(restTemplateBuilder);
+    when(restTemplateBuilder.additionalInterceptors(any(ClientHttpRequestInterceptor.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.rootUri(any())).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.errorHandler(any())).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.configure(any(OAuth2RestTemplate.class))).thenReturn(restOperations);
 
-    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, new ClientProperties(), jsonApiMessageConverter, jsonApiErrorHandler);
+    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, new ClientProperties(), jsonApiMessageConverter, jsonApiErrorHandler, apiResponseDiskCache);
     instance.afterPropertiesSet();
     instance.authorize(123, "junit", "42");
   }
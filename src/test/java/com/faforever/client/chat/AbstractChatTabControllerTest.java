@@ -13,6 +13,7 @@ import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
 import com.faforever.client.test.FakeTestException;
+import com.faforever.client.theme.HtmlTemplate;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.uploader.ImageUploadService;
 import com.faforever.client.user.UserService;
@@ -105,6 +106,7 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
     preferences = new Preferences();
 
     when(uiService.getThemeFileUrl(any())).thenReturn(getClass().getResource("/" + UiService.CHAT_SECTION_EXTENDED));
+    when(uiService.getThemeTemplate(any())).thenReturn(HtmlTemplate.load(getClass().getResource("/" + UiService.CHAT_SECTION_EXTENDED)));
     when(timeService.asShortTime(any())).thenReturn("123");
     when(userService.getUsername()).thenReturn("junit");
     when(preferencesService.getPreferences()).thenReturn(preferences);
@@ -329,4 +331,12 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
     String output = instance.replaceChannelNamesWithHyperlinks("Go to #moderation and report a user");
     assertThat(output, is("Go to <a href=\"javascript:void(0);\" onClick=\"java.openChannel('#moderation')\">#moderation</a> and report a user"));
   }
+
+  @Test
+  public void testUrlsTransformedToHyperlinks() {
+    String output = instance.convertUrlsToHyperlinks("See https://www.faforever.com/news/ for details");
+    assertThat(output, is("See <a href=\"javascript:void(0);\" onClick=\"java.openUrl('https://www.faforever.com/news/')\""
+        + " onMouseOver=\"java.previewUrl('https://www.faforever.com/news/')\" onMouseOut=\"java.hideUrlPreview()\">"
+        + "faforever.com/news</a> for details"));
+  }
 }
@@ -12,12 +12,14 @@ import com.faforever.client.player.PlayerService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.reporting.ReportingService;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
+import com.faforever.client.theme.HtmlTemplate;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.uploader.ImageUploadService;
 import com.faforever.client.user.UserService;
 import com.faforever.client.util.TimeService;
 import com.faforever.client.vault.replay.WatchButtonController;
 import com.google.common.eventbus.EventBus;
+import javafx.concurrent.Worker;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.skin.TabPaneSkin;
 import org.junit.Before;
@@ -30,10 +32,13 @@ import org.testfx.util.WaitForAsyncUtils;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -78,11 +83,12 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
   private WatchButtonController watchButtonController;
 
   private PrivateChatTabController instance;
+  private PreferencesService preferencesService;
   private String playerName;
 
   @Before
   public void setUp() throws IOException, ExecutionException, InterruptedException {
-    PreferencesService preferencesService = new PreferencesService(new ClientProperties());
+    preferencesService = new PreferencesService(new ClientProperties());
     preferencesService.afterPropertiesSet();
 
     instance = new PrivateChatTabController(userService, preferencesService, playerService, timeService,
@@ -98,6 +104,7 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
     when(timeService.asShortTime(any())).thenReturn("");
     when(i18n.get(any(), any())).then(invocation -> invocation.getArgument(0));
     when(uiService.getThemeFileUrl(any())).then(invocation -> getThemeFileUrl(invocation.getArgument(0)));
+    when(uiService.getThemeTemplate(any())).then(invocation -> HtmlTemplate.load(getThemeFileUrl(invocation.getArgument(0))));
 
     TabPane tabPane = new TabPane();
     tabPane.setSkin(new TabPaneSkin(tabPane));
@@ -162,6 +169,25 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
 
   }
 
+  @Test
+  public void testMessagesAppendedAtOnceAndTopmostSectionsRemoved() throws Exception {
+    preferencesService.getPreferences().getChat().setMaxMessages(2);
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> instance.engine.getLoadWorker().getState() == Worker.State.SUCCEEDED);
+
+    Instant time = Instant.now();
+    for (int i = 0; i < 5; i++) {
+      // Messages more than a minute apart start a new chat section
+      instance.onChatMessage(new ChatMessage(playerName, time.plus(i * 2, ChronoUnit.MINUTES), playerName, "Message " + i));
+    }
+    instance.onChatMessage(new ChatMessage(playerName, time.plus(8, ChronoUnit.MINUTES), playerName, "Message 5"));
+
+    Object sections = WaitForAsyncUtils.asyncFx(() -> instance.engine.executeScript("document.getElementsByClassName('chat-section').length")).get();
+    Object texts = WaitForAsyncUtils.asyncFx(() -> instance.engine.executeScript("document.getElementsByClassName('text').length")).get();
+
+    assertEquals(2, ((Number) sections).intValue());
+    assertEquals(3, ((Number) texts).intValue());
+  }
+
   @Test
   public void onPlayerConnectedTest() {
     assertFalse(instance.isUserOffline());
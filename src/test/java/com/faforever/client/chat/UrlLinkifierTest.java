@@ -0,0 +1,48 @@
+package com.faforever.client.chat;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class UrlLinkifierTest {
+
+  private static String link(String href, String text) {
+    return "<a href=\"javascript:void(0);\" onClick=\"java.openUrl('" + href + "')\" onMouseOver=\"java.previewUrl('"
+        + href + "')\" onMouseOut=\"java.hideUrlPreview()\">" + text + "</a>";
+  }
+
+  @Test
+  public void testNoUrl() {
+    assertThat(UrlLinkifier.linkify("Hello world. Nothing to see here."), is("Hello world. Nothing to see here."));
+  }
+
+  @Test
+  public void testUrlWithScheme() {
+    assertThat(UrlLinkifier.linkify("Go to https://faforever.com/news/."),
+        is("Go to " + link("https://faforever.com/news/", "faforever.com/news") + "."));
+  }
+
+  @Test
+  public void testUrlWithoutScheme() {
+    assertThat(UrlLinkifier.linkify("www.faforever.com and forums.faforever.com"),
+        is(link("http://www.faforever.com", "faforever.com") + " and " + link("http://forums.faforever.com", "forums.faforever.com")));
+  }
+
+  @Test
+  public void testEscapedUrl() {
+    assertThat(UrlLinkifier.linkify("&quot;http://example.com/?a=1&amp;b=2&quot;"),
+        is("&quot;" + link("http://example.com/?a=1&amp;b=2", "example.com/?a=1&amp;b=2") + "&quot;"));
+  }
+
+  @Test
+  public void testParentheses() {
+    assertThat(UrlLinkifier.linkify("(see https://en.wikipedia.org/wiki/Supreme_Commander_(video_game))"),
+        is("(see " + link("https://en.wikipedia.org/wiki/Supreme_Commander_(video_game)", "en.wikipedia.org/wiki/Supreme_Commander_(video_game)") + ")"));
+  }
+
+  @Test
+  public void testFileNamesAndEmailsAreNotLinked() {
+    assertThat(UrlLinkifier.linkify("Open game.prefs or mail me@example.com"), is("Open game.prefs or mail me@example.com"));
+  }
+}
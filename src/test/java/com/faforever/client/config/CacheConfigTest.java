@@ -0,0 +1,149 @@
+package com.faforever.client.config;
+
+import com.faforever.client.config.CacheConfig.CacheTier;
+import com.faforever.client.config.CacheDiagnostics.CacheStatistics;
+import com.faforever.client.config.ClientProperties.CacheSpec;
+import com.faforever.client.test.AbstractPlainJavaFxTest;
+import com.github.benmanes.caffeine.cache.Cache;
+import javafx.scene.image.Image;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CacheConfigTest extends AbstractPlainJavaFxTest {
+
+  private ClientProperties clientProperties;
+  private CacheConfig instance;
+
+  @Before
+  public void setUp() throws Exception {
+    clientProperties = new ClientProperties();
+    instance = new CacheConfig(clientProperties);
+  }
+
+  @Test
+  public void testTierDefaultsApply() throws Exception {
+    clientProperties.getCache().getData().setMaximumSize(42L);
+
+    Cache<Object, Object> cache = instance.createCache("junit", CacheTier.DATA, new CacheSpec()).getNativeCache();
+
+    assertThat(cache.policy().eviction().get().getMaximum(), is(42L));
+    assertThat(cache.policy().expireAfterWrite().isPresent(), is(false));
+  }
+
+  @Test
+  public void testPropertiesOverrideBuiltInSpec() throws Exception {
+    CacheSpec builtInSpec = new CacheSpec();
+    builtInSpec.setMaximumSize(10L);
+    builtInSpec.setExpireAfterWrite(Duration.ofMinutes(10));
+    CacheSpec override = new CacheSpec();
+    override.setMaximumSize(5L);
+    clientProperties.getCache().getCaches().put("junit", override);
+
+    Cache<Object, Object> cache = instance.createCache("junit", CacheTier.DATA, builtInSpec).getNativeCache();
+
+    assertThat(cache.policy().eviction().get().getMaximum(), is(5L));
+    assertThat(cache.policy().expireAfterWrite().get().getExpiresAfter(TimeUnit.MINUTES), is(10L));
+  }
+
+  @Test
+  public void testImageTierIsWeighed() throws Exception {
+    Cache<Object, Object> cache = instance.createCache("junit", CacheTier.IMAGES, new CacheSpec()).getNativeCache();
+
+    assertThat(cache.policy().eviction().get().isWeighted(), is(true));
+    assertThat(cache.policy().eviction().get().getMaximum(), is(clientProperties.getCache().getImages().getMaximumWeight()));
+  }
+
+  @Test
+  public void testValueComputedBeforeClearIsNotStored() throws Exception {
+    CaffeineCache cache = instance.createCache("junit", CacheTier.DATA, new CacheSpec());
+
+    assertThat(cache.get("key"), is(nullValue()));
+    cache.clear();
+    cache.put("key", "outdated value");
+    assertThat(cache.get("key"), is(nullValue()));
+
+    cache.put("key", "value");
+    assertThat(cache.get("key").get(), is("value"));
+  }
+
+  @Test
+  public void testValueComputedBeforeClearIsNotStoredAfterMissOnOtherThread() throws Exception {
+    CaffeineCache cache = instance.createCache("junit", CacheTier.DATA, new CacheSpec());
+
+    assertThat(cache.get("key"), is(nullValue()));
+    cache.clear();
+    CompletableFuture.runAsync(() -> assertThat(cache.get("key"), is(nullValue()))).get();
+
+    cache.put("key", "outdated value");
+    assertThat(cache.getNativeCache().getIfPresent("key"), is(nullValue()));
+
+    CompletableFuture.runAsync(() -> cache.put("key", "value")).get();
+    assertThat(cache.get("key").get(), is("value"));
+  }
+
+  @Test
+  public void testPutWithoutPrecedingMissIsStored() throws Exception {
+    CaffeineCache cache = instance.createCache("junit", CacheTier.DATA, new CacheSpec());
+
+    assertThat(cache.get("other key"), is(nullValue()));
+    cache.clear();
+    cache.put("key", "value");
+
+    assertThat(cache.get("key").get(), is("value"));
+  }
+
+  @Test
+  public void testImageLoadedInBackgroundIsWeighedOnceLoaded() throws Exception {
+    CaffeineCache cache = instance.createCache("junit", CacheTier.IMAGES, new CacheSpec());
+    Image image = new Image(getClass().getResource("/images/factions/random.png").toExternalForm(), true);
+
+    cache.put("key", Optional.of(image));
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> image.getProgress() >= 1);
+    WaitForAsyncUtils.waitForFxEvents();
+    cache.getNativeCache().cleanUp();
+
+    long expectedWeight = (long) (image.getWidth() * image.getHeight() * 4);
+    assertThat(expectedWeight, greaterThan(1L));
+    assertThat(cache.getNativeCache().policy().eviction().get().weightedSize().getAsLong(), is(expectedWeight));
+  }
+
+  @Test
+  public void testCacheStatistics() throws Exception {
+    CaffeineCache cache = instance.createCache("junit", CacheTier.DATA, new CacheSpec());
+    SimpleCacheManager cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(Collections.singletonList(cache));
+    cacheManager.afterPropertiesSet();
+
+    cache.put("key", "value");
+    cache.get("key");
+    cache.get("missing");
+
+    List<CacheStatistics> cacheStatistics = new CacheDiagnostics(cacheManager).getCacheStatistics();
+
+    assertThat(cacheStatistics, hasSize(1));
+    CacheStatistics statistics = cacheStatistics.get(0);
+    assertThat(statistics.getCacheName(), is("junit"));
+    assertThat(statistics.getHitCount(), is(1L));
+    assertThat(statistics.getMissCount(), is(1L));
+    assertThat(statistics.getHitRate(), closeTo(0.5, 0.001));
+    assertThat(statistics.getEstimatedSize(), is(1L));
+    assertThat(statistics.getEstimatedWeight(), is(nullValue()));
+  }
+}
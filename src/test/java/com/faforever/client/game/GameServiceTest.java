@@ -18,6 +18,7 @@ import com.faforever.client.patch.GameUpdater;
 import com.faforever.client.player.Player;
 import com.faforever.client.player.PlayerBuilder;
 import com.faforever.client.player.PlayerService;
+import com.faforever.client.player.PlayersOnlineEvent;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
@@ -30,6 +31,7 @@ import com.faforever.client.test.AbstractPlainJavaFxTest;
 import com.faforever.client.ui.preferences.event.GameDirectoryChooseEvent;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
@@ -80,6 +82,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -409,6 +412,68 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
     assertThat(instance.getGames(), empty());
   }
 
+  @Test
+  public void testOnGameInfoCoalescesUpdatesOfSameGame() {
+    runWhileApplicationThreadIsBlocked(() -> {
+      gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().title("Game 1").get());
+      gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().title("Game 1 modified").get());
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getGames(), hasSize(1));
+    assertThat(instance.getGames().get(0).getTitle(), is("Game 1 modified"));
+    verify(eventBus).post(any(GameAddedEvent.class));
+    verify(eventBus, never()).post(any(GameUpdatedEvent.class));
+  }
+
+  @Test
+  public void testOnGameInfoDoesNotAddStatusListenerPerUpdate() {
+    when(platformService.isWindowFocused(any())).thenReturn(false);
+
+    for (int i = 0; i < 3; i++) {
+      gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues()
+          .state(OPEN)
+          .addTeamMember("1", junitPlayer.getUsername()).get());
+      WaitForAsyncUtils.waitForFxEvents();
+    }
+
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues()
+        .state(PLAYING)
+        .addTeamMember("1", junitPlayer.getUsername()).get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(platformService, times(1)).focusWindow(any());
+  }
+
+  @Test
+  public void testAverageRatingIsUpdatedWhenPlayerInfoArrivesAfterGameInfo() {
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues()
+        .addTeamMember("1", "Other").get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    Game game = instance.getGames().get(0);
+    assertThat(game.getAverageRating(), is(0.0));
+
+    Player player = PlayerBuilder.create("Other").get();
+    player.setGlobalRatingMean(1500);
+    player.setGlobalRatingDeviation(100);
+    when(playerService.getPlayerForUsername("Other")).thenReturn(Optional.of(player));
+    Platform.runLater(() -> instance.onPlayersOnline(new PlayersOnlineEvent(Collections.singletonList(player))));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(game.getAverageRating(), is(1200.0));
+  }
+
+  @Test
+  public void testOnGameInfoParsesRatingRangeFromTitle() {
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().title("1000 - 1500").get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    Game game = instance.getGames().get(0);
+    assertThat(game.getMinRating(), is(1000));
+    assertThat(game.getMaxRating(), is(1500));
+  }
+
   @Test
   public void testStartSearchLadder1v1() throws Exception {
     int uid = 123;
@@ -441,6 +506,24 @@ public class GameServiceTest extends AbstractPlainJavaFxTest {
         uid, CYBRAN, asList(additionalArgs), RatingMode.LADDER_1V1, GPG_PORT, LOCAL_REPLAY_PORT, false, junitPlayer);
   }
 
+  @Test
+  public void testCancelledSearchLadder1v1IsNotSearching() throws Exception {
+    FeaturedMod featuredMod = FeaturedModBeanBuilder.create().defaultValues().get();
+    CompletableFuture<GameLaunchMessage> gameLaunchFuture = new CompletableFuture<>();
+    when(modService.getFeaturedMod(LADDER_1V1.getTechnicalName())).thenReturn(completedFuture(featuredMod));
+    when(gameUpdater.update(featuredMod, null, Collections.emptyMap(), Collections.emptySet())).thenReturn(completedFuture(null));
+    when(fafService.startSearchLadder1v1(CYBRAN)).thenReturn(gameLaunchFuture);
+
+    CompletableFuture<Void> searchFuture = instance.startSearchLadder1v1(CYBRAN);
+    assertThat(instance.searching1v1Property().get(), is(true));
+
+    gameLaunchFuture.cancel(false);
+    searchFuture.get(TIMEOUT, TIME_UNIT);
+
+    assertThat(instance.searching1v1Property().get(), is(false));
+    verify(fafService, never()).stopSearchingRanked();
+  }
+
   @Test
   public void testStartSearchLadder1v1GameRunningDoesNothing() throws Exception {
     Process process = mock(Process.class);
@@ -0,0 +1,88 @@
+package com.faforever.client.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class DirectoryWatcherServiceTest {
+
+  @Rule
+  public TemporaryFolder directory = new TemporaryFolder();
+
+  private DirectoryWatcherService instance;
+  private List<DirectoryChanges> reportedChanges;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new DirectoryWatcherService();
+    reportedChanges = new CopyOnWriteArrayList<>();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.destroy();
+  }
+
+  @Test
+  public void testAddedChangedAndRemovedEntriesAreReported() throws Exception {
+    Path changedFile = directory.newFile("changed").toPath();
+    Path removedFile = directory.newFile("removed").toPath();
+    instance.watch(directory.getRoot().toPath(), Duration.ofMillis(100), reportedChanges::add);
+
+    Path addedFile = directory.newFile("added").toPath();
+    Files.write(changedFile, "changed".getBytes(UTF_8));
+    Files.delete(removedFile);
+
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> reportedChanges.stream()
+        .mapToInt(changes -> changes.getAddedPaths().size() + changes.getChangedPaths().size() + changes.getRemovedPaths().size())
+        .sum() >= 3);
+
+    assertThat(reportedChanges, hasSize(1));
+    DirectoryChanges changes = reportedChanges.get(0);
+    assertThat(changes.getAddedPaths(), is(Set.of(addedFile)));
+    assertThat(changes.getChangedPaths(), is(Set.of(changedFile)));
+    assertThat(changes.getRemovedPaths(), is(Set.of(removedFile)));
+  }
+
+  @Test
+  public void testEntryCreatedAndRemovedBeforeSettlingIsNotReported() throws Exception {
+    instance.watch(directory.getRoot().toPath(), Duration.ofMillis(300), reportedChanges::add);
+
+    Files.delete(directory.newFile("temporary").toPath());
+    Path addedFile = directory.newFile("added").toPath();
+
+    WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !reportedChanges.isEmpty());
+
+    assertThat(reportedChanges.get(0).getAddedPaths(), contains(addedFile));
+    assertThat(reportedChanges.get(0).getRemovedPaths(), is(empty()));
+  }
+
+  @Test
+  public void testClosedWatchIsNotReported() throws Exception {
+    DirectoryWatcherService.DirectoryWatch directoryWatch = instance.watch(directory.getRoot().toPath(), Duration.ofMillis(100), reportedChanges::add);
+    directoryWatch.close();
+
+    directory.newFile("added");
+    Thread.sleep(500);
+
+    assertThat(reportedChanges, is(empty()));
+  }
+}
@@ -0,0 +1,78 @@
+package com.faforever.client.io;
+
+import com.google.gson.Gson;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PersistentPathIndexTest {
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  private Path indexFile;
+  private PersistentPathIndex<TestEntry> instance;
+
+  @Before
+  public void setUp() throws Exception {
+    indexFile = cacheDirectory.getRoot().toPath().resolve("index.json");
+    instance = createIndex();
+  }
+
+  @Test
+  public void testEntryIsPersisted() throws Exception {
+    Path file = cacheDirectory.getRoot().toPath().resolve("file");
+    instance.put(new TestEntry(file.toString(), "value"));
+    instance.store();
+
+    assertThat(createIndex().get(file).map(TestEntry::getValue).orElse(null), is("value"));
+  }
+
+  @Test
+  public void testUnmodifiedIndexIsNotWritten() throws Exception {
+    instance.store();
+
+    assertThat(Files.exists(indexFile), is(false));
+  }
+
+  @Test
+  public void testInvalidEntriesAreDiscarded() throws Exception {
+    Files.writeString(indexFile, "[{\"path\":\"/a\",\"value\":\"value\"},{\"path\":\"/b\"},{\"value\":\"value\"}]", UTF_8);
+
+    assertThat(instance.size(), is(1));
+  }
+
+  @Test
+  public void testUnreadableIndexIsRebuilt() throws Exception {
+    Files.writeString(indexFile, "{broken", UTF_8);
+
+    assertThat(instance.size(), is(0));
+    instance.store();
+
+    assertThat(Files.readString(indexFile, UTF_8), is("[]"));
+  }
+
+  private PersistentPathIndex<TestEntry> createIndex() {
+    return new PersistentPathIndex<>(() -> indexFile, "test index", new Gson(), TestEntry[].class,
+        entry -> entry.getValue() != null);
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class TestEntry implements PersistentPathIndex.Entry {
+    private String path;
+    private String value;
+  }
+}
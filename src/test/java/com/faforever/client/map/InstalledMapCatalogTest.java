@@ -0,0 +1,88 @@
+package com.faforever.client.map;
+
+import com.faforever.client.map.MapBean.Type;
+import com.faforever.client.preferences.PreferencesService;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+public class InstalledMapCatalogTest {
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private InstalledMapCatalog instance;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    instance = new InstalledMapCatalog(preferencesService);
+  }
+
+  @Test
+  public void testEntryIsPersisted() throws Exception {
+    Path mapFolder = cacheDirectory.getRoot().toPath().resolve("SCMP_001");
+    instance.put(mapFolder, 5000, mapBean("SCMP_001"));
+    instance.store();
+
+    InstalledMapCatalog reloadedCatalog = new InstalledMapCatalog(preferencesService);
+    Optional<MapBean> mapBean = reloadedCatalog.get(mapFolder, 5000);
+
+    assertThat(mapBean.isPresent(), is(true));
+    assertThat(mapBean.get().getFolderName(), is("SCMP_001"));
+    assertThat(mapBean.get().getDisplayName(), is("Burial Mounds"));
+    assertThat(mapBean.get().getType(), is(Type.SKIRMISH));
+    assertThat(mapBean.get().getSize(), is(MapSize.valueOf(1024, 512)));
+    assertThat(mapBean.get().getPlayers(), is(8));
+    assertThat(mapBean.get().getVersion(), is(new ComparableVersion("3")));
+  }
+
+  @Test
+  public void testEntryIsInvalidatedWhenFolderChanged() throws Exception {
+    Path mapFolder = cacheDirectory.getRoot().toPath().resolve("SCMP_001");
+    instance.put(mapFolder, 5000, mapBean("SCMP_001"));
+
+    assertThat(instance.get(mapFolder, 6000).isPresent(), is(false));
+  }
+
+  @Test
+  public void testRetainAll() throws Exception {
+    Path mapFolder1 = cacheDirectory.getRoot().toPath().resolve("SCMP_001");
+    Path mapFolder2 = cacheDirectory.getRoot().toPath().resolve("SCMP_002");
+    instance.put(mapFolder1, 1, mapBean("SCMP_001"));
+    instance.put(mapFolder2, 2, mapBean("SCMP_002"));
+
+    instance.retainAll(Collections.singletonList(mapFolder2));
+
+    assertThat(instance.size(), is(1));
+    assertThat(instance.get(mapFolder2, 2).isPresent(), is(true));
+  }
+
+  private static MapBean mapBean(String folderName) {
+    MapBean mapBean = new MapBean();
+    mapBean.setFolderName(folderName);
+    mapBean.setDisplayName("Burial Mounds");
+    mapBean.setType(Type.SKIRMISH);
+    mapBean.setSize(MapSize.valueOf(1024, 512));
+    mapBean.setPlayers(8);
+    mapBean.setVersion(new ComparableVersion("3"));
+    return mapBean;
+  }
+}
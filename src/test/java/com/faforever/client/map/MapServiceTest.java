@@ -2,6 +2,8 @@ package com.faforever.client.map;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
 import com.faforever.client.map.MapService.PreviewSize;
 import com.faforever.client.map.generator.MapGeneratorService;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
@@ -35,7 +37,9 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -67,6 +71,7 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
   public ExpectedException expectedException = ExpectedException.none();
 
   private MapService instance;
+  private ClientProperties clientProperties;
   private Path mapsDirectory;
 
   @Mock
@@ -93,10 +98,12 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
   private MapGeneratorService mapGeneratorService;
   @Mock
   private EventBus eventBus;
+  @Mock
+  private DirectoryWatcherService directoryWatcherService;
 
   @Before
   public void setUp() throws Exception {
-    ClientProperties clientProperties = new ClientProperties();
+    clientProperties = new ClientProperties();
     clientProperties.getVault().setMapPreviewUrlFormat("http://127.0.0.1:65534/preview/%s/%s");
 
     mapsDirectory = gameDirectory.newFolder("maps").toPath();
@@ -106,8 +113,8 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     when(forgedAlliancePrefs.installationPathProperty()).thenReturn(new SimpleObjectProperty<>());
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferences.getForgedAlliance()).thenReturn(forgedAlliancePrefs);
-    instance = new MapService(preferencesService, taskService, applicationContext,
-        fafService, assetService, i18n, uiService, mapGeneratorService, clientProperties, eventBus);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+    instance = createMapService();
     instance.afterPropertiesSet();
 
     doAnswer(invocation -> {
@@ -146,6 +153,59 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     assertThat(mapBean.getSize(), equalTo(MapSize.valueOf(1024, 1024)));
   }
 
+  @Test
+  public void testUnchangedMapIsLoadedFromCatalog() throws Exception {
+    Path scmp001 = Files.createDirectory(customMapsDirectory.getRoot().toPath().resolve("SCMP_001"));
+    Path scenarioFile = scmp001.resolve("SCMP_001_scenario.lua");
+    Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scenarioFile);
+    instance.afterPropertiesSet();
+    assertThat(instance.getInstalledMaps(), hasSize(1));
+
+    FileTime lastModified = Files.getLastModifiedTime(scmp001);
+    Files.write(scenarioFile, "{\"This is invalid\", \"}".getBytes(UTF_8));
+    Files.setLastModifiedTime(scmp001, lastModified);
+
+    MapService reloadedInstance = createMapService();
+    reloadedInstance.officialMaps = ImmutableSet.of();
+    reloadedInstance.afterPropertiesSet();
+
+    assertThat(reloadedInstance.getInstalledMaps(), hasSize(1));
+    assertThat(reloadedInstance.getInstalledMaps().get(0).getDisplayName(), is("Burial Mounds"));
+    assertThat(reloadedInstance.getInstalledMaps().get(0).getSize(), is(MapSize.valueOf(1024, 1024)));
+  }
+
+  @Test
+  public void testChangedMapIsReadAgain() throws Exception {
+    Path scmp001 = Files.createDirectory(customMapsDirectory.getRoot().toPath().resolve("SCMP_001"));
+    Path scenarioFile = scmp001.resolve("SCMP_001_scenario.lua");
+    Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scenarioFile);
+    instance.afterPropertiesSet();
+
+    Files.write(scenarioFile, "{\"This is invalid\", \"}".getBytes(UTF_8));
+    Files.setLastModifiedTime(scmp001, FileTime.fromMillis(Files.getLastModifiedTime(scmp001).toMillis() + 10_000));
+
+    MapService reloadedInstance = createMapService();
+    reloadedInstance.officialMaps = ImmutableSet.of();
+    reloadedInstance.afterPropertiesSet();
+
+    assertThat(reloadedInstance.getInstalledMaps(), hasSize(0));
+  }
+
+  @Test
+  public void testMapsDirectoryChanged() throws Exception {
+    Path customMapsPath = customMapsDirectory.getRoot().toPath();
+    Path scmp001 = Files.createDirectory(customMapsPath.resolve("SCMP_001"));
+    Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
+
+    instance.onMapsDirectoryChanged(new DirectoryChanges(customMapsPath, Set.of(scmp001), Set.of(), Set.of()));
+    WaitForAsyncUtils.waitForFxEvents();
+    assertThat(instance.isInstalled("SCMP_001"), is(true));
+
+    instance.onMapsDirectoryChanged(new DirectoryChanges(customMapsPath, Set.of(), Set.of(), Set.of(scmp001)));
+    WaitForAsyncUtils.waitForFxEvents();
+    assertThat(instance.isInstalled("SCMP_001"), is(false));
+  }
+
   @Test
   public void testReadMapOfNonFolderThrowsException() {
     expectedException.expect(MapLoadException.class);
@@ -198,6 +258,12 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     }
   }
 
+  private MapService createMapService() {
+    return new MapService(preferencesService, taskService, applicationContext, fafService, assetService, i18n,
+        uiService, mapGeneratorService, clientProperties, eventBus, new InstalledMapCatalog(preferencesService),
+        directoryWatcherService);
+  }
+
   @Test
   public void testGetRecommendedMaps() throws Exception {
     ClientConfiguration clientConfiguration = mock(ClientConfiguration.class);
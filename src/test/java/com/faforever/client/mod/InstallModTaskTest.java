@@ -14,8 +14,12 @@ import org.mockito.Mock;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -61,9 +65,26 @@ public class InstallModTaskTest extends AbstractPlainJavaFxTest {
     Files.createFile(fileThatShouldBeDeletedByInstall);
 
     instance.setUrl(getClass().getResource("/mods/Suicide Confirmation.v0003.zip"));
-    instance.call();
+    Path modDirectory = instance.call();
 
+    assertThat(modDirectory, is(modTargetDirectory));
     assertThat(Files.exists(modTargetDirectory.resolve("mod_info.lua")), is(true));
     assertThat(Files.exists(fileThatShouldBeDeletedByInstall), is(false));
   }
+
+  @Test
+  public void testCallReturnsNullIfModIsNotInDirectory() throws Exception {
+    Path zipFile = cacheDirectory.newFile("mod.zip").toPath();
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      zipOutputStream.putNextEntry(new ZipEntry("mod_info.lua"));
+      zipOutputStream.write("name = 'Mod'".getBytes(UTF_8));
+      zipOutputStream.closeEntry();
+    }
+
+    instance.setUrl(zipFile.toUri().toURL());
+    Path modDirectory = instance.call();
+
+    assertThat(modDirectory, is(nullValue()));
+    assertThat(Files.exists(modsDirectory.getRoot().toPath().resolve("mod_info.lua")), is(true));
+  }
 }
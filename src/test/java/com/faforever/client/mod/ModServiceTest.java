@@ -2,6 +2,8 @@ package com.faforever.client.mod;
 
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
 import com.faforever.client.mod.ModVersion.ModType;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
@@ -95,6 +97,8 @@ public class ModServiceTest {
   private AssetService assetService;
   @Mock
   private PlatformService platformService;
+  @Mock
+  private DirectoryWatcherService directoryWatcherService;
 
   private ModService instance;
   private Path gamePrefsPath;
@@ -103,7 +107,7 @@ public class ModServiceTest {
   @Before
   public void setUp() throws Exception {
     instance = new ModService(fafService, preferencesService, taskService, applicationContext, notificationService, i18n,
-        platformService, assetService);
+        platformService, assetService, directoryWatcherService);
 
     gamePrefsPath = faDataDirectory.getRoot().toPath().resolve("game.prefs");
 
@@ -153,6 +157,30 @@ public class ModServiceTest {
   public void testDownloadAndInstallMod() throws Exception {
     assertThat(instance.getInstalledModVersions().size(), is(1));
 
+    Path ecoManagerPath = copyMod("EM", ECO_MANAGER_MOD_INFO);
+    InstallModTask task = stubInstallModTask();
+    task.getFuture().complete(ecoManagerPath);
+
+    when(applicationContext.getBean(InstallModTask.class)).thenReturn(task);
+
+    URL modUrl = new URL("http://example.com/some/mod.zip");
+
+    copyMod("BlackopsSupport", BLACKOPS_SUPPORT_MOD_INFO);
+    assertThat(instance.getInstalledModVersions().size(), is(1));
+
+    instance.downloadAndInstallMod(modUrl).toCompletableFuture().get(TIMEOUT, TIMEOUT_UNIT);
+
+    // Only the installed mod is added, other mods are not read again
+    assertThat(instance.getInstalledModVersions().size(), is(2));
+    assertThat(instance.isModInstalled("b2cde810-15d0-4bfa-af66-ec2d6ecd561b"), is(true));
+    assertThat(instance.isModInstalled("9e8ea941-c306-4751-b367-f00000000005"), is(false));
+    assertThat(instance.getPathForMod(instance.getInstalledModVersions().get(1)), is(ecoManagerPath));
+  }
+
+  @Test
+  public void testDownloadAndInstallModWithoutDirectoryLoadsInstalledMods() throws Exception {
+    assertThat(instance.getInstalledModVersions().size(), is(1));
+
     InstallModTask task = stubInstallModTask();
     task.getFuture().complete(null);
 
@@ -168,6 +196,17 @@ public class ModServiceTest {
     assertThat(instance.getInstalledModVersions().size(), is(2));
   }
 
+  @Test
+  public void testReloadingInstalledModsDoesNotDuplicateMods() throws Exception {
+    copyMod("BlackopsSupport", BLACKOPS_SUPPORT_MOD_INFO);
+
+    instance.loadInstalledMods();
+    instance.loadInstalledMods();
+
+    assertThat(instance.getInstalledModVersions(), hasSize(2));
+    assertThat(instance.getInstalledModUids(), hasSize(2));
+  }
+
   @Test
   public void testDownloadAndInstallModWithProperties() throws Exception {
     assertThat(instance.getInstalledModVersions().size(), is(1));
@@ -346,6 +385,20 @@ public class ModServiceTest {
     assertThat(instance.getInstalledModVersions().size(), is(1));
   }
 
+  @Test
+  public void testModsDirectoryChanged() throws Exception {
+    Path blackopsSupportPath = copyMod("BlackopsSupport", BLACKOPS_SUPPORT_MOD_INFO);
+    Path blackopsUnleashedPath = modsDirectory.getRoot().toPath().resolve(BLACK_OPS_UNLEASHED_DIRECTORY_NAME);
+
+    instance.onModsDirectoryChanged(new DirectoryChanges(modsDirectory.getRoot().toPath(),
+        Set.of(blackopsSupportPath), Set.of(), Set.of(blackopsUnleashedPath)));
+
+    assertThat(instance.getInstalledModVersions(), hasSize(1));
+    assertThat(instance.isModInstalled("9e8ea941-c306-4751-b367-f00000000005"), is(true));
+    assertThat(instance.isModInstalled("9e8ea941-c306-4751-b367-a11000000502"), is(false));
+    assertThat(instance.getPathForMod(instance.getInstalledModVersions().get(0)), is(blackopsSupportPath));
+  }
+
   @Test
   public void testIsModInstalled() {
     assertThat(instance.isModInstalled("9e8ea941-c306-4751-b367-a11000000502"), is(true));
@@ -406,7 +459,7 @@ public class ModServiceTest {
   private InstallModTask stubInstallModTask() {
     return new InstallModTask(preferencesService, i18n) {
       @Override
-      protected Void call() {
+      protected Path call() {
         return null;
       }
     };
@@ -0,0 +1,110 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.preferences.PreferencesService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+public class FeaturedModFileManifestTest {
+
+  private static final String MD5_OF_CONTENT = "9a0364b9e99bb480dd25e1f0284c8555";
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder dataDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private FeaturedModFileManifest instance;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    instance = new FeaturedModFileManifest(preferencesService);
+  }
+
+  @Test
+  public void testMd5IsCalculated() throws Exception {
+    Path file = dataDirectory.newFile("ForgedAlliance.exe").toPath();
+    Files.write(file, "content".getBytes(UTF_8));
+
+    assertThat(instance.getMd5(file), is(MD5_OF_CONTENT));
+  }
+
+  @Test
+  public void testUnchangedFileIsNotHashedAgain() throws Exception {
+    Path file = dataDirectory.newFile("ForgedAlliance.exe").toPath();
+    Files.write(file, "content".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(5000));
+    instance.getMd5(file);
+    instance.store();
+
+    // Same size and modification time, so the stored hash is expected to be used
+    Files.write(file, "CONTENT".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(5000));
+
+    FeaturedModFileManifest reloadedManifest = new FeaturedModFileManifest(preferencesService);
+    assertThat(reloadedManifest.size(), is(1));
+    assertThat(reloadedManifest.getMd5(file), is(MD5_OF_CONTENT));
+  }
+
+  @Test
+  public void testChangedFileIsHashedAgain() throws Exception {
+    Path file = dataDirectory.newFile("ForgedAlliance.exe").toPath();
+    Files.write(file, "content".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(5000));
+    instance.getMd5(file);
+
+    Files.write(file, "CONTENT".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(6000));
+
+    assertThat(instance.getMd5(file), is("45685e95985e20822fb2538a522a5ccf"));
+  }
+
+  @Test
+  public void testFilesHashedInSequenceOnSameThread() throws Exception {
+    Path file1 = dataDirectory.newFile("ForgedAlliance.exe").toPath();
+    Files.write(file1, "content".getBytes(UTF_8));
+    Path file2 = dataDirectory.newFile("init.lua").toPath();
+    Files.write(file2, "CONTENT".getBytes(UTF_8));
+
+    assertThat(instance.getMd5(file1), is(MD5_OF_CONTENT));
+    assertThat(instance.getMd5(file2), is("45685e95985e20822fb2538a522a5ccf"));
+  }
+
+  @Test
+  public void testKnownMd5IsUsedWithoutHashing() throws Exception {
+    Path file = dataDirectory.newFile("ForgedAlliance.exe").toPath();
+    Files.write(file, "content".getBytes(UTF_8));
+
+    // Deliberately not the actual hash of the content, to prove the file isn't read
+    instance.putMd5(file, "0123456789abcdef0123456789abcdef");
+    instance.store();
+
+    FeaturedModFileManifest reloadedManifest = new FeaturedModFileManifest(preferencesService);
+    assertThat(reloadedManifest.getMd5(file), is("0123456789abcdef0123456789abcdef"));
+  }
+
+  @Test
+  public void testUnreadableManifestIsIgnored() throws Exception {
+    Files.write(cacheDirectory.getRoot().toPath().resolve("featuredModFileManifest.json"), "{ invalid".getBytes(UTF_8));
+
+    assertThat(instance.size(), is(0));
+  }
+}
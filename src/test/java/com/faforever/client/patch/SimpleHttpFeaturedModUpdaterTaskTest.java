@@ -0,0 +1,113 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.api.dto.FeaturedModFile;
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.mod.FeaturedMod;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.remote.FafService;
+import com.faforever.client.test.AbstractPlainJavaFxTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+public class SimpleHttpFeaturedModUpdaterTaskTest extends AbstractPlainJavaFxTest {
+
+  private static final String MD5_OF_CONTENT = "9a0364b9e99bb480dd25e1f0284c8555";
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder dataDirectory = new TemporaryFolder();
+
+  @Mock
+  private FafService fafService;
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private DownloadService downloadService;
+  @Mock
+  private I18n i18n;
+
+  private FeaturedModFileManifest featuredModFileManifest;
+  private SimpleHttpFeaturedModUpdaterTask instance;
+  private Path initFile;
+
+  @Before
+  public void setUp() throws Exception {
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+    when(preferencesService.getFafDataDirectory()).thenReturn(dataDirectory.getRoot().toPath());
+
+    featuredModFileManifest = new FeaturedModFileManifest(preferencesService);
+    instance = new SimpleHttpFeaturedModUpdaterTask(fafService, preferencesService, downloadService, i18n, featuredModFileManifest);
+
+    FeaturedMod featuredMod = new FeaturedMod();
+    featuredMod.setTechnicalName("faf");
+    instance.setFeaturedMod(featuredMod);
+
+    FeaturedModFile featuredModFile = new FeaturedModFile();
+    featuredModFile.setVersion("3700");
+    featuredModFile.setGroup("bin");
+    featuredModFile.setName("init_faf.lua");
+    featuredModFile.setMd5(MD5_OF_CONTENT);
+    featuredModFile.setUrl("http://www.example.com/init_faf.lua");
+    when(fafService.getFeaturedModFiles(featuredMod, null)).thenReturn(CompletableFuture.completedFuture(Collections.singletonList(featuredModFile)));
+
+    initFile = dataDirectory.getRoot().toPath().resolve("bin").resolve("init_faf.lua");
+  }
+
+  @Test
+  public void testVerifiedDownloadIsRecordedInManifest() throws Exception {
+    mockDownload("content");
+
+    instance.call();
+
+    assertThat(new String(Files.readAllBytes(initFile), UTF_8), is("content"));
+    assertThat(new FeaturedModFileManifest(preferencesService).size(), is(1));
+    assertThat(featuredModFileManifest.getMd5(initFile), is(MD5_OF_CONTENT));
+  }
+
+  @Test
+  public void testCorruptedDownloadIsRejected() throws Exception {
+    Files.createDirectories(initFile.getParent());
+    Files.write(initFile, "old content".getBytes(UTF_8));
+    mockDownload("cont");
+
+    try {
+      instance.call();
+      fail("Expected the corrupted download to be rejected");
+    } catch (IOException e) {
+      // expected
+    }
+
+    assertThat(new String(Files.readAllBytes(initFile), UTF_8), is("old content"));
+    try (Stream<Path> files = Files.list(initFile.getParent())) {
+      assertThat(files.count(), is(1L));
+    }
+  }
+
+  private void mockDownload(String content) throws IOException {
+    doAnswer(invocation -> {
+      Files.write(invocation.getArgument(1), content.getBytes(UTF_8));
+      return null;
+    }).when(downloadService).downloadFile(any(URL.class), any(), any());
+  }
+}
@@ -12,6 +12,9 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 public class FriendOnlineNotifierTest {
   @Mock
   private NotificationService notificationService;
@@ -42,9 +45,26 @@ public class FriendOnlineNotifierTest {
     preferencesService.getPreferences().getNotification().setFriendOnlineSoundEnabled(false);
     preferencesService.getPreferences().getNotification().setFriendOnlineToastEnabled(false);
 
-    instance.onUserOnline(new PlayerOnlineEvent(new Player("axel12")));
+    instance.onPlayersOnline(new PlayersOnlineEvent(Collections.singletonList(new Player("axel12"))));
 
     Mockito.verifyZeroInteractions(notificationService, audioService);
   }
 
+  @Test
+  public void testOneSoundForFriendsOnlineAtOnce() {
+    preferencesService.getPreferences().getNotification().setFriendOnlineSoundEnabled(true);
+    preferencesService.getPreferences().getNotification().setFriendOnlineToastEnabled(false);
+
+    Player friend1 = new Player("friend1");
+    friend1.setSocialStatus(SocialStatus.FRIEND);
+    Player friend2 = new Player("friend2");
+    friend2.setSocialStatus(SocialStatus.FRIEND);
+    Player other = new Player("other");
+
+    instance.onPlayersOnline(new PlayersOnlineEvent(Arrays.asList(friend1, other, friend2)));
+
+    Mockito.verify(audioService).playFriendOnlineSound();
+    Mockito.verifyZeroInteractions(notificationService);
+  }
+
 }
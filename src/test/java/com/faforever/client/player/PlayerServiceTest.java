@@ -1,25 +1,34 @@
 package com.faforever.client.player;
 
+import com.faforever.client.chat.ChatChannelUser;
+import com.faforever.client.chat.ChatChannelUserBuilder;
 import com.faforever.client.game.Game;
 import com.faforever.client.game.GameAddedEvent;
 import com.faforever.client.game.GameRemovedEvent;
 import com.faforever.client.game.GameUpdatedEvent;
+import com.faforever.client.net.ConnectionState;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.remote.domain.GameStatus;
 import com.faforever.client.remote.domain.PlayersMessage;
 import com.faforever.client.remote.domain.SocialMessage;
+import com.faforever.client.test.AbstractPlainJavaFxTest;
 import com.faforever.client.user.UserService;
 import com.faforever.client.user.event.LoginSuccessEvent;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.ReflectionUtils;
+import org.testfx.util.WaitForAsyncUtils;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +37,7 @@ import java.util.function.Consumer;
 
 import static com.faforever.client.player.SocialStatus.FOE;
 import static com.faforever.client.player.SocialStatus.FRIEND;
+import static com.faforever.client.player.SocialStatus.OTHER;
 import static com.natpryce.hamcrest.reflection.HasAnnotationMatcher.hasAnnotation;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -41,10 +51,11 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-public class PlayerServiceTest {
+public class PlayerServiceTest extends AbstractPlainJavaFxTest {
 
   @Mock
   private FafService fafService;
@@ -54,14 +65,14 @@ public class PlayerServiceTest {
   private EventBus eventBus;
 
   private PlayerService instance;
+  private ObjectProperty<ConnectionState> connectionState;
 
   @Before
   public void setUp() throws Exception {
-    MockitoAnnotations.initMocks(this);
-
+    connectionState = new SimpleObjectProperty<>();
     instance = new PlayerService(fafService, userService, eventBus);
 
-    when(fafService.connectionStateProperty()).thenReturn(new SimpleObjectProperty<>());
+    when(fafService.connectionStateProperty()).thenReturn(connectionState);
 
     instance.afterPropertiesSet();
   }
@@ -73,6 +84,50 @@ public class PlayerServiceTest {
     verify(fafService).addOnMessageListener(eq(SocialMessage.class), any(Consumer.class));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlayersInfoAppliedInOneBatch() throws Exception {
+    ArgumentCaptor<Consumer<PlayersMessage>> playersListenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+    verify(fafService).addOnMessageListener(eq(PlayersMessage.class), playersListenerCaptor.capture());
+    ArgumentCaptor<Consumer<SocialMessage>> socialListenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+    verify(fafService).addOnMessageListener(eq(SocialMessage.class), socialListenerCaptor.capture());
+    when(userService.getUsername()).thenReturn("junit");
+
+    SocialMessage socialMessage = new SocialMessage();
+    ReflectionTestUtils.setField(socialMessage, "friends", Collections.singletonList(2));
+    ReflectionTestUtils.setField(socialMessage, "foes", Collections.singletonList(3));
+    socialListenerCaptor.getValue().accept(socialMessage);
+
+    runWhileApplicationThreadIsBlocked(() -> {
+      playersListenerCaptor.getValue().accept(createPlayersMessage(createPlayerDto(1, "player1"), createPlayerDto(2, "friend")));
+      playersListenerCaptor.getValue().accept(createPlayersMessage(createPlayerDto(3, "foe")));
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    ArgumentCaptor<PlayersOnlineEvent> eventCaptor = ArgumentCaptor.forClass(PlayersOnlineEvent.class);
+    verify(eventBus, times(1)).post(eventCaptor.capture());
+    assertThat(eventCaptor.getValue().getPlayers(), hasSize(3));
+
+    assertThat(instance.getPlayerForUsername("player1").get().getSocialStatus(), is(OTHER));
+    assertThat(instance.getPlayerForUsername("friend").get().getSocialStatus(), is(FRIEND));
+    assertThat(instance.getPlayerForUsername("foe").get().getSocialStatus(), is(FOE));
+    assertTrue(instance.isOnline(3));
+  }
+
+  private PlayersMessage createPlayersMessage(com.faforever.client.remote.domain.Player... players) {
+    PlayersMessage playersMessage = new PlayersMessage();
+    playersMessage.setPlayers(Arrays.asList(players));
+    return playersMessage;
+  }
+
+  private com.faforever.client.remote.domain.Player createPlayerDto(int id, String login) {
+    com.faforever.client.remote.domain.Player player = new com.faforever.client.remote.domain.Player();
+    player.setId(id);
+    player.setLogin(login);
+    player.setNumberOfGames(0);
+    return player;
+  }
+
   @Test
   public void testGetPlayerForUsernameUsernameDoesNotExist() throws Exception {
     Optional<Player> player = instance.getPlayerForUsername("junit");
@@ -288,4 +343,95 @@ public class PlayerServiceTest {
     assertThat(player1.getGame(), is(nullValue()));
     assertThat(player2.getGame(), is(nullValue()));
   }
+
+  @Test
+  public void testPlayerMovedToOtherGame() {
+    Player player = instance.createAndGetPlayerForUsername("JUnit");
+
+    Game game1 = new Game();
+    game1.setId(1);
+    game1.getTeams().put("1", Collections.singletonList("JUnit"));
+    instance.onGameAdded(new GameAddedEvent(game1));
+
+    Game game2 = new Game();
+    game2.setId(2);
+    game2.getTeams().put("1", Collections.singletonList("JUnit"));
+    instance.onGameAdded(new GameAddedEvent(game2));
+
+    assertThat(player.getGame(), is(game2));
+    assertThat(instance.getStatistics().getGamesWithPlayers(), is(1));
+
+    instance.onGameRemoved(new GameRemovedEvent(game1));
+    assertThat(player.getGame(), is(game2));
+
+    instance.onGameRemoved(new GameRemovedEvent(game2));
+    assertThat(player.getGame(), is(nullValue()));
+    assertThat(instance.getStatistics().getGamesWithPlayers(), is(0));
+    assertThat(instance.getStatistics().getPlayersInGames(), is(0));
+  }
+
+  @Test
+  public void testOfflinePlayersAreEvicted() {
+    Player offlinePlayer = instance.createAndGetPlayerForUsername("offline");
+    offlinePlayer.setId(1);
+    instance.createAndGetPlayerForUsername("inGame");
+    instance.createAndGetPlayerForUsername("online");
+
+    Game game = new Game();
+    game.setId(1);
+    game.getTeams().put("1", Collections.singletonList("inGame"));
+    instance.onGameAdded(new GameAddedEvent(game));
+
+    instance.onUserOffline(new UserOfflineEvent("offline"));
+    instance.onUserOffline(new UserOfflineEvent("inGame"));
+
+    instance.evictPlayersOfflineSince(Instant.now().minusSeconds(60));
+    assertTrue(instance.getPlayerForUsername("offline").isPresent());
+
+    instance.evictPlayersOfflineSince(Instant.now().plusSeconds(1));
+    assertFalse(instance.getPlayerForUsername("offline").isPresent());
+    assertFalse(instance.isOnline(1));
+    assertTrue(instance.getPlayerForUsername("inGame").isPresent());
+    assertTrue(instance.getPlayerForUsername("online").isPresent());
+    assertThat(instance.getStatistics().getEvictedPlayers(), is(1L));
+
+    instance.onGameRemoved(new GameRemovedEvent(game));
+    instance.evictPlayersOfflineSince(Instant.now().plusSeconds(1));
+    assertFalse(instance.getPlayerForUsername("inGame").isPresent());
+  }
+
+  @Test
+  public void testOfflinePlayersInChatChannelAreNotEvicted() {
+    Player player = instance.createAndGetPlayerForUsername("player");
+    ChatChannelUser chatChannelUser = ChatChannelUserBuilder.create("player").setPlayer(player).get();
+    player.getChatChannelUsers().add(chatChannelUser);
+
+    instance.onUserOffline(new UserOfflineEvent("player"));
+
+    instance.evictPlayersOfflineSince(Instant.now().plusSeconds(1));
+    assertThat(instance.getPlayerForUsername("player").orElse(null), is(player));
+
+    player.getChatChannelUsers().remove(chatChannelUser);
+    instance.evictPlayersOfflineSince(Instant.now().plusSeconds(1));
+    assertFalse(instance.getPlayerForUsername("player").isPresent());
+  }
+
+  @Test
+  public void testPlayersNotAnnouncedAfterReconnectAreEvicted() {
+    instance.onLoginSuccess(new LoginSuccessEvent("junit", "", 1));
+    Player player = instance.createAndGetPlayerForUsername("player");
+
+    Game game = new Game();
+    game.setId(1);
+    game.getTeams().put("1", Collections.singletonList("player"));
+    instance.onGameAdded(new GameAddedEvent(game));
+
+    connectionState.set(ConnectionState.DISCONNECTED);
+    assertThat(player.getGame(), is(nullValue()));
+
+    instance.evictPlayersOfflineSince(Instant.now().plusSeconds(1));
+    assertFalse(instance.getPlayerForUsername("player").isPresent());
+    assertTrue(instance.getCurrentPlayer().isPresent());
+    assertTrue(instance.getPlayerForUsername("junit").isPresent());
+  }
 }
@@ -0,0 +1,174 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.io.QDataInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.utils.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local stand-in for the lobby server that replays a recording made by {@link LobbyTrafficRecorder} to every client
+ * that connects, for instance to measure how the client copes with the load of a peak-hour login.
+ * <p>
+ * The replay starts once the client has sent its first message, like the real server only responds after the client
+ * asked for a session. Messages are sent at their recorded times divided by the speed multiplier; a multiplier of
+ * {@code 0} sends all messages as fast as possible. Messages sent by the client are read and discarded.
+ * <p>
+ * To replay a recording, run this class from the test classpath with the recording, the port and optionally the
+ * speed multiplier as arguments and start the client with {@code --faf-client.server.host=localhost
+ * --faf-client.server.port=<port>}. It is a development tool and therefore not part of the client.
+ */
+@Slf4j
+public class LobbyReplayServer implements Closeable {
+
+  private final Path recording;
+  private final double speedMultiplier;
+  private final ServerSocket serverSocket;
+  private final ExecutorService executorService;
+
+  public LobbyReplayServer(Path recording, int port, double speedMultiplier) throws IOException {
+    this.recording = recording;
+    this.speedMultiplier = speedMultiplier;
+    serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+        .setNameFormat("lobby-replay-%d")
+        .setDaemon(true)
+        .build());
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: LobbyReplayServer <recording> <port> [<speed multiplier>]");
+      System.exit(1);
+    }
+
+    Path recording = Paths.get(args[0]);
+    int port = Integer.parseInt(args[1]);
+    double speedMultiplier = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+
+    LobbyReplayServer lobbyReplayServer = new LobbyReplayServer(recording, port, speedMultiplier);
+    log.info("Replaying {} on port {} at {}x speed", recording, lobbyReplayServer.getPort(), speedMultiplier);
+    lobbyReplayServer.run();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Accepts clients in background until this server is closed.
+   */
+  public void start() {
+    executorService.execute(this::run);
+  }
+
+  private void run() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        log.info("Client connected from {}", socket.getRemoteSocketAddress());
+        executorService.execute(() -> replayTo(socket));
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          log.warn("Could not accept client", e);
+        }
+      }
+    }
+  }
+
+  private void replayTo(Socket socket) {
+    try (Socket clientSocket = socket;
+         DataInputStream recordingInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(recording)));
+         OutputStream outputStream = new BufferedOutputStream(clientSocket.getOutputStream())) {
+      LobbyTrafficRecorder.readHeader(recordingInput);
+
+      QDataInputStream clientInput = new QDataInputStream(new DataInputStream(new BufferedInputStream(clientSocket.getInputStream())));
+      clientInput.skipBlockSize();
+      clientInput.readQString();
+      executorService.execute(() -> discardClientMessages(clientSocket, clientInput));
+
+      long startNanos = System.nanoTime();
+      long frames = 0;
+      long bytes = 0;
+      byte[] frame = new byte[0];
+
+      while (true) {
+        long recordedMillis;
+        try {
+          recordedMillis = recordingInput.readLong();
+        } catch (EOFException e) {
+          break;
+        }
+        int frameSize = recordingInput.readInt();
+        if (frame.length < frameSize) {
+          frame = new byte[frameSize];
+        }
+        recordingInput.readFully(frame, 0, frameSize);
+
+        if (speedMultiplier > 0) {
+          long dueNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(recordedMillis) / speedMultiplier);
+          long waitNanos = dueNanos - System.nanoTime();
+          if (waitNanos > 0) {
+            outputStream.flush();
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+          }
+        }
+
+        outputStream.write(frame, 0, frameSize);
+        frames++;
+        bytes += frameSize;
+      }
+      outputStream.flush();
+
+      log.info("Replayed {} messages ({} bytes) in {} ms", frames, bytes,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+      // Keep the connection open, as the real server would
+      while (!clientSocket.isClosed() && !serverSocket.isClosed()) {
+        Thread.sleep(1000);
+      }
+    } catch (SocketException e) {
+      log.info("Client disconnected");
+    } catch (IOException e) {
+      log.warn("Could not replay " + recording, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void discardClientMessages(Socket clientSocket, QDataInputStream clientInput) {
+    try {
+      while (true) {
+        clientInput.skipBlockSize();
+        clientInput.readQString();
+      }
+    } catch (IOException e) {
+      log.debug("Stopped reading from client", e);
+    } finally {
+      IOUtils.closeQuietly(clientSocket);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    executorService.shutdownNow();
+  }
+}
@@ -0,0 +1,129 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.io.QDataInputStream;
+import com.faforever.client.remote.io.QDataWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LobbyReplayServerTest {
+
+  private static final String SESSION_MESSAGE = "{\"command\": \"session\", \"session\": 1234}";
+  private static final String GAME_INFO_MESSAGE = "{\"command\": \"game_info\", \"title\": \"Größenwahn\"}";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private LobbyReplayServer instance;
+
+  @Before
+  public void setUp() throws Exception {
+    Path recordingDirectory = temporaryFolder.getRoot().toPath();
+    try (LobbyTrafficRecorder recorder = LobbyTrafficRecorder.create(recordingDirectory)) {
+      recorder.record(frame(SESSION_MESSAGE));
+      recorder.record(frame(GAME_INFO_MESSAGE));
+    }
+
+    Path recording;
+    try (Stream<Path> files = Files.list(recordingDirectory)) {
+      recording = files.findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    instance = new LobbyReplayServer(recording, 0, 0);
+    instance.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.close();
+  }
+
+  @Test
+  public void testReplayAfterFirstClientMessage() throws Exception {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), instance.getPort())) {
+      socket.setSoTimeout(5000);
+      writeMessage(socket.getOutputStream(), "{\"command\": \"ask_session\"}");
+
+      QDataInputStream inputStream = new QDataInputStream(new DataInputStream(socket.getInputStream()));
+
+      inputStream.skipBlockSize();
+      assertThat(inputStream.readQString(), is(SESSION_MESSAGE));
+      inputStream.skipBlockSize();
+      assertThat(inputStream.readQString(), is(GAME_INFO_MESSAGE));
+    }
+  }
+
+  @Test
+  public void testCapturedFramesAreRecordedUnchanged() throws Exception {
+    Path recordingDirectory = temporaryFolder.newFolder().toPath();
+    byte[] frames = concat(frame(SESSION_MESSAGE), frame(GAME_INFO_MESSAGE));
+
+    try (LobbyTrafficRecorder recorder = LobbyTrafficRecorder.create(recordingDirectory)) {
+      QDataInputStream inputStream = new QDataInputStream(new DataInputStream(recorder.capture(new ByteArrayInputStream(frames))));
+      for (int i = 0; i < 2; i++) {
+        inputStream.skipBlockSize();
+        inputStream.readQString();
+        recorder.recordFrame();
+      }
+    }
+
+    Path recording;
+    try (Stream<Path> files = Files.list(recordingDirectory)) {
+      recording = files.findFirst().orElseThrow(IllegalStateException::new);
+    }
+    try (DataInputStream recordingInput = new DataInputStream(Files.newInputStream(recording))) {
+      LobbyTrafficRecorder.readHeader(recordingInput);
+      assertThat(readRecordedFrame(recordingInput), is(frame(SESSION_MESSAGE)));
+      assertThat(readRecordedFrame(recordingInput), is(frame(GAME_INFO_MESSAGE)));
+    }
+  }
+
+  private static byte[] readRecordedFrame(DataInputStream recordingInput) throws IOException {
+    recordingInput.readLong();
+    byte[] frame = new byte[recordingInput.readInt()];
+    recordingInput.readFully(frame);
+    return frame;
+  }
+
+  /**
+   * Returns the frame the server sends for the specified message.
+   */
+  private static byte[] frame(String message) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    QDataWriter qDataWriter = new QDataWriter(outputStream);
+    qDataWriter.writeInt32(Integer.BYTES + message.length() * 2);
+    qDataWriter.append(message);
+    qDataWriter.flush();
+    return outputStream.toByteArray();
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = new byte[first.length + second.length];
+    System.arraycopy(first, 0, result, 0, first.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  private void writeMessage(OutputStream outputStream, String message) throws IOException {
+    QDataWriter qDataWriter = new QDataWriter(outputStream);
+    qDataWriter.writeInt32(Integer.BYTES + message.length() * 2);
+    qDataWriter.append(message);
+    qDataWriter.flush();
+  }
+}
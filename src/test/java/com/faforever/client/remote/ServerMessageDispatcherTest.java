@@ -0,0 +1,160 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.ServerMessageDispatcher.MessageDispatchStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ServerMessageDispatcherTest {
+
+  private static final int TIMEOUT = 5;
+
+  private ServerMessageDispatcher instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ServerMessageDispatcher(10_000);
+  }
+
+  @After
+  public void tearDown() {
+    instance.shutdown();
+  }
+
+  @Test
+  public void testMessagesAreHandledInOrder() throws Exception {
+    List<Integer> handled = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+
+    for (int i = 0; i < 100; i++) {
+      int number = i;
+      instance.dispatch(() -> number, handled::add);
+    }
+    instance.dispatch(() -> "done", message -> done.countDown());
+
+    assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    for (int i = 0; i < 100; i++) {
+      assertThat(handled.get(i), is(i));
+    }
+  }
+
+  @Test
+  public void testSlowlyDecodedMessageIsHandledBeforeLaterMessages() throws Exception {
+    CountDownLatch releaseDecoding = new CountDownLatch(1);
+    List<String> handled = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+
+    instance.dispatch(() -> {
+      awaitQuietly(releaseDecoding);
+      return "player_info";
+    }, handled::add);
+    instance.dispatch(() -> "game_info", message -> {
+      handled.add(message);
+      done.countDown();
+    });
+
+    assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+    releaseDecoding.countDown();
+
+    assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    assertThat(handled, contains("player_info", "game_info"));
+  }
+
+  @Test
+  public void testMessagesAreDecodedWhileHandlingIsBlocked() throws Exception {
+    CountDownLatch releaseHandling = new CountDownLatch(1);
+    CountDownLatch decoded = new CountDownLatch(1);
+
+    instance.dispatch(() -> "first", message -> awaitQuietly(releaseHandling));
+    instance.dispatch(() -> {
+      decoded.countDown();
+      return "second";
+    }, message -> {
+    });
+
+    assertTrue(decoded.await(TIMEOUT, TimeUnit.SECONDS));
+
+    MessageDispatchStatistics statistics = instance.getStatistics();
+    assertThat(statistics.getQueuedMessages(), is(2));
+    assertThat(statistics.getMaxObservedQueuedMessages(), is(2));
+
+    releaseHandling.countDown();
+  }
+
+  @Test
+  public void testUndecodableMessageIsNotHandled() throws Exception {
+    List<Object> handled = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+
+    instance.dispatch(() -> null, handled::add);
+    instance.dispatch(() -> "done", message -> done.countDown());
+
+    assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+    assertThat(handled.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testDispatchBlocksWhileQueueIsFull() throws Exception {
+    instance.shutdown();
+    instance = new ServerMessageDispatcher(1);
+
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+    instance.dispatch(() -> "first", message -> awaitQuietly(releaseFirst));
+
+    CompletableFuture<Void> secondDispatch = CompletableFuture.runAsync(() -> {
+      try {
+        instance.dispatch(() -> "second", message -> {
+        });
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    try {
+      secondDispatch.get(200, TimeUnit.MILLISECONDS);
+      throw new AssertionError("Dispatch should have blocked");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+
+    releaseFirst.countDown();
+    secondDispatch.get(TIMEOUT, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testHandlerExceptionDoesNotStopHandling() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+
+    instance.dispatch(() -> "first", message -> {
+      throw new IllegalStateException("Expected exception");
+    });
+    instance.dispatch(() -> {
+      throw new IllegalStateException("Expected exception");
+    }, message -> {
+    });
+    instance.dispatch(() -> "done", message -> done.countDown());
+
+    assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.ServerRequest.InFlightPolicy;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class ServerRequestTest {
+
+  @Test
+  public void testSharedRequestIsSentOnce() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+    AtomicInteger sentRequests = new AtomicInteger();
+
+    CompletableFuture<String> first = instance.send(sentRequests::incrementAndGet, null);
+    CompletableFuture<String> second = instance.send(sentRequests::incrementAndGet, null);
+    instance.complete("response");
+
+    assertThat(sentRequests.get(), is(1));
+    assertThat(first.get(), is("response"));
+    assertThat(second.get(), is("response"));
+  }
+
+  @Test
+  public void testCancellingSharedRequestDoesNotAffectOthers() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+
+    CompletableFuture<String> first = instance.send(() -> {
+    }, null);
+    CompletableFuture<String> second = instance.send(() -> {
+    }, null);
+    first.cancel(true);
+    instance.complete("response");
+
+    assertThat(second.get(), is("response"));
+  }
+
+  @Test
+  public void testNewRequestIsSentAfterResponse() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+    AtomicInteger sentRequests = new AtomicInteger();
+
+    instance.send(sentRequests::incrementAndGet, null);
+    instance.complete("first");
+    CompletableFuture<String> second = instance.send(sentRequests::incrementAndGet, null);
+    instance.complete("second");
+
+    assertThat(sentRequests.get(), is(2));
+    assertThat(second.get(), is("second"));
+  }
+
+  @Test
+  public void testReplacedRequestIsCancelled() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.REPLACE);
+    AtomicInteger sentRequests = new AtomicInteger();
+
+    CompletableFuture<String> first = instance.send(sentRequests::incrementAndGet, null);
+    CompletableFuture<String> second = instance.send(sentRequests::incrementAndGet, null);
+    instance.complete("response");
+
+    assertThat(sentRequests.get(), is(2));
+    assertThat(first.isCompletedExceptionally(), is(true));
+    assertThat(second.get(), is("response"));
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+
+    CompletableFuture<String> future = instance.send(() -> {
+    }, Duration.ofMillis(50));
+
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Request should have timed out");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(TimeoutException.class));
+    }
+
+    AtomicInteger sentRequests = new AtomicInteger();
+    instance.send(sentRequests::incrementAndGet, null);
+    assertThat(sentRequests.get(), is(1));
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+
+    CompletableFuture<String> future = instance.send(() -> {
+    }, null);
+    instance.cancel();
+
+    assertThat(future.isCompletedExceptionally(), is(true));
+  }
+
+  @Test
+  public void testFailedSend() throws Exception {
+    ServerRequest<String> instance = new ServerRequest<>("test", InFlightPolicy.SHARE);
+
+    CompletableFuture<String> future = instance.send(() -> {
+      throw new IllegalStateException("Expected exception");
+    }, null);
+
+    assertThat(future.isCompletedExceptionally(), is(true));
+  }
+}
@@ -0,0 +1,129 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.domain.AddFriendMessage;
+import com.faforever.client.remote.domain.ClientMessage;
+import com.faforever.client.remote.domain.SerializableMessage;
+import com.faforever.client.remote.io.QDataInputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ServerWriterTest {
+
+  private ServerWriter instance;
+  private CountingOutputStream outputStream;
+
+  @Before
+  public void setUp() throws Exception {
+    outputStream = new CountingOutputStream();
+    instance = new ServerWriter(outputStream);
+    instance.registerMessageSerializer(new ClientMessageSerializer(), ClientMessage.class);
+  }
+
+  @Test
+  public void testWriteMessages() throws Exception {
+    instance.write(new AddFriendMessage(1));
+    instance.write(new AddFriendMessage(22));
+
+    QDataInputStream inputStream = new QDataInputStream(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+
+    inputStream.skipBlockSize();
+    assertThat(inputStream.readQString(), is("{\"friend\": 1,\"command\": \"social_add\"}"));
+    inputStream.skipBlockSize();
+    assertThat(inputStream.readQString(), is("{\"friend\": 22,\"command\": \"social_add\"}"));
+    assertThat(outputStream.flushes, is(2));
+  }
+
+  @Test
+  public void testWriteLargeMessage() throws Exception {
+    instance.registerMessageSerializer(new JsonMessageSerializer<>(), MessageWithString.class);
+    String largeString = String.join("", Collections.nCopies(100_000, "a"));
+
+    instance.write(new MessageWithString(largeString));
+    instance.write(new MessageWithString("small"));
+
+    QDataInputStream inputStream = new QDataInputStream(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+
+    inputStream.skipBlockSize();
+    assertThat(inputStream.readQString(), is("{\"string\": \"" + largeString + "\"}"));
+    inputStream.skipBlockSize();
+    assertThat(inputStream.readQString(), is("{\"string\": \"small\"}"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteWithoutSerializer() throws Exception {
+    instance.write(new MessageWithString("unknown"));
+  }
+
+  @Test
+  public void testConcurrentWritesAreFlushedOnce() throws Exception {
+    CountDownLatch serializerBlocked = new CountDownLatch(1);
+    CountDownLatch releaseSerializer = new CountDownLatch(1);
+    instance.registerMessageSerializer((MessageWithString message, OutputStream stream) -> {
+      if ("first".equals(message.string)) {
+        serializerBlocked.countDown();
+        try {
+          releaseSerializer.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      stream.write(message.string.getBytes(StandardCharsets.US_ASCII));
+    }, MessageWithString.class);
+
+    CompletableFuture<Void> firstWrite = CompletableFuture.runAsync(() -> instance.write(new MessageWithString("first")));
+    serializerBlocked.await(5, TimeUnit.SECONDS);
+
+    AtomicReference<Thread> secondWriter = new AtomicReference<>();
+    CompletableFuture<Void> secondWrite = CompletableFuture.runAsync(() -> {
+      secondWriter.set(Thread.currentThread());
+      instance.write(new MessageWithString("second"));
+    });
+    while (secondWriter.get() == null || secondWriter.get().getState() != Thread.State.BLOCKED) {
+      Thread.sleep(10);
+    }
+
+    releaseSerializer.countDown();
+    firstWrite.get(5, TimeUnit.SECONDS);
+    secondWrite.get(5, TimeUnit.SECONDS);
+
+    assertThat(outputStream.flushes, is(1));
+    assertThat(outputStream.size(), is(4 + "first".length() + 4 + "second".length()));
+  }
+
+  private static class MessageWithString implements SerializableMessage {
+    private final String string;
+
+    private MessageWithString(String string) {
+      this.string = string;
+    }
+
+    @Override
+    public Collection<String> getStringsToMask() {
+      return Collections.emptyList();
+    }
+  }
+
+  private static class CountingOutputStream extends ByteArrayOutputStream {
+    private volatile int flushes;
+
+    @Override
+    public void flush() {
+      flushes++;
+    }
+  }
+}
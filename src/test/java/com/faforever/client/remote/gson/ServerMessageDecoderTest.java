@@ -0,0 +1,90 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.fa.relay.GpgServerMessageType;
+import com.faforever.client.fa.relay.HostGameMessage;
+import com.faforever.client.remote.domain.FafServerMessageType;
+import com.faforever.client.remote.domain.GameInfoMessage;
+import com.faforever.client.remote.domain.MessageTarget;
+import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.ServerMessageType;
+import com.faforever.client.remote.domain.SessionMessage;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ServerMessageDecoderTest {
+
+  private ServerMessageDecoder instance;
+
+  @Before
+  public void setUp() throws Exception {
+    Gson gson = new GsonBuilder()
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .registerTypeAdapter(FafServerMessageType.class, ServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GpgServerMessageType.class, GpgServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(MessageTarget.class, MessageTargetTypeAdapter.INSTANCE)
+        .create();
+    instance = new ServerMessageDecoder(gson);
+  }
+
+  @Test
+  public void testDecodeClientMessage() throws Exception {
+    ServerMessage message = instance.decode("{\"session\": 1234, \"command\": \"session\"}");
+
+    assertThat(message, instanceOf(SessionMessage.class));
+    assertThat(((SessionMessage) message).getSession(), is(1234L));
+  }
+
+  @Test
+  public void testDecodeNestedMessage() throws Exception {
+    ServerMessage message = instance.decode("{\"command\": \"game_info\", \"target\": null, \"games\": ["
+        + "{\"command\": \"game_info\", \"uid\": 1, \"title\": \"First\", \"teams\": {\"1\": [\"Player\"]}},"
+        + "{\"command\": \"game_info\", \"uid\": 2, \"title\": \"Second\"}]}");
+
+    assertThat(message, instanceOf(GameInfoMessage.class));
+    GameInfoMessage gameInfoMessage = (GameInfoMessage) message;
+    assertThat(gameInfoMessage.getGames().size(), is(2));
+    assertThat(gameInfoMessage.getGames().get(1).getTitle(), is("Second"));
+  }
+
+  @Test
+  public void testDecodeGameMessage() throws Exception {
+    ServerMessage message = instance.decode("{\"command\": \"HostGame\", \"target\": \"game\", \"args\": [\"scmp_001\"]}");
+
+    assertThat(message, instanceOf(HostGameMessage.class));
+  }
+
+  @Test
+  public void testUnknownMessagesAreIgnored() throws Exception {
+    assertThat(instance.decode("{\"command\": \"unknown\"}"), is(nullValue()));
+    assertThat(instance.decode("{\"target\": \"unknown\", \"command\": \"session\"}"), is(nullValue()));
+    assertThat(instance.decode("{\"session\": 1234}"), is(nullValue()));
+  }
+
+  @Test
+  public void testRestOfMessageIsNotReadOnceTypeIsKnown() throws Exception {
+    ServerMessageType serverMessageType = instance.getServerMessageType("{\"target\": \"game\", \"command\": \"HostGame\", \"args\": [ malformed");
+
+    assertThat(serverMessageType, is(GpgServerMessageType.HOST_GAME));
+  }
+
+  @Test
+  public void testRestOfClientMessageIsNotReadOnceCommandIsKnown() throws Exception {
+    ServerMessageType serverMessageType = instance.getServerMessageType("{\"command\": \"game_info\", \"games\": [ malformed");
+
+    assertThat(serverMessageType, is(FafServerMessageType.GAME_INFO));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void testMalformedMessage() throws Exception {
+    instance.decode("[\"command\"]");
+  }
+}
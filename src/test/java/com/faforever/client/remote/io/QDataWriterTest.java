@@ -92,4 +92,14 @@ public class QDataWriterTest {
 
     assertArrayEquals(expectedBytes, outputStream.toByteArray());
   }
+
+  @Test
+  public void testAppendWithSizePartial() throws Exception {
+    byte[] bytes = {0x11, 0x22, 0x33, 0x44};
+    instance.appendWithSize(bytes, 1, 2);
+
+    byte[] expectedBytes = new byte[]{0x00, 0x00, 0x00, 0x02, 0x22, 0x33};
+
+    assertArrayEquals(expectedBytes, outputStream.toByteArray());
+  }
 }
@@ -0,0 +1,162 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.config.ClientProperties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LiveReplayRelayTest {
+
+  private static final byte[] HEADER = "P/123/junit.scfareplay\0".getBytes(US_ASCII);
+  private static final byte[] DATA = "Supreme Commander v1.50.3599".getBytes(US_ASCII);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ClientProperties.Replay replayProperties;
+  private Path recordingFile;
+  private CompletableFuture<Void> relayFuture;
+
+  @Before
+  public void setUp() throws Exception {
+    replayProperties = new ClientProperties.Replay();
+    replayProperties.setRelayFlushInterval(Duration.ofMillis(10));
+    replayProperties.setRelayReconnectDelay(Duration.ofMillis(10));
+    replayProperties.setRelayMaxConnectAttempts(1);
+    recordingFile = temporaryFolder.newFile("recording.scfareplay").toPath();
+  }
+
+  @Test
+  public void testRecordAndRelay() throws Exception {
+    try (ServerSocket replayServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      ReplayRelayStatistics statistics = new ReplayRelayStatistics();
+      CompletableFuture<Void> relayFuture = runRelay(new InetSocketAddress(InetAddress.getLoopbackAddress(), replayServer.getLocalPort()), statistics);
+
+      try (Socket replayServerConnection = replayServer.accept()) {
+        byte[] relayedBytes = readFully(replayServerConnection.getInputStream());
+        relayFuture.get(10, TimeUnit.SECONDS);
+
+        assertThat(relayedBytes, is(concat(HEADER, DATA)));
+      }
+
+      assertThat(Files.readAllBytes(recordingFile), is(DATA));
+      assertThat(statistics.getBytesReceived(), is((long) HEADER.length + DATA.length));
+      assertThat(statistics.getBytesRelayed(), is((long) DATA.length));
+    }
+  }
+
+  @Test
+  public void testRecordWithoutReplayServer() throws Exception {
+    ReplayRelayStatistics statistics = new ReplayRelayStatistics();
+
+    runRelay(null, statistics).get(10, TimeUnit.SECONDS);
+
+    assertThat(Files.readAllBytes(recordingFile), is(DATA));
+    assertThat(statistics.getBytesRelayed(), is(0L));
+  }
+
+  @Test
+  public void testReconnectAndResendAfterConnectionLoss() throws Exception {
+    replayProperties.setRelayMaxConnectAttempts(3);
+
+    try (ServerSocket replayServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      replayServer.setSoTimeout(10_000);
+      ReplayRelayStatistics statistics = new ReplayRelayStatistics();
+
+      byte[] relayedBytes;
+      try (Socket game = connectGame(new InetSocketAddress(InetAddress.getLoopbackAddress(), replayServer.getLocalPort()), statistics)) {
+        game.getOutputStream().write(HEADER);
+        game.getOutputStream().write(DATA);
+        game.getOutputStream().flush();
+
+        try (Socket firstConnection = replayServer.accept()) {
+          assertThat(firstConnection.getInputStream().readNBytes(HEADER.length + DATA.length), is(concat(HEADER, DATA)));
+          // Resets the connection, so that the relay's next write fails
+          firstConnection.setSoLinger(true, 0);
+        }
+        Thread.sleep(50);
+        game.getOutputStream().write(DATA);
+        game.getOutputStream().flush();
+
+        try (Socket secondConnection = replayServer.accept()) {
+          game.close();
+          relayedBytes = readFully(secondConnection.getInputStream());
+        }
+      }
+      relayFuture.get(10, TimeUnit.SECONDS);
+
+      assertThat(relayedBytes, is(concat(HEADER, concat(DATA, DATA))));
+      assertThat(Files.readAllBytes(recordingFile), is(concat(DATA, DATA)));
+      assertThat(statistics.getReconnects(), is(1L));
+    }
+  }
+
+  /**
+   * Starts a relay for a fake game which sends {@link #HEADER} and {@link #DATA} and then disconnects.
+   */
+  private CompletableFuture<Void> runRelay(InetSocketAddress replayServerAddress, ReplayRelayStatistics statistics) throws Exception {
+    try (Socket game = connectGame(replayServerAddress, statistics)) {
+      game.getOutputStream().write(HEADER);
+      game.getOutputStream().flush();
+      Thread.sleep(50);
+      game.getOutputStream().write(DATA);
+    }
+    return relayFuture;
+  }
+
+  /**
+   * Starts a relay and returns the socket of a fake game connected to it.
+   */
+  private Socket connectGame(InetSocketAddress replayServerAddress, ReplayRelayStatistics statistics) throws Exception {
+    ServerSocketChannel localServer = ServerSocketChannel.open();
+    localServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+    relayFuture = CompletableFuture.runAsync(() -> {
+      try (ServerSocketChannel serverChannel = localServer;
+           SocketChannel gameChannel = serverChannel.accept();
+           FileChannel recordingChannel = FileChannel.open(recordingFile, READ, WRITE)) {
+        new LiveReplayRelay(gameChannel, recordingChannel, replayServerAddress, replayProperties, statistics, () -> {
+        }).run();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    return new Socket(InetAddress.getLoopbackAddress(), ((InetSocketAddress) localServer.getLocalAddress()).getPort());
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    inputStream.transferTo(outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = new byte[first.length + second.length];
+    System.arraycopy(first, 0, result, 0, first.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+}
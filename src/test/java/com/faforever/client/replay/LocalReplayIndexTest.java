@@ -0,0 +1,77 @@
+package com.faforever.client.replay;
+
+import com.faforever.client.preferences.PreferencesService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+public class LocalReplayIndexTest {
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private LocalReplayIndex instance;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    instance = new LocalReplayIndex(preferencesService);
+  }
+
+  @Test
+  public void testEntryIsPersisted() throws Exception {
+    Path replayFile = cacheDirectory.getRoot().toPath().resolve("123-Junit.fafreplay");
+    instance.put(replayFile, 1024, 5000, replayInfo(123));
+    instance.store();
+
+    LocalReplayIndex reloadedIndex = new LocalReplayIndex(preferencesService);
+    Optional<LocalReplayInfo> replayInfo = reloadedIndex.get(replayFile, 1024, 5000);
+
+    assertThat(replayInfo.isPresent(), is(true));
+    assertThat(replayInfo.get().getUid(), is(123));
+  }
+
+  @Test
+  public void testEntryIsInvalidatedWhenFileChanged() throws Exception {
+    Path replayFile = cacheDirectory.getRoot().toPath().resolve("123-Junit.fafreplay");
+    instance.put(replayFile, 1024, 5000, replayInfo(123));
+
+    assertThat(instance.get(replayFile, 2048, 5000).isPresent(), is(false));
+    assertThat(instance.get(replayFile, 1024, 6000).isPresent(), is(false));
+  }
+
+  @Test
+  public void testRetainAll() throws Exception {
+    Path replayFile1 = cacheDirectory.getRoot().toPath().resolve("1-Junit.fafreplay");
+    Path replayFile2 = cacheDirectory.getRoot().toPath().resolve("2-Junit.fafreplay");
+    instance.put(replayFile1, 1, 1, replayInfo(1));
+    instance.put(replayFile2, 2, 2, replayInfo(2));
+
+    instance.retainAll(Collections.singletonList(replayFile2));
+
+    assertThat(instance.size(), is(1));
+    assertThat(instance.get(replayFile2, 2, 2).isPresent(), is(true));
+  }
+
+  private static LocalReplayInfo replayInfo(int uid) {
+    LocalReplayInfo replayInfo = new LocalReplayInfo();
+    replayInfo.setUid(uid);
+    return replayInfo;
+  }
+}
@@ -33,4 +33,17 @@ public class ReplayFileReaderImplTest {
     }
     assertThat(instance.readRawReplayData(tempFile).length, is(197007));
   }
+
+  @Test
+  public void parseMetaData() throws Exception {
+    Path tempFile = temporaryFolder.getRoot().toPath().resolve("replay.tmp");
+    try (InputStream inputStream = new BufferedInputStream(getClass().getResourceAsStream("/replay/test.fafreplay"))) {
+      Files.copy(inputStream, tempFile);
+    }
+
+    LocalReplayInfo replayInfo = instance.parseMetaData(tempFile);
+
+    assertThat(replayInfo.getUid(), is(5670811));
+    assertThat(replayInfo.getMapname(), is("scmp_009"));
+  }
 }
@@ -5,6 +5,8 @@ import com.faforever.client.fx.PlatformService;
 import com.faforever.client.game.GameService;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryChanges;
+import com.faforever.client.io.DirectoryWatcherService;
 import com.faforever.client.main.event.LocalReplaysChangedEvent;
 import com.faforever.client.map.MapBeanBuilder;
 import com.faforever.client.map.MapService;
@@ -24,6 +26,7 @@ import com.faforever.client.util.Tuple;
 import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
 import com.faforever.commons.replay.ReplayData;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -39,20 +42,17 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -150,6 +150,8 @@ public class ReplayServiceTest {
   @Rule
   public TemporaryFolder cacheDirectory = new TemporaryFolder();
   private ReplayService instance;
+  private LocalReplayIndex localReplayIndex;
+  private ClientProperties clientProperties;
   @Mock
   private I18n i18n;
   @Mock
@@ -180,8 +182,9 @@ public class ReplayServiceTest {
   private ApplicationEventPublisher publisher;
   @Mock
   private MapGeneratorService mapGeneratorService;
+  private ExecutorService executorService = MoreExecutors.newDirectExecutorService();
   @Mock
-  private ExecutorService executorService;
+  private DirectoryWatcherService directoryWatcherService;
   @Mock
   private UserService userService;
 
@@ -189,8 +192,11 @@ public class ReplayServiceTest {
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
 
-    instance = new ReplayService(new ClientProperties(), preferencesService, userService, replayFileReader, notificationService, gameService, playerService,
-        taskService, i18n, reportingService, applicationContext, platformService, fafService, modService, mapService, publisher, mapGeneratorService, executorService);
+    clientProperties = new ClientProperties();
+    clientProperties.getReplay().setLocalReplaysSettleDelay(Duration.ZERO);
+    localReplayIndex = new LocalReplayIndex(preferencesService);
+    instance = new ReplayService(clientProperties, preferencesService, userService, replayFileReader, localReplayIndex, notificationService, gameService, playerService,
+        taskService, i18n, reportingService, applicationContext, platformService, fafService, modService, mapService, publisher, mapGeneratorService, executorService, directoryWatcherService);
 
     when(preferencesService.getReplaysDirectory()).thenReturn(replayDirectory.getRoot().toPath());
     when(preferencesService.getCorruptedReplaysDirectory()).thenReturn(replayDirectory.getRoot().toPath().resolve("corrupt"));
@@ -270,21 +276,46 @@ public class ReplayServiceTest {
   @Test
   public void testStartLoadingAndWatchingLocalReplays() throws Exception {
     LoadLocalReplaysTask task = mock(LoadLocalReplaysTask.class);
-    when(task.getFuture()).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        ReplayInfoBeanBuilder.create().get(),
-        ReplayInfoBeanBuilder.create().get(),
-        ReplayInfoBeanBuilder.create().get()
-    )));
     when(applicationContext.getBean(LoadLocalReplaysTask.class)).thenReturn(task);
 
     instance.startLoadingAndWatchingLocalReplays();
 
     verify(taskService).submitTask(task);
-    assertThat(instance.getLocalReplays(), hasSize(3));
-    verify(publisher).publishEvent(argThat((LocalReplaysChangedEvent event) -> event.getNewReplays().size() == 3));
     verifyZeroInteractions(notificationService);
   }
 
+  @Test
+  public void testLoadLocalReplaysPublishesChunks() throws Exception {
+    LocalReplayInfo localReplayInfo = new LocalReplayInfo();
+    localReplayInfo.setUid(123);
+    localReplayInfo.setFeaturedMod("faf");
+    localReplayInfo.setMapname(TEST_MAP_NAME);
+
+    for (int i = 0; i < 150; i++) {
+      Path file = replayDirectory.newFile("replay" + i + ".fafreplay").toPath();
+      when(replayFileReader.parseMetaData(file)).thenReturn(localReplayInfo);
+    }
+    when(modService.getFeaturedMod(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(mapService.findByMapFolderName(any())).thenReturn(CompletableFuture.completedFuture(Optional.of(MapBeanBuilder.create().defaultValues().get())));
+
+    Collection<Replay> localReplays = instance.loadLocalReplays().get();
+
+    assertThat(localReplays, hasSize(150));
+    assertThat(instance.getLocalReplays(), hasSize(150));
+    verify(publisher).publishEvent(argThat((LocalReplaysChangedEvent event) -> event.getNewReplays().size() == 100));
+    verify(publisher).publishEvent(argThat((LocalReplaysChangedEvent event) -> event.getNewReplays().size() == 50));
+    verify(modService, times(1)).getFeaturedMod("faf");
+    verify(mapService, times(1)).findByMapFolderName(TEST_MAP_NAME);
+  }
+
+  @Test
+  public void testLoadLocalReplaysFromEmptyDirectoryPublishesEvent() throws Exception {
+    Collection<Replay> localReplays = instance.loadLocalReplays().get();
+
+    assertThat(localReplays, empty());
+    verify(publisher).publishEvent(argThat((LocalReplaysChangedEvent event) -> event.getNewReplays().isEmpty()));
+  }
+
   @Test
   public void testLoadLocalReplays() throws Exception {
     Path file1 = replayDirectory.newFile("replay.fafreplay").toPath();
@@ -305,9 +336,28 @@ public class ReplayServiceTest {
   }
 
   @Test
-  public void testLocalReplaysWatchEvent() throws Exception {
-    WatchKey watchKey = mock(WatchKey.class);
+  public void testLoadLocalReplaysParsesUnchangedFilesOnlyOnce() throws Exception {
+    Path file1 = replayDirectory.newFile("replay.fafreplay").toPath();
+
+    LocalReplayInfo localReplayInfo = new LocalReplayInfo();
+    localReplayInfo.setUid(123);
+    localReplayInfo.setTitle("title");
 
+    when(replayFileReader.parseMetaData(file1)).thenReturn(localReplayInfo);
+    when(modService.getFeaturedMod(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(mapService.findByMapFolderName(any())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+    instance.loadLocalReplays().get();
+    Collection<Replay> localReplays = instance.loadLocalReplays().get();
+
+    assertThat(localReplays, hasSize(1));
+    assertThat(localReplays.iterator().next().getId(), is(123));
+    verify(replayFileReader, times(1)).parseMetaData(file1);
+    assertThat(Files.exists(cacheDirectory.getRoot().toPath().resolve("localReplayIndex.json")), is(true));
+  }
+
+  @Test
+  public void testLocalReplaysChanged() throws Exception {
     Path newReplayFile = replayDirectory.newFile("newReplay.fafreplay").toPath();
     LocalReplayInfo newReplayInfo = new LocalReplayInfo();
     newReplayInfo.setUid(123);
@@ -318,24 +368,15 @@ public class ReplayServiceTest {
     when(replayFileReader.parseMetaData(newReplayFile)).thenReturn(newReplayInfo);
     when(modService.getFeaturedMod(any())).thenReturn(CompletableFuture.completedFuture(null));
     when(mapService.findByMapFolderName(any())).thenReturn(CompletableFuture.completedFuture(Optional.of(MapBeanBuilder.create().defaultValues().get())));
-    WatchEvent watchEventForNewReplay = mock(WatchEvent.class);
-    when(watchEventForNewReplay.kind()).thenReturn(ENTRY_CREATE);
-    when(watchEventForNewReplay.context()).thenReturn(newReplayFile);
 
     Replay deletedReplay = mock(Replay.class);
-    instance.localReplays.add(deletedReplay);
-    Path deletedReplayFile = replayDirectory.newFile("deletedReplay.fafreplay").toPath();
+    Path deletedReplayFile = replayDirectory.getRoot().toPath().resolve("deletedReplay.fafreplay");
+    instance.localReplays.put(deletedReplayFile, deletedReplay);
     when(deletedReplay.getReplayFile()).thenReturn(deletedReplayFile);
-    WatchEvent watchEventForDeletedReplay = mock(WatchEvent.class);
-    when(watchEventForDeletedReplay.kind()).thenReturn(ENTRY_DELETE);
-    when(watchEventForDeletedReplay.context()).thenReturn(deletedReplayFile);
 
-    List<WatchEvent<?>> eventsList = new ArrayList<>();
-    eventsList.add(watchEventForNewReplay);
-    eventsList.add(watchEventForDeletedReplay);
-    when(watchKey.pollEvents()).thenReturn(eventsList);
+    instance.onLocalReplaysChanged(new DirectoryChanges(replayDirectory.getRoot().toPath(),
+        Set.of(newReplayFile), Set.of(), Set.of(deletedReplayFile)));
 
-    instance.onLocalReplaysWatchEvent(watchKey);
     verify(publisher).publishEvent(argThat((LocalReplaysChangedEvent event) ->
         event.getNewReplays().stream().findFirst().get().getReplayFile() == newReplayFile
             && event.getDeletedReplays().stream().findFirst().get().getReplayFile() == deletedReplayFile
@@ -343,6 +384,26 @@ public class ReplayServiceTest {
     verifyZeroInteractions(notificationService);
   }
 
+  @Test
+  public void testUnchangedLocalReplayIsNotReloaded() throws Exception {
+    Path replayFile = replayDirectory.newFile("replay.fafreplay").toPath();
+    LocalReplayInfo replayInfo = new LocalReplayInfo();
+    replayInfo.setUid(123);
+    replayInfo.setFeaturedMod("faf");
+    replayInfo.setMapname(TEST_MAP_NAME);
+    when(replayFileReader.parseMetaData(replayFile)).thenReturn(replayInfo);
+    when(modService.getFeaturedMod(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(mapService.findByMapFolderName(any())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+    DirectoryChanges changes = new DirectoryChanges(replayDirectory.getRoot().toPath(), Set.of(), Set.of(replayFile), Set.of());
+    instance.onLocalReplaysChanged(changes);
+    instance.onLocalReplaysChanged(changes);
+
+    verify(replayFileReader, times(1)).parseMetaData(replayFile);
+    verify(publisher, times(1)).publishEvent(any(LocalReplaysChangedEvent.class));
+    assertThat(instance.getLocalReplays(), hasSize(1));
+  }
+
   @Test
   public void testRunFafReplayFile() throws Exception {
     Path replayFile = replayDirectory.newFile("replay.fafreplay").toPath();
@@ -0,0 +1,45 @@
+package com.faforever.client.task;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ResourceLocksTest {
+
+  @Test
+  public void testDiskLocksOfDifferentPathsDontBlock() throws Exception {
+    Path mods = Paths.get("mods");
+    // Different paths may share a lock, so pick one that doesn't
+    int suffix = 0;
+    while (ResourceLocks.getDiskLock(Paths.get("maps" + suffix)) == ResourceLocks.getDiskLock(mods)) {
+      suffix++;
+    }
+    Path maps = Paths.get("maps" + suffix);
+
+    ResourceLocks.acquireDiskLock(mods);
+    try {
+      CompletableFuture.runAsync(() -> {
+        ResourceLocks.acquireDiskLock(maps);
+        ResourceLocks.freeDiskLock(maps);
+      }).get(5, TimeUnit.SECONDS);
+    } finally {
+      ResourceLocks.freeDiskLock(mods);
+    }
+  }
+
+  @Test
+  public void testUploadDoesNotBlockDownload() throws Exception {
+    ResourceLocks.acquireUploadLock();
+    try {
+      CompletableFuture.runAsync(() -> {
+        ResourceLocks.acquireDownloadLock();
+        ResourceLocks.freeDownloadLock();
+      }).get(5, TimeUnit.SECONDS);
+    } finally {
+      ResourceLocks.freeUploadLock();
+    }
+  }
+}
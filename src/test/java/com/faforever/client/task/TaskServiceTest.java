@@ -0,0 +1,121 @@
+package com.faforever.client.task;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.task.CompletableTask.Category;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.client.test.AbstractPlainJavaFxTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TaskServiceTest extends AbstractPlainJavaFxTest {
+
+  private TaskService instance;
+  private ExecutorService executorService;
+  private ClientProperties clientProperties;
+  private List<String> executedTasks;
+  private CountDownLatch blockingTaskLatch;
+
+  @Before
+  public void setUp() throws Exception {
+    executorService = Executors.newCachedThreadPool();
+    clientProperties = new ClientProperties();
+    clientProperties.getTask().setMaxNetworkTasks(1);
+    clientProperties.getTask().setMaxQueuedTasks(2);
+    executedTasks = new CopyOnWriteArrayList<>();
+    blockingTaskLatch = new CountDownLatch(1);
+
+    instance = new TaskService(executorService, clientProperties);
+  }
+
+  @After
+  public void tearDown() {
+    blockingTaskLatch.countDown();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testTasksAreExecutedByPriority() throws Exception {
+    instance.submitTask(new TestTask("blocking", Priority.HIGH, Category.NETWORK, blockingTaskLatch));
+    TestTask lowTask = instance.submitTask(new TestTask("low", Priority.LOW, Category.NETWORK, null));
+    TestTask highTask = instance.submitTask(new TestTask("high", Priority.HIGH, Category.NETWORK, null));
+
+    blockingTaskLatch.countDown();
+    lowTask.getFuture().get(5, TimeUnit.SECONDS);
+    highTask.getFuture().get(5, TimeUnit.SECONDS);
+
+    assertThat(executedTasks, contains("blocking", "high", "low"));
+  }
+
+  @Test
+  public void testCategoriesAreLimitedIndependently() throws Exception {
+    instance.submitTask(new TestTask("blocking", Priority.HIGH, Category.NETWORK, blockingTaskLatch));
+    TestTask diskTask = instance.submitTask(new TestTask("disk", Priority.LOW, Category.DISK, null));
+
+    diskTask.getFuture().get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testWaitingTaskCanBeCancelled() throws Exception {
+    instance.submitTask(new TestTask("blocking", Priority.HIGH, Category.NETWORK, blockingTaskLatch));
+    TestTask cancelledTask = instance.submitTask(new TestTask("cancelled", Priority.HIGH, Category.NETWORK, null));
+    TestTask task = instance.submitTask(new TestTask("task", Priority.LOW, Category.NETWORK, null));
+
+    cancelledTask.cancel(true);
+    blockingTaskLatch.countDown();
+    task.getFuture().get(5, TimeUnit.SECONDS);
+
+    assertThat(executedTasks, contains("blocking", "task"));
+  }
+
+  @Test
+  public void testTaskIsRejectedIfQueueIsFull() throws Exception {
+    instance.submitTask(new TestTask("blocking", Priority.HIGH, Category.NETWORK, blockingTaskLatch));
+    instance.submitTask(new TestTask("waiting1", Priority.HIGH, Category.NETWORK, null));
+    instance.submitTask(new TestTask("waiting2", Priority.HIGH, Category.NETWORK, null));
+    TestTask rejectedTask = instance.submitTask(new TestTask("rejected", Priority.HIGH, Category.NETWORK, null));
+
+    try {
+      rejectedTask.getFuture().get(5, TimeUnit.SECONDS);
+      fail("Task should have been rejected");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+    }
+    assertThat(instance.getActiveWorkers().contains(rejectedTask), is(false));
+  }
+
+  private class TestTask extends CompletableTask<Void> {
+    private final String name;
+    private final CountDownLatch latch;
+
+    private TestTask(String name, Priority priority, Category category, CountDownLatch latch) {
+      super(priority, category);
+      this.name = name;
+      this.latch = latch;
+    }
+
+    @Override
+    protected Void call() throws Exception {
+      executedTasks.add(name);
+      if (latch != null) {
+        latch.await();
+      }
+      return null;
+    }
+  }
+}
@@ -106,6 +106,25 @@ public abstract class AbstractPlainJavaFxTest extends ApplicationTest {
     }
   }
 
+  /**
+   * Runs the specified runnable while the application thread is blocked, so that everything the runnable schedules
+   * using {@link Platform#runLater(Runnable)} is run only after the runnable has returned.
+   */
+  protected void runWhileApplicationThreadIsBlocked(Runnable runnable) {
+    CountDownLatch blockedLatch = new CountDownLatch(1);
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    Platform.runLater(() -> {
+      blockedLatch.countDown();
+      noCatch((NoCatchRunnable) releaseLatch::await);
+    });
+    noCatch((NoCatchRunnable) blockedLatch::await);
+    try {
+      runnable.run();
+    } finally {
+      releaseLatch.countDown();
+    }
+  }
+
   protected String getThemeFile(String file) {
     return String.format("/%s", file);
   }
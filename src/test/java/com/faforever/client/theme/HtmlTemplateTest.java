@@ -0,0 +1,53 @@
+package com.faforever.client.theme;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class HtmlTemplateTest {
+
+  @Test
+  public void testRender() throws Exception {
+    HtmlTemplate instance = HtmlTemplate.compile("<span class=\"{css-classes}\">{username}: {text}</span>");
+
+    String html = instance.render(ImmutableMap.of("css-classes", "message", "username", "junit", "text", "Hello"));
+
+    assertThat(html, is("<span class=\"message\">junit: Hello</span>"));
+  }
+
+  @Test
+  public void testPlaceholdersWithoutValueAreKept() throws Exception {
+    HtmlTemplate instance = HtmlTemplate.compile("{time} {unknown}");
+
+    assertThat(instance.render(Collections.singletonMap("time", "12:00")), is("12:00 {unknown}"));
+  }
+
+  @Test
+  public void testValuesAreNotReplaced() throws Exception {
+    HtmlTemplate instance = HtmlTemplate.compile("{username}: {text}");
+
+    String html = instance.render(ImmutableMap.of("username", "{text}", "text", "{username}"));
+
+    assertThat(html, is("{text}: {username}"));
+  }
+
+  @Test
+  public void testNoPlaceholders() throws Exception {
+    HtmlTemplate instance = HtmlTemplate.compile("a { color: red; }");
+
+    assertThat(instance.render(Collections.emptyMap()), is("a { color: red; }"));
+  }
+
+  @Test
+  public void testLoadChatSection() throws Exception {
+    HtmlTemplate instance = HtmlTemplate.load(getClass().getResource("/" + UiService.CHAT_TEXT_COMPACT));
+
+    String html = instance.render(ImmutableMap.of("css-classes", "message", "inline-style", "", "text", "Hello"));
+
+    assertThat(html.trim(), is("<span class=\"text message\" style=\"\">Hello</span>"));
+  }
+}
@@ -0,0 +1,76 @@
+package com.faforever.client.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class IntHashSetTest {
+
+  private IntHashSet instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new IntHashSet();
+  }
+
+  @Test
+  public void testAddAndRemove() throws Exception {
+    assertThat(instance.add(5), is(true));
+    assertThat(instance.add(5), is(false));
+    assertThat(instance.contains(5), is(true));
+    assertThat(instance.size(), is(1));
+
+    assertThat(instance.remove(5), is(true));
+    assertThat(instance.remove(5), is(false));
+    assertThat(instance.contains(5), is(false));
+    assertThat(instance.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testZero() throws Exception {
+    assertThat(instance.contains(0), is(false));
+    instance.add(0);
+
+    assertThat(instance.contains(0), is(true));
+    assertThat(instance.toArray(), is(new int[]{0}));
+
+    instance.remove(0);
+    assertThat(instance.contains(0), is(false));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    instance.addAll(Arrays.asList(0, 1, 2));
+    instance.clear();
+
+    assertThat(instance.size(), is(0));
+    assertThat(instance.contains(1), is(false));
+  }
+
+  @Test
+  public void testBehavesLikeHashSet() throws Exception {
+    Set<Integer> expected = new HashSet<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 100_000; i++) {
+      int value = random.nextInt(2_000);
+      if (random.nextBoolean()) {
+        assertThat(instance.add(value), is(expected.add(value)));
+      } else {
+        assertThat(instance.remove(value), is(expected.remove(value)));
+      }
+    }
+
+    assertThat(instance.size(), is(expected.size()));
+    for (int value = 0; value < 2_000; value++) {
+      assertThat(instance.contains(value), is(expected.contains(value)));
+    }
+  }
+}
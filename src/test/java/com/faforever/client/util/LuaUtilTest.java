@@ -0,0 +1,65 @@
+package com.faforever.client.util;
+
+import org.junit.Test;
+import org.luaj.vm2.LuaValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.nocatch.NoCatch.noCatch;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LuaUtilTest {
+
+  @Test
+  public void testGlobalsOfScriptAreReturned() throws Exception {
+    LuaValue result = load("ScenarioInfo = { name = 'Burial Mounds', size = { 1024, 512 } }");
+
+    assertThat(result.get("ScenarioInfo").get("name").tojstring(), is("Burial Mounds"));
+    assertThat(result.get("ScenarioInfo").get("size").get(2).toint(), is(512));
+  }
+
+  @Test
+  public void testGlobalsAreResetAfterScript() throws Exception {
+    load("first = 1");
+    LuaValue result = load("second = 2");
+
+    assertThat(result.get("first").isnil(), is(true));
+    assertThat(result.get("second").toint(), is(2));
+  }
+
+  @Test
+  public void testReplacedStandardLibraryIsRestoredAfterScript() throws Exception {
+    load("string = nil");
+    LuaValue result = load("name = string.upper('seton')");
+
+    assertThat(result.get("name").tojstring(), is("SETON"));
+  }
+
+  @Test
+  public void testChangedStandardLibraryTableIsRestoredAfterScript() throws Exception {
+    load("string.upper = nil; math.answer = 42");
+    LuaValue result = load("name = string.upper('seton'); answer = math.answer");
+
+    assertThat(result.get("name").tojstring(), is("SETON"));
+    assertThat(result.get("answer").isnil(), is(true));
+  }
+
+  @Test
+  public void testScriptsAreLoadedInParallel() throws Exception {
+    List<Integer> values = IntStream.range(0, 200).parallel()
+        .mapToObj(value -> noCatch(() -> load("value = " + value)).get("value").toint())
+        .collect(Collectors.toList());
+
+    assertThat(values, is(IntStream.range(0, 200).boxed().collect(Collectors.toList())));
+  }
+
+  private static LuaValue load(String script) throws IOException {
+    return LuaUtil.load(new ByteArrayInputStream(script.getBytes(UTF_8)));
+  }
+}